@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Group of API endpoints which share a rate limit.
+ *
+ * @see LineRateLimiter
+ */
+@Getter(AccessLevel.PACKAGE)
+public enum ApiEndpointClass {
+    REPLY("POST", "/v2/bot/message/reply", 2000, Duration.ofSeconds(1)),
+    PUSH("POST", "/v2/bot/message/push", 2000, Duration.ofSeconds(1)),
+    MULTICAST("POST", "/v2/bot/message/multicast", 2000, Duration.ofSeconds(1)),
+    NARROWCAST("POST", "/v2/bot/message/narrowcast", 60, Duration.ofHours(1)),
+    BROADCAST("POST", "/v2/bot/message/broadcast", 60, Duration.ofHours(1)),
+    PROFILE("GET", "/v2/bot/(profile|(group|room)/[^/]+/member)/[^/]+", 2000, Duration.ofSeconds(1)),
+    RICH_MENU_LINK(null, "/v2/bot/(user/[^/]+/richmenu(/[^/]+)?|richmenu/bulk/(link|unlink))",
+                   2000, Duration.ofSeconds(1)),
+    OTHER(null, null, 2000, Duration.ofSeconds(1));
+
+    private final String method;
+    private final Pattern pathPattern;
+    private final int defaultPermits;
+    private final Duration defaultPeriod;
+
+    ApiEndpointClass(final String method, final String pathRegex,
+                     final int defaultPermits, final Duration defaultPeriod) {
+        this.method = method;
+        // Match the end of the path, so that endpoints with a base path work too.
+        this.pathPattern = pathRegex != null ? Pattern.compile(".*" + pathRegex) : null;
+        this.defaultPermits = defaultPermits;
+        this.defaultPeriod = defaultPeriod;
+    }
+
+    /**
+     * Classifies a request by its HTTP method and encoded path.
+     */
+    static ApiEndpointClass of(final String method, final String encodedPath) {
+        for (ApiEndpointClass endpointClass : values()) {
+            if (endpointClass.pathPattern == null) {
+                continue;
+            }
+            if ((endpointClass.method == null || endpointClass.method.equals(method))
+                && endpointClass.pathPattern.matcher(encodedPath).matches()) {
+                return endpointClass;
+            }
+        }
+        return OTHER;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.util.regex.Pattern;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Group of API endpoints which share a concurrency limit and a queue of {@link LineBulkhead}.
+ */
+@Getter(AccessLevel.PACKAGE)
+public enum BulkheadCompartment {
+    /**
+     * Reply messages. Reply tokens expire shortly, so this compartment has its own dispatcher.
+     */
+    REPLY(5, 1000),
+    /**
+     * Push, multicast, narrowcast and broadcast messages.
+     */
+    SEND(3, 10000),
+    /**
+     * Profile, insight and other API calls.
+     */
+    READ(2, 10000),
+    /**
+     * Message content downloads and rich menu image uploads.
+     */
+    BLOB(3, 1000);
+
+    private static final Pattern BLOB_PATH = Pattern.compile(".*/v2/bot/(message|richmenu)/[^/]+/content");
+
+    private final int defaultMaxConcurrent;
+    private final int defaultMaxQueued;
+
+    BulkheadCompartment(final int defaultMaxConcurrent, final int defaultMaxQueued) {
+        this.defaultMaxConcurrent = defaultMaxConcurrent;
+        this.defaultMaxQueued = defaultMaxQueued;
+    }
+
+    /**
+     * Classifies a request by its HTTP method and encoded path.
+     */
+    static BulkheadCompartment of(final String method, final String encodedPath) {
+        switch (ApiEndpointClass.of(method, encodedPath)) {
+            case REPLY:
+                return REPLY;
+            case PUSH:
+            case MULTICAST:
+            case NARROWCAST:
+            case BROADCAST:
+                return SEND;
+            default:
+                return BLOB_PATH.matcher(encodedPath).matches() ? BLOB : READ;
+        }
+    }
+}
@@ -35,6 +35,11 @@ public class ChannelManagementClientBuilder {
     private URI apiEndPoint = LineClientConstants.DEFAULT_API_END_POINT;
     private ChannelTokenSupplier channelTokenSupplier;
 
+    /**
+     * HTTP transport shared with other clients. Default = {@code null}, which creates one for this client.
+     */
+    private LineHttpTransport transport;
+
     /**
      * Create a new {@link ChannelManagementClientBuilder} with specified {@link ChannelTokenSupplier}.
      */
@@ -47,7 +52,8 @@ public class ChannelManagementClientBuilder {
      * Build a new {@link ChannelManagementSyncClient}.
      */
     public ChannelManagementSyncClient build() {
-        final Builder okHttpClientBuilder = new Builder();
+        final Builder okHttpClientBuilder = transport != null ? transport.newOkHttpClientBuilder()
+                                                              : new Builder();
 
         okHttpClientBuilder
                 .addInterceptor(buildAuthenticationInterceptor(channelTokenSupplier))
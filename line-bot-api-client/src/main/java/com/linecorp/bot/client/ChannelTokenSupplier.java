@@ -26,4 +26,12 @@ import java.util.function.Supplier;
  */
 @FunctionalInterface
 public interface ChannelTokenSupplier extends Supplier<String> {
+    /**
+     * Called with the HTTP status code of each API response to a request sent with the token, e.g. to stop
+     * using a token answered with 401 Unauthorized.
+     *
+     * <p>Default implementation does nothing.
+     */
+    default void onResponse(String channelToken, int statusCode) {
+    }
 }
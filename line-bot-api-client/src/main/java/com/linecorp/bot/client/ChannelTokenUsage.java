@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import lombok.Value;
+
+/**
+ * Usage of a channel access token in {@link RotatingChannelTokenSupplier}.
+ */
+@Value
+public class ChannelTokenUsage {
+    /**
+     * Position of the token in the pool.
+     */
+    int index;
+
+    /**
+     * Number of requests the token was supplied for.
+     */
+    long usageCount;
+
+    /**
+     * Number of 401 Unauthorized responses to requests with the token.
+     */
+    long unauthorizedCount;
+
+    /**
+     * Number of 429 Too Many Requests responses to requests with the token.
+     */
+    long tooManyRequestsCount;
+
+    /**
+     * Whether the token is out of rotation now.
+     */
+    boolean suspended;
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.linecorp.bot.client.exception.BadRequestException;
+import com.linecorp.bot.client.exception.ForbiddenException;
+import com.linecorp.bot.client.exception.NotFoundException;
+import com.linecorp.bot.model.Multicast;
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.message.Message;
+import com.linecorp.bot.model.objectmapper.ModelObjectMapper;
+import com.linecorp.bot.model.response.BotApiResponse;
+
+import lombok.ToString;
+import lombok.experimental.Delegate;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link LineMessagingClient} which coalesces pushes of identical messages into {@link Multicast}s.
+ *
+ * <p>{@link #pushMessage(PushMessage)} to a user is held for {@code window}. Pushes of the same messages
+ * and notification setting arriving in the meantime are sent together with
+ * {@link LineMessagingClient#multicast(Multicast)}, and the future of each push completes with the outcome
+ * of the multicast. When the multicast fails with 400, 403 or 404, which may be caused by a single
+ * recipient, the pushes are sent again one by one so that each gets its own outcome. A push held alone is
+ * sent as is. Other methods are delegated immediately.
+ *
+ * <p>Pushes to groups or rooms, pushes which can't be serialized, and a second push of the same messages
+ * to the same user within the window are not coalesced, as multicast can't express them. The second push
+ * is sent after the first one completes, so that the user receives them in order.
+ *
+ * <pre>{@code
+ * LineMessagingClient client = CoalescingLineMessagingClient.builder(lineMessagingClient)
+ *                                                           .window(Duration.ofMillis(20))
+ *                                                           .build();
+ * }</pre>
+ */
+@Slf4j
+@ToString(onlyExplicitlyIncluded = true)
+public final class CoalescingLineMessagingClient implements LineMessagingClient, Closeable {
+    private static final ObjectMapper objectMapper = ModelObjectMapper.createNewObjectMapper();
+
+    @Delegate(excludes = PushMessageMethod.class)
+    @ToString.Include
+    private final LineMessagingClient delegate;
+    @ToString.Include
+    private final long windowNanos;
+    private final ScheduledExecutorService scheduler;
+
+    /** Pending groups keyed by serialized messages and notification setting. */
+    private final Map<String, PendingGroup> pendingGroups = new LinkedHashMap<>();
+
+    private final LongAdder coalescedPushCount = new LongAdder();
+    private final LongAdder multicastCount = new LongAdder();
+    private final LongAdder splitMulticastCount = new LongAdder();
+
+    CoalescingLineMessagingClient(final LineMessagingClient delegate, final long windowNanos) {
+        this.delegate = delegate;
+        this.windowNanos = windowNanos;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "line-bot-push-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates a new {@link CoalescingLineMessagingClientBuilder}.
+     */
+    public static CoalescingLineMessagingClientBuilder builder(final LineMessagingClient delegate) {
+        return new CoalescingLineMessagingClientBuilder(delegate);
+    }
+
+    @Override
+    public CompletableFuture<BotApiResponse> pushMessage(final PushMessage pushMessage) {
+        if (pushMessage.getTo() == null || !pushMessage.getTo().startsWith("U")) {
+            return delegate.pushMessage(pushMessage);
+        }
+
+        final String key;
+        try {
+            key = pushMessage.isNotificationDisabled() + ":"
+                  + objectMapper.writeValueAsString(pushMessage.getMessages());
+        } catch (JsonProcessingException e) {
+            log.debug("Failed to serialize messages. Sending without coalescing.", e);
+            return delegate.pushMessage(pushMessage);
+        }
+
+        final String to = pushMessage.getTo();
+        final CompletableFuture<BotApiResponse> future = new CompletableFuture<>();
+        CompletableFuture<BotApiResponse> previous = null;
+        PendingGroup full = null;
+        boolean scheduled = true;
+        synchronized (pendingGroups) {
+            PendingGroup group = pendingGroups.get(key);
+            if (group == null) {
+                group = new PendingGroup(key, pushMessage.getMessages(), pushMessage.isNotificationDisabled());
+                scheduled = schedule(group);
+            }
+            if (scheduled && group.futures.containsKey(to)) {
+                // A repeat to the same user is sent after the earlier push completes, so it's not delivered
+                // ahead of the earlier push.
+                previous = group.lastRepeats.getOrDefault(to, group.futures.get(to));
+                group.lastRepeats.put(to, future);
+            } else if (scheduled) {
+                group.futures.put(to, future);
+                if (group.futures.size() >= LineClientConstants.MAX_MULTICAST_RECIPIENTS) {
+                    pendingGroups.remove(key);
+                    full = group;
+                }
+            }
+        }
+        if (!scheduled) {
+            return delegate.pushMessage(pushMessage);
+        }
+        if (previous != null) {
+            previous.whenComplete((result, throwable) -> complete(future, delegate.pushMessage(pushMessage)));
+            return future;
+        }
+        if (full != null) {
+            send(full);
+        }
+        return future;
+    }
+
+    /**
+     * Registers the group and schedules its flush. Returns {@code false} if this client is closed.
+     */
+    private boolean schedule(final PendingGroup group) {
+        try {
+            scheduler.schedule(() -> flush(group), windowNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+        pendingGroups.put(group.key, group);
+        return true;
+    }
+
+    private void flush(final PendingGroup group) {
+        synchronized (pendingGroups) {
+            // Already sent when it became full.
+            if (!pendingGroups.remove(group.key, group)) {
+                return;
+            }
+        }
+        send(group);
+    }
+
+    private void send(final PendingGroup group) {
+        final CompletableFuture<BotApiResponse> response;
+        if (group.futures.size() == 1) {
+            final String to = group.futures.keySet().iterator().next();
+            response = delegate.pushMessage(new PushMessage(to, group.messages, group.notificationDisabled));
+        } else {
+            coalescedPushCount.add(group.futures.size());
+            multicastCount.increment();
+            response = delegate.multicast(
+                    new Multicast(group.futures.keySet(), group.messages, group.notificationDisabled));
+        }
+        response.whenComplete((result, throwable) -> {
+            if (throwable != null && group.futures.size() > 1 && isRecipientError(throwable)) {
+                log.debug("Multicast failed. Sending {} pushes one by one.", group.futures.size(), throwable);
+                splitMulticastCount.increment();
+                group.futures.forEach((to, future) -> complete(
+                        future, delegate.pushMessage(
+                                new PushMessage(to, group.messages, group.notificationDisabled))));
+                return;
+            }
+            group.futures.values().forEach(future -> complete(future, response));
+        });
+    }
+
+    /**
+     * Returns whether the failure may be caused by some of the recipients. Other failures, e.g. 401 or
+     * 429, fail pushes to each recipient as well, so they are shared by the coalesced pushes.
+     */
+    private static boolean isRecipientError(final Throwable throwable) {
+        final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                                ? throwable.getCause() : throwable;
+        return cause instanceof BadRequestException
+               || cause instanceof ForbiddenException
+               || cause instanceof NotFoundException;
+    }
+
+    private static void complete(final CompletableFuture<BotApiResponse> future,
+                                 final CompletableFuture<BotApiResponse> response) {
+        response.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                future.completeExceptionally(throwable);
+            } else {
+                future.complete(result);
+            }
+        });
+    }
+
+    /**
+     * Number of pushes sent as part of multicasts.
+     */
+    public long getCoalescedPushCount() {
+        return coalescedPushCount.sum();
+    }
+
+    /**
+     * Number of multicasts sent instead of pushes.
+     */
+    public long getMulticastCount() {
+        return multicastCount.sum();
+    }
+
+    /**
+     * Number of multicasts failed by a recipient error and sent again as individual pushes.
+     */
+    public long getSplitMulticastCount() {
+        return splitMulticastCount.sum();
+    }
+
+    /**
+     * Sends pending pushes immediately and stops the thread which sends them after the window.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        final List<PendingGroup> groups;
+        synchronized (pendingGroups) {
+            groups = new ArrayList<>(pendingGroups.values());
+            pendingGroups.clear();
+        }
+        groups.forEach(this::send);
+    }
+
+    private static final class PendingGroup {
+        final String key;
+        final List<Message> messages;
+        final boolean notificationDisabled;
+        final Map<String, CompletableFuture<BotApiResponse>> futures = new LinkedHashMap<>();
+        /** Futures of the last repeated pushes to the recipients, which aren't part of the group. */
+        final Map<String, CompletableFuture<BotApiResponse>> lastRepeats = new HashMap<>();
+
+        PendingGroup(final String key, final List<Message> messages, final boolean notificationDisabled) {
+            this.key = key;
+            this.messages = messages;
+            this.notificationDisabled = notificationDisabled;
+        }
+    }
+
+    private interface PushMessageMethod {
+        CompletableFuture<BotApiResponse> pushMessage(PushMessage pushMessage);
+    }
+}
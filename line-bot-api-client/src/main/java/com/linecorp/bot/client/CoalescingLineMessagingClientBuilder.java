@@ -0,0 +1,58 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.time.Duration;
+
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+import lombok.experimental.PackagePrivate;
+
+@ToString
+@Accessors(fluent = true)
+public class CoalescingLineMessagingClientBuilder {
+    private final LineMessagingClient delegate;
+
+    /**
+     * Use {@link CoalescingLineMessagingClient#builder(LineMessagingClient)} to create instance.
+     */
+    @PackagePrivate
+    CoalescingLineMessagingClientBuilder(@NonNull final LineMessagingClient delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * How long a push is held to wait for pushes of the same messages.
+     *
+     * <p>Default value = 20 milliseconds.
+     */
+    @Setter
+    @NonNull
+    private Duration window = Duration.ofMillis(20);
+
+    /**
+     * Creates a new {@link CoalescingLineMessagingClient}.
+     */
+    public CoalescingLineMessagingClient build() {
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("window should be positive. But " + window);
+        }
+        return new CoalescingLineMessagingClient(delegate, window.toNanos());
+    }
+}
@@ -18,6 +18,8 @@ package com.linecorp.bot.client;
 
 import java.io.IOException;
 
+import com.linecorp.bot.client.exception.RequestNotSentException;
+
 import lombok.AllArgsConstructor;
 import okhttp3.Interceptor;
 import okhttp3.Request;
@@ -31,12 +33,20 @@ class HeaderInterceptor implements Interceptor {
 
     @Override
     public Response intercept(Chain chain) throws IOException {
-        final String channelToken = channelTokenSupplier.get();
+        final String channelToken;
+        try {
+            channelToken = channelTokenSupplier.get();
+        } catch (RuntimeException e) {
+            // Fails the call instead of the dispatcher thread, which would never complete the callback.
+            throw new RequestNotSentException("Failed to get channel access token", e);
+        }
         Request request = chain.request().newBuilder()
                                .addHeader("Authorization", "Bearer " + channelToken)
                                .addHeader("User-Agent", USER_AGENT)
                                .build();
-        return chain.proceed(request);
+        final Response response = chain.proceed(request);
+        channelTokenSupplier.onResponse(channelToken, response.code());
+        return response;
     }
 
 }
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.spec.RSAPrivateCrtKeySpec;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * Creates JWT assertions for {@link LineOAuthClient#issueChannelTokenByJWT(String)}.
+ *
+ * <p>The private key is parsed once, the JWS header and the constant part of the claims are encoded when
+ * this is created, and each thread keeps a {@link Signature} initialized with the key. So {@link #sign()}
+ * only encodes the expiry and computes the RS256 signature, without loading the key or looking up a
+ * provider. It's safe to call {@link #sign()} from multiple threads.
+ *
+ * <pre>{@code
+ * JwtAssertionSigner signer = JwtAssertionSigner.builder(channelId, keyId, JwtAssertionSigner.parseJwk(jwk))
+ *                                               .build();
+ * IssueChannelAccessTokenResponse token = oAuthClient.issueChannelTokenByJWT(signer.sign()).get();
+ * }</pre>
+ */
+@ToString(onlyExplicitlyIncluded = true)
+public final class JwtAssertionSigner {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64_URL_DECODER = Base64.getUrlDecoder();
+
+    @ToString.Include
+    private final String channelId;
+    @ToString.Include
+    private final String keyId;
+    @ToString.Include
+    private final long tokenLifetimeSecs;
+    private final long assertionLifetimeSecs;
+
+    /** Encoded header followed by '.', shared by all assertions. */
+    private final String encodedHeaderAndDot;
+    /** Claims before the value of "exp". */
+    private final String claimsPrefix;
+    /** Claims after the value of "exp". */
+    private final String claimsSuffix;
+    private final ThreadLocal<Signature> signature;
+
+    JwtAssertionSigner(final String channelId, final String keyId, final PrivateKey privateKey,
+                       final String audience, final long tokenLifetimeSecs, final long assertionLifetimeSecs) {
+        this.channelId = channelId;
+        this.keyId = keyId;
+        this.tokenLifetimeSecs = tokenLifetimeSecs;
+        this.assertionLifetimeSecs = assertionLifetimeSecs;
+
+        final Map<String, Object> header = new LinkedHashMap<>();
+        header.put("alg", "RS256");
+        header.put("typ", "JWT");
+        header.put("kid", keyId);
+        encodedHeaderAndDot = BASE64_URL.encodeToString(toJson(header)) + '.';
+
+        final String quotedChannelId = new String(toJson(channelId), StandardCharsets.UTF_8);
+        claimsPrefix = "{\"iss\":" + quotedChannelId
+                       + ",\"sub\":" + quotedChannelId
+                       + ",\"aud\":" + new String(toJson(audience), StandardCharsets.UTF_8)
+                       + ",\"exp\":";
+        claimsSuffix = ",\"token_exp\":" + tokenLifetimeSecs + '}';
+
+        // Fails fast on an unusable key rather than on the first sign().
+        newSignature(privateKey);
+        signature = ThreadLocal.withInitial(() -> newSignature(privateKey));
+    }
+
+    /**
+     * Creates a new {@link JwtAssertionSignerBuilder}.
+     *
+     * @param channelId Channel ID, which is the issuer and the subject of assertions.
+     * @param keyId {@code kid} of the public key registered on the console.
+     * @param privateKey RSA private key paired with the registered public key.
+     */
+    public static JwtAssertionSignerBuilder builder(@NonNull final String channelId,
+                                                    @NonNull final String keyId,
+                                                    @NonNull final PrivateKey privateKey) {
+        return new JwtAssertionSignerBuilder(channelId, keyId, privateKey);
+    }
+
+    /**
+     * Parses an RSA private key in JWK format, which is generated for the channel's assertion signing key.
+     *
+     * @throws IllegalArgumentException if it's not an RSA private key in JWK format.
+     */
+    public static PrivateKey parseJwk(@NonNull final String privateKeyJwk) {
+        try {
+            final JsonNode jwk = objectMapper.readTree(privateKeyJwk);
+            if (!"RSA".equals(jwk.path("kty").asText())) {
+                throw new IllegalArgumentException("kty of the JWK should be RSA.");
+            }
+            final RSAPrivateCrtKeySpec keySpec = new RSAPrivateCrtKeySpec(
+                    readJwkInteger(jwk, "n"), readJwkInteger(jwk, "e"), readJwkInteger(jwk, "d"),
+                    readJwkInteger(jwk, "p"), readJwkInteger(jwk, "q"), readJwkInteger(jwk, "dp"),
+                    readJwkInteger(jwk, "dq"), readJwkInteger(jwk, "qi"));
+            return KeyFactory.getInstance("RSA").generatePrivate(keySpec);
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalArgumentException("Invalid private key JWK.", e);
+        }
+    }
+
+    /**
+     * Creates a signed JWT assertion which expires {@code assertionLifetime} from now.
+     */
+    public String sign() {
+        return sign(System.currentTimeMillis() / 1000);
+    }
+
+    String sign(final long nowEpochSecs) {
+        final String claims = claimsPrefix + (nowEpochSecs + assertionLifetimeSecs) + claimsSuffix;
+        final String signingInput =
+                encodedHeaderAndDot + BASE64_URL.encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+        try {
+            final Signature rs256 = signature.get();
+            rs256.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return signingInput + '.' + BASE64_URL.encodeToString(rs256.sign());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to sign JWT assertion.", e);
+        }
+    }
+
+    private static Signature newSignature(final PrivateKey privateKey) {
+        try {
+            final Signature rs256 = Signature.getInstance("SHA256withRSA");
+            rs256.initSign(privateKey);
+            return rs256;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("The private key can't sign with RS256.", e);
+        }
+    }
+
+    private static BigInteger readJwkInteger(final JsonNode jwk, final String name) {
+        final JsonNode value = jwk.get(name);
+        if (value == null || !value.isTextual()) {
+            throw new IllegalArgumentException(name + " is missing in the JWK.");
+        }
+        return new BigInteger(1, BASE64_URL_DECODER.decode(value.asText()));
+    }
+
+    private static byte[] toJson(final Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.security.PrivateKey;
+import java.time.Duration;
+
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+import lombok.experimental.PackagePrivate;
+
+@ToString(onlyExplicitlyIncluded = true)
+@Accessors(fluent = true)
+public class JwtAssertionSignerBuilder {
+    private static final Duration MAX_TOKEN_LIFETIME = Duration.ofDays(30);
+    private static final Duration MAX_ASSERTION_LIFETIME = Duration.ofMinutes(30);
+
+    @ToString.Include
+    private final String channelId;
+    @ToString.Include
+    private final String keyId;
+    private final PrivateKey privateKey;
+
+    /**
+     * Use {@link JwtAssertionSigner#builder(String, String, PrivateKey)} to create instance.
+     */
+    @PackagePrivate
+    JwtAssertionSignerBuilder(final String channelId, final String keyId, final PrivateKey privateKey) {
+        this.channelId = channelId;
+        this.keyId = keyId;
+        this.privateKey = privateKey;
+    }
+
+    /**
+     * Lifetime of channel access tokens issued with the assertions, sent as {@code token_exp}.
+     *
+     * <p>Default value = 30 days, which is the max of the API.
+     */
+    @Setter
+    @NonNull
+    @ToString.Include
+    private Duration tokenLifetime = MAX_TOKEN_LIFETIME;
+
+    /**
+     * How long an assertion can be used after it's signed.
+     *
+     * <p>Default value = 30 minutes, which is the max of the API.
+     */
+    @Setter
+    @NonNull
+    @ToString.Include
+    private Duration assertionLifetime = MAX_ASSERTION_LIFETIME;
+
+    /**
+     * Audience of the assertions.
+     *
+     * <p>Default value = "https://api.line.me/".
+     */
+    @Setter
+    @NonNull
+    @ToString.Include
+    private String audience = "https://api.line.me/";
+
+    /**
+     * Creates a new {@link JwtAssertionSigner}.
+     *
+     * @throws IllegalArgumentException if the private key can't sign with RS256.
+     */
+    public JwtAssertionSigner build() {
+        if (tokenLifetime.getSeconds() <= 0 || tokenLifetime.compareTo(MAX_TOKEN_LIFETIME) > 0) {
+            throw new IllegalArgumentException(
+                    "tokenLifetime should be between 1 second and 30 days. But " + tokenLifetime);
+        }
+        if (assertionLifetime.getSeconds() <= 0 || assertionLifetime.compareTo(MAX_ASSERTION_LIFETIME) > 0) {
+            throw new IllegalArgumentException(
+                    "assertionLifetime should be between 1 second and 30 minutes. But " + assertionLifetime);
+        }
+        return new JwtAssertionSigner(channelId, keyId, privateKey, audience, tokenLifetime.getSeconds(),
+                                      assertionLifetime.getSeconds());
+    }
+}
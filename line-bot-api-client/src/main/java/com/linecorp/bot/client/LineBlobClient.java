@@ -16,7 +16,13 @@
 
 package com.linecorp.bot.client;
 
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.LongConsumer;
 
 import com.linecorp.bot.model.response.BotApiResponse;
 
@@ -31,6 +37,50 @@ public interface LineBlobClient {
      */
     CompletableFuture<MessageContentResponse> getMessageContent(String messageId);
 
+    /**
+     * Download content sent from users into a file.
+     *
+     * @see #downloadMessageContent(String, Path, LongConsumer)
+     */
+    default CompletableFuture<MessageContentTransferResult> downloadMessageContent(
+            String messageId, Path destination) {
+        return downloadMessageContent(messageId, destination, transferred -> {});
+    }
+
+    /**
+     * Download content sent from users into a file, without holding it in memory.
+     *
+     * <p>The file is created or truncated. When the download fails, including when fewer bytes than
+     * {@code Content-Length} arrive, the partial file is deleted.
+     *
+     * @param progressListener receives the total number of bytes written so far.
+     * @see <a href="https://developers.line.me/en/reference/messaging-api/#get-content">//developers.line.me/en/reference/messaging-api/#get-content</a>
+     */
+    CompletableFuture<MessageContentTransferResult> downloadMessageContent(
+            String messageId, Path destination, LongConsumer progressListener);
+
+    /**
+     * Write content sent from users into a channel.
+     *
+     * @see #transferMessageContent(String, WritableByteChannel, LongConsumer)
+     */
+    default CompletableFuture<MessageContentTransferResult> transferMessageContent(
+            String messageId, WritableByteChannel destination) {
+        return transferMessageContent(messageId, destination, transferred -> {});
+    }
+
+    /**
+     * Write content sent from users into a channel, without holding it in memory.
+     *
+     * <p>A {@link FileChannel} is written from its current position by {@link FileChannel#transferFrom}.
+     * The channel is not closed.
+     *
+     * @param progressListener receives the total number of bytes written so far.
+     * @see <a href="https://developers.line.me/en/reference/messaging-api/#get-content">//developers.line.me/en/reference/messaging-api/#get-content</a>
+     */
+    CompletableFuture<MessageContentTransferResult> transferMessageContent(
+            String messageId, WritableByteChannel destination, LongConsumer progressListener);
+
     /**
      * Download rich menu image.
      *
@@ -46,6 +96,37 @@ public interface LineBlobClient {
     CompletableFuture<BotApiResponse> setRichMenuImage(
             String richMenuId, String contentType, byte[] content);
 
+    /**
+     * Set RichMenu image from a file.
+     *
+     * <p>The file is streamed into the request rather than loaded into memory.
+     *
+     * @see <a href="https://developers.line.me/en/docs/messaging-api/reference/#upload-rich-menu-image">//developers.line.me/en/docs/messaging-api/reference/#upload-rich-menu-image</a>
+     */
+    CompletableFuture<BotApiResponse> setRichMenuImage(
+            String richMenuId, String contentType, Path image);
+
+    /**
+     * Set RichMenu image from the remaining bytes of a buffer, e.g. a memory-mapped file.
+     *
+     * <p>The position of the buffer is not changed.
+     *
+     * @see <a href="https://developers.line.me/en/docs/messaging-api/reference/#upload-rich-menu-image">//developers.line.me/en/docs/messaging-api/reference/#upload-rich-menu-image</a>
+     */
+    CompletableFuture<BotApiResponse> setRichMenuImage(
+            String richMenuId, String contentType, ByteBuffer content);
+
+    /**
+     * Set RichMenu image from a stream of known length.
+     *
+     * <p>The stream is copied into the request as it is sent, rather than loaded into memory. It is read
+     * once and closed after it is sent, so the request is not retried.
+     *
+     * @see <a href="https://developers.line.me/en/docs/messaging-api/reference/#upload-rich-menu-image">//developers.line.me/en/docs/messaging-api/reference/#upload-rich-menu-image</a>
+     */
+    CompletableFuture<BotApiResponse> setRichMenuImage(
+            String richMenuId, String contentType, InputStream content, long contentLength);
+
     static LineBlobClientBuilder builder(String channelToken) {
         return builder(FixedChannelTokenSupplier.of(channelToken));
     }
@@ -21,6 +21,9 @@ import static java.util.Objects.requireNonNull;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
@@ -35,6 +38,7 @@ import lombok.Setter;
 import lombok.ToString;
 import lombok.experimental.Accessors;
 import lombok.experimental.PackagePrivate;
+import okhttp3.Call;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
@@ -105,6 +109,58 @@ public class LineBlobClientBuilder {
     @Setter
     private long writeTimeout = LineClientConstants.DEFAULT_WRITE_TIMEOUT_MILLIS;
 
+    /**
+     * HTTP transport shared with other clients.
+     *
+     * <p>Default = {@code null}, which creates a transport for this builder. If specified,
+     * {@link #okHttpClientBuilder(OkHttpClient.Builder, boolean)}, {@link #maxRequests(int)},
+     * {@link #maxRequestsPerHost(int)} and {@link #dispatcherExecutorService(ExecutorService)} are ignored
+     * since they are properties of the transport.
+     *
+     * @see LineHttpTransport
+     */
+    @Setter
+    private LineHttpTransport transport;
+
+    /**
+     * Rate limiter applied to requests of this client.
+     *
+     * <p>Default = {@code null}, which sends requests without client side rate limiting.
+     *
+     * @see LineRateLimiter
+     */
+    @Setter
+    private LineRateLimiter rateLimiter;
+
+    /**
+     * Bulkhead isolating reply, send, read and blob requests of this client.
+     *
+     * <p>Default = {@code null}, which executes all requests in the dispatcher of the transport.
+     *
+     * @see LineBulkhead
+     */
+    @Setter
+    private LineBulkhead bulkhead;
+
+    private int maxRequests = LineClientConstants.DEFAULT_MAX_REQUESTS;
+    private int maxRequestsPerHost = LineClientConstants.DEFAULT_MAX_REQUESTS_PER_HOST;
+    private ExecutorService dispatcherExecutorService;
+
+    /**
+     * Whether any of the dispatcher settings above is specified. Otherwise, the dispatcher of
+     * {@link #okHttpClientBuilder(OkHttpClient.Builder, boolean)} is kept.
+     */
+    private boolean dispatcherConfigured;
+
+    /**
+     * Executor which completes {@link CompletableFuture}s returned by the client.
+     *
+     * <p>Default = {@code null}, which completes them on the threads executing HTTP requests. Specify this
+     * if continuations of the futures take long, so that they don't hold the threads executing requests.
+     */
+    @Setter
+    private Executor callbackExecutor;
+
     /**
      * Channel token supplier of this client.
      *
@@ -158,12 +214,52 @@ public class LineBlobClientBuilder {
         return this;
     }
 
+    /**
+     * Max number of requests executed concurrently.
+     *
+     * <p>Default value = {@value LineClientConstants#DEFAULT_MAX_REQUESTS}.
+     */
+    public LineBlobClientBuilder maxRequests(int maxRequests) {
+        this.maxRequests = maxRequests;
+        dispatcherConfigured = true;
+        return this;
+    }
+
+    /**
+     * Max number of requests executed concurrently for each host.
+     *
+     * <p>Almost all requests go to the same host, so this limits the number of asynchronous calls in flight.
+     * Requests exceeding the limit wait in the queue.
+     *
+     * <p>Default value = {@value LineClientConstants#DEFAULT_MAX_REQUESTS_PER_HOST}.
+     */
+    public LineBlobClientBuilder maxRequestsPerHost(int maxRequestsPerHost) {
+        this.maxRequestsPerHost = maxRequestsPerHost;
+        dispatcherConfigured = true;
+        return this;
+    }
+
+    /**
+     * Executor service which executes HTTP requests.
+     *
+     * <p>Default = {@code null}, which uses the thread pool of OkHttp.
+     */
+    public LineBlobClientBuilder dispatcherExecutorService(ExecutorService dispatcherExecutorService) {
+        this.dispatcherExecutorService = dispatcherExecutorService;
+        dispatcherConfigured = true;
+        return this;
+    }
+
     /**
      * Set customized OkHttpClient.Builder.
      *
      * <p>In case of you need your own customized {@link OkHttpClient},
      * this builder allows specify {@link OkHttpClient.Builder} instance.
      *
+     * <p>The dispatcher of the given builder is kept unless {@link #maxRequests(int)},
+     * {@link #maxRequestsPerHost(int)} or {@link #dispatcherExecutorService(ExecutorService)} is specified,
+     * in which case it's replaced with a dispatcher of those settings.
+     *
      * <p>To use this method, please add dependency to 'com.squareup.retrofit2:retrofit'.
      *
      * @param addAuthenticationHeader If true, all default okhttp interceptors ignored.
@@ -182,9 +278,8 @@ public class LineBlobClientBuilder {
      * Creates a new {@link LineBlobService}.
      */
     <T> T buildRetrofitIface(URI apiEndPoint, Class<T> retrofitIFace) {
-        if (okHttpClientBuilder == null) {
-            okHttpClientBuilder = new OkHttpClient.Builder();
-        }
+        // Each service gets its own builder not to add interceptors twice, while sharing the transport.
+        final OkHttpClient.Builder okHttpClientBuilder = transport().newOkHttpClientBuilder();
 
         // Add interceptors.
         if (addAuthenticationHeader) {
@@ -206,24 +301,57 @@ public class LineBlobClientBuilder {
         if (retrofitBuilder == null) {
             retrofitBuilder = createDefaultRetrofitBuilder();
         }
-        retrofitBuilder.client(okHttpClient);
+        Call.Factory callFactory = bulkhead != null ? bulkhead.wrap(okHttpClient) : okHttpClient;
+        if (rateLimiter != null) {
+            callFactory = rateLimiter.wrap(callFactory);
+        }
+        retrofitBuilder.callFactory(callFactory);
         retrofitBuilder.baseUrl(apiEndPoint.toString());
+        if (callbackExecutor != null) {
+            retrofitBuilder.callbackExecutor(callbackExecutor);
+        }
 
         final Retrofit retrofit = retrofitBuilder.build();
 
         return retrofit.create(retrofitIFace);
     }
 
+    private LineHttpTransport transport() {
+        if (transport != null) {
+            return transport;
+        }
+
+        // Services built by this builder share a transport of their own.
+        if (okHttpClientBuilder != null) {
+            if (dispatcherConfigured) {
+                okHttpClientBuilder.dispatcher(LineHttpTransportBuilder.createDispatcher(
+                        maxRequests, maxRequestsPerHost, dispatcherExecutorService));
+            }
+            transport = LineHttpTransport.of(okHttpClientBuilder.build());
+        } else {
+            transport = LineHttpTransport.builder()
+                                         .maxRequests(maxRequests)
+                                         .maxRequestsPerHost(maxRequestsPerHost)
+                                         .dispatcherExecutorService(dispatcherExecutorService)
+                                         .build();
+        }
+        return transport;
+    }
+
     static HeaderInterceptor buildAuthenticationInterceptor(ChannelTokenSupplier channelTokenSupplier) {
         requireNonNull(channelTokenSupplier, "channelTokenSupplier");
         return HeaderInterceptor.forChannelTokenSupplier(channelTokenSupplier);
     }
 
+    /**
+     * Builds a logging interceptor which logs headers only. Logging bodies would read whole contents into
+     * memory before they are passed to the caller.
+     */
     static Interceptor buildLoggingInterceptor() {
         final Logger slf4jLogger = LoggerFactory.getLogger("com.linecorp.bot.client.wire");
 
         return new HttpLoggingInterceptor(slf4jLogger::info)
-                .setLevel(Level.BODY);
+                .setLevel(Level.HEADERS);
     }
 
     static Retrofit.Builder createDefaultRetrofitBuilder() {
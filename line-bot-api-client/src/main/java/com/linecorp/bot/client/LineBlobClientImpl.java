@@ -16,7 +16,16 @@
 
 package com.linecorp.bot.client;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.LongConsumer;
 
 import com.linecorp.bot.client.exception.GeneralLineMessagingException;
 import com.linecorp.bot.model.response.BotApiResponse;
@@ -25,12 +34,19 @@ import lombok.AllArgsConstructor;
 import okhttp3.MediaType;
 import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.Okio;
+import okio.Source;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
 
 @AllArgsConstructor
 class LineBlobClientImpl implements LineBlobClient {
+    /** Bytes moved per read, and between progress notifications. */
+    static final int TRANSFER_CHUNK_SIZE = 64 * 1024;
+
     private final LineBlobService retrofitImpl;
 
     @Override
@@ -38,6 +54,21 @@ class LineBlobClientImpl implements LineBlobClient {
         return toMessageContentResponseFuture(retrofitImpl.getMessageContent(messageId));
     }
 
+    @Override
+    public CompletableFuture<MessageContentTransferResult> downloadMessageContent(
+            final String messageId, final Path destination, final LongConsumer progressListener) {
+        return toTransferResultFuture(retrofitImpl.getMessageContent(messageId),
+                                      body -> transferToFile(body, destination, progressListener));
+    }
+
+    @Override
+    public CompletableFuture<MessageContentTransferResult> transferMessageContent(
+            final String messageId, final WritableByteChannel destination,
+            final LongConsumer progressListener) {
+        return toTransferResultFuture(retrofitImpl.getMessageContent(messageId),
+                                      body -> transfer(body, destination, progressListener));
+    }
+
     @Override
     public CompletableFuture<MessageContentResponse> getRichMenuImage(final String richMenuId) {
         return toMessageContentResponseFuture(retrofitImpl.getRichMenuImage(richMenuId));
@@ -51,6 +82,130 @@ class LineBlobClientImpl implements LineBlobClient {
                 retrofitImpl.uploadRichMenuImage(richMenuId, requestBody));
     }
 
+    @Override
+    public CompletableFuture<BotApiResponse> setRichMenuImage(
+            final String richMenuId, final String contentType, final Path image) {
+        final RequestBody requestBody;
+        try {
+            requestBody = fileRequestBody(MediaType.parse(contentType), image);
+        } catch (IOException e) {
+            final CompletableFuture<BotApiResponse> future = new CompletableFuture<>();
+            future.completeExceptionally(new GeneralLineMessagingException(e.getMessage(), null, e));
+            return future;
+        }
+        return LineMessagingClientImpl.toBotApiFuture(
+                retrofitImpl.uploadRichMenuImage(richMenuId, requestBody));
+    }
+
+    @Override
+    public CompletableFuture<BotApiResponse> setRichMenuImage(
+            final String richMenuId, final String contentType, final ByteBuffer content) {
+        final RequestBody requestBody = byteBufferRequestBody(MediaType.parse(contentType), content);
+        return LineMessagingClientImpl.toBotApiFuture(
+                retrofitImpl.uploadRichMenuImage(richMenuId, requestBody));
+    }
+
+    @Override
+    public CompletableFuture<BotApiResponse> setRichMenuImage(
+            final String richMenuId, final String contentType, final InputStream content,
+            final long contentLength) {
+        final RequestBody requestBody =
+                inputStreamRequestBody(MediaType.parse(contentType), content, contentLength);
+        return LineMessagingClientImpl.toBotApiFuture(
+                retrofitImpl.uploadRichMenuImage(richMenuId, requestBody));
+    }
+
+    /**
+     * Creates a {@link RequestBody} which sends the file with {@link FileChannel#transferTo} each time the
+     * request is written, so the file is never loaded into the heap and the request can be retried.
+     */
+    static RequestBody fileRequestBody(final MediaType contentType, final Path file) throws IOException {
+        final long length = Files.size(file);
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return contentType;
+            }
+
+            @Override
+            public long contentLength() {
+                return length;
+            }
+
+            @Override
+            public void writeTo(final BufferedSink sink) throws IOException {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    long position = 0;
+                    while (position < length) {
+                        final long count = channel.transferTo(position, length - position, sink);
+                        if (count <= 0) {
+                            throw new IOException(file + " was truncated while uploading");
+                        }
+                        position += count;
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Creates a {@link RequestBody} of the remaining bytes of the buffer. The position of the buffer is not
+     * changed, so the request can be retried.
+     */
+    static RequestBody byteBufferRequestBody(final MediaType contentType, final ByteBuffer content) {
+        final ByteBuffer snapshot = content.slice().asReadOnlyBuffer();
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return contentType;
+            }
+
+            @Override
+            public long contentLength() {
+                return snapshot.remaining();
+            }
+
+            @Override
+            public void writeTo(final BufferedSink sink) throws IOException {
+                sink.write(snapshot.duplicate());
+            }
+        };
+    }
+
+    /**
+     * Creates a one-shot {@link RequestBody} which copies the stream into the request and closes it.
+     */
+    static RequestBody inputStreamRequestBody(final MediaType contentType, final InputStream content,
+                                              final long contentLength) {
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return contentType;
+            }
+
+            @Override
+            public long contentLength() {
+                return contentLength;
+            }
+
+            @Override
+            public boolean isOneShot() {
+                return true;
+            }
+
+            @Override
+            public void writeTo(final BufferedSink sink) throws IOException {
+                try (Source source = Okio.source(content)) {
+                    final long written = sink.writeAll(source);
+                    if (written != contentLength) {
+                        throw new IOException("contentLength is " + contentLength
+                                              + " but the stream had " + written + " bytes");
+                    }
+                }
+            }
+        };
+    }
+
     private static CompletableFuture<MessageContentResponse> toMessageContentResponseFuture(
             final Call<ResponseBody> callToWrap) {
         final ResponseBodyCallbackAdaptor future = new ResponseBodyCallbackAdaptor();
@@ -58,6 +213,120 @@ class LineBlobClientImpl implements LineBlobClient {
         return future;
     }
 
+    private static CompletableFuture<MessageContentTransferResult> toTransferResultFuture(
+            final Call<ResponseBody> callToWrap, final ContentTransfer transfer) {
+        final TransferCallbackAdaptor future = new TransferCallbackAdaptor(transfer);
+        callToWrap.enqueue(future);
+        return future;
+    }
+
+    /**
+     * Writes the whole body into the file, deleting it when the transfer doesn't complete so that no
+     * truncated content is left behind.
+     */
+    static long transferToFile(final ResponseBody body, final Path destination,
+                               final LongConsumer progressListener) throws IOException {
+        try (FileChannel channel = FileChannel.open(destination,
+                                                    StandardOpenOption.CREATE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING,
+                                                    StandardOpenOption.WRITE)) {
+            return transfer(body, channel, progressListener);
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(destination);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Moves the body into the channel without materializing it as a byte array or an
+     * {@link java.io.InputStream}, and verifies the number of bytes against {@code Content-Length}.
+     *
+     * <p>A {@link FileChannel} pulls from the source by {@link FileChannel#transferFrom}. Other channels are
+     * written through one reused direct buffer.
+     */
+    static long transfer(final ResponseBody body, final WritableByteChannel destination,
+                         final LongConsumer progressListener) throws IOException {
+        final BufferedSource source = body.source();
+        long transferred = 0;
+        if (destination instanceof FileChannel) {
+            final FileChannel file = (FileChannel) destination;
+            final long position = file.position();
+            long count;
+            while ((count = file.transferFrom(source, position + transferred, TRANSFER_CHUNK_SIZE)) > 0) {
+                transferred += count;
+                progressListener.accept(transferred);
+            }
+            file.position(position + transferred);
+        } else {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(TRANSFER_CHUNK_SIZE);
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                transferred += buffer.remaining();
+                while (buffer.hasRemaining()) {
+                    destination.write(buffer);
+                }
+                buffer.clear();
+                progressListener.accept(transferred);
+            }
+        }
+
+        final long contentLength = body.contentLength();
+        if (contentLength >= 0 && transferred != contentLength) {
+            throw new IOException("Content-Length is " + contentLength
+                                  + " but " + transferred + " bytes were transferred");
+        }
+        return transferred;
+    }
+
+    @FunctionalInterface
+    interface ContentTransfer {
+        long transfer(ResponseBody body) throws IOException;
+    }
+
+    /**
+     * Runs the transfer on the thread delivering the response, so the body is consumed and closed before
+     * the future completes.
+     */
+    static class TransferCallbackAdaptor
+            extends CompletableFuture<MessageContentTransferResult>
+            implements Callback<ResponseBody> {
+        private final ContentTransfer transfer;
+
+        TransferCallbackAdaptor(final ContentTransfer transfer) {
+            this.transfer = transfer;
+        }
+
+        @Override
+        public void onResponse(final Call<ResponseBody> call, final Response<ResponseBody> response) {
+            if (!response.isSuccessful()) {
+                completeExceptionally(LineMessagingClientImpl.EXCEPTION_CONVERTER.apply(response));
+                return;
+            }
+
+            try (ResponseBody body = response.body()) {
+                final long length = transfer.transfer(body);
+                complete(MessageContentTransferResult
+                                 .builder()
+                                 .length(length)
+                                 .allHeaders(response.headers().toMultimap())
+                                 .mimeType(String.valueOf(body.contentType()))
+                                 .build());
+            } catch (IOException | RuntimeException e) {
+                completeExceptionally(new GeneralLineMessagingException(e.getMessage(), null, e));
+            }
+        }
+
+        @Override
+        public void onFailure(final Call<ResponseBody> call, final Throwable t) {
+            completeExceptionally(
+                    new GeneralLineMessagingException(t.getMessage(), null, t));
+        }
+    }
+
     static class ResponseBodyCallbackAdaptor
             extends CompletableFuture<MessageContentResponse>
             implements Callback<ResponseBody> {
@@ -0,0 +1,330 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.linecorp.bot.client.exception.RequestNotSentException;
+
+import lombok.ToString;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.Timeout;
+
+/**
+ * Bulkhead which isolates reply, send, read and blob traffic from each other.
+ *
+ * <p>Requests are classified by {@link BulkheadCompartment} and each compartment has its own concurrency
+ * limit and bounded queue. A burst of push messages or content downloads fills up only its own compartment,
+ * and requests exceeding its queue fail immediately with {@link RequestNotSentException} instead of piling up.
+ *
+ * <p>{@link BulkheadCompartment#REPLY} requests are executed by a dispatcher owned by the bulkhead, while
+ * sharing connections with other requests. Since the dispatcher of the {@link LineHttpTransport} never sees
+ * reply requests, replies are sent even when the transport is saturated by other requests. Keep the sum of
+ * the limits of other compartments within the {@code maxRequestsPerHost} of the transport so that their
+ * queues work as a backlog.
+ *
+ * <p>A request occupies its compartment until the response callback returns. Share a bulkhead among clients
+ * of the same transport.
+ *
+ * <pre>{@code
+ * LineBulkhead bulkhead = LineBulkhead.builder()
+ *                                     .limit(BulkheadCompartment.SEND, 4, 50000)
+ *                                     .build();
+ * LineMessagingClient client = LineMessagingClient.builder(token).bulkhead(bulkhead).build();
+ * LineBlobClient blobClient = LineBlobClient.builder(token).bulkhead(bulkhead).build();
+ * }</pre>
+ */
+@ToString(onlyExplicitlyIncluded = true)
+public final class LineBulkhead implements Closeable {
+    @ToString.Include
+    private final Map<BulkheadCompartment, Compartment> compartments = new EnumMap<>(BulkheadCompartment.class);
+    private final ExecutorService replyExecutorService;
+    private final Dispatcher replyDispatcher;
+
+    private final LongAdder queuedRequestCount = new LongAdder();
+    private final LongAdder rejectedRequestCount = new LongAdder();
+
+    LineBulkhead(final Map<BulkheadCompartment, Integer> maxConcurrent,
+                 final Map<BulkheadCompartment, Integer> maxQueued) {
+        for (BulkheadCompartment compartment : BulkheadCompartment.values()) {
+            compartments.put(compartment, new Compartment(compartment, maxConcurrent.get(compartment),
+                                                          maxQueued.get(compartment)));
+        }
+        final AtomicInteger threadCount = new AtomicInteger();
+        replyExecutorService = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "line-bot-reply-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        replyDispatcher = new Dispatcher(replyExecutorService);
+        replyDispatcher.setMaxRequests(maxConcurrent.get(BulkheadCompartment.REPLY));
+        replyDispatcher.setMaxRequestsPerHost(maxConcurrent.get(BulkheadCompartment.REPLY));
+    }
+
+    /**
+     * Creates a new {@link LineBulkheadBuilder}.
+     */
+    public static LineBulkheadBuilder builder() {
+        return new LineBulkheadBuilder();
+    }
+
+    /**
+     * Wraps the client so that calls created by it are isolated by compartments. Apply this before rate
+     * limiting and retrying, so that delayed requests don't occupy a compartment.
+     */
+    Call.Factory wrap(final OkHttpClient okHttpClient) {
+        return wrap(okHttpClient, okHttpClient);
+    }
+
+    /**
+     * Wraps the clients so that calls created by them are isolated by compartments. Reply requests are
+     * created by {@code okHttpClient} with the dispatcher of this bulkhead, and other requests by
+     * {@code callFactory} when they leave the queue of their compartment.
+     */
+    Call.Factory wrap(final OkHttpClient okHttpClient, final Call.Factory callFactory) {
+        final OkHttpClient replyClient = okHttpClient.newBuilder()
+                                                     .dispatcher(replyDispatcher)
+                                                     .build();
+        return request -> {
+            final BulkheadCompartment compartment =
+                    BulkheadCompartment.of(request.method(), request.url().encodedPath());
+            final Call.Factory factory = compartment == BulkheadCompartment.REPLY ? replyClient
+                                                                                   : callFactory;
+            return new IsolatedCall(factory.newCall(request), compartments.get(compartment));
+        };
+    }
+
+    /**
+     * Number of requests which waited in a queue of a compartment.
+     */
+    public long getQueuedRequestCount() {
+        return queuedRequestCount.sum();
+    }
+
+    /**
+     * Number of requests failed because the queue of their compartment was full.
+     */
+    public long getRejectedRequestCount() {
+        return rejectedRequestCount.sum();
+    }
+
+    /**
+     * Number of requests currently executed in the compartment.
+     */
+    public int getRunningCount(final BulkheadCompartment compartment) {
+        return compartments.get(compartment).runningCount();
+    }
+
+    /**
+     * Number of requests currently waiting in the queue of the compartment.
+     */
+    public int getQueueSize(final BulkheadCompartment compartment) {
+        return compartments.get(compartment).queueSize();
+    }
+
+    /**
+     * Stops the threads which execute reply requests. Reply requests not executed yet fail.
+     */
+    @Override
+    public void close() {
+        replyExecutorService.shutdownNow();
+    }
+
+    @ToString
+    private final class Compartment {
+        private final BulkheadCompartment name;
+        private final int maxConcurrent;
+        private final int maxQueued;
+
+        @ToString.Exclude
+        private final Queue<Runnable> queue = new ArrayDeque<>();
+        private int running;
+
+        Compartment(final BulkheadCompartment name, final int maxConcurrent, final int maxQueued) {
+            this.name = name;
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueued = maxQueued;
+        }
+
+        /**
+         * Occupies the compartment and returns {@code true}, or queues {@code start} and returns
+         * {@code false} if the compartment is full. {@code start} is run when the compartment is passed on.
+         */
+        boolean acquire(final Runnable start) throws IOException {
+            synchronized (this) {
+                if (running < maxConcurrent) {
+                    running++;
+                    return true;
+                }
+                if (queue.size() < maxQueued) {
+                    queue.add(start);
+                    queuedRequestCount.increment();
+                    return false;
+                }
+            }
+            rejectedRequestCount.increment();
+            throw new RequestNotSentException("Bulkhead compartment " + name + " is full. " + maxConcurrent
+                                  + " requests are running and " + maxQueued + " requests are queued.");
+        }
+
+        /**
+         * Passes the compartment to the first queued request, or frees it if none.
+         */
+        void release() {
+            final Runnable next;
+            synchronized (this) {
+                next = queue.poll();
+                if (next == null) {
+                    running--;
+                }
+            }
+            if (next != null) {
+                next.run();
+            }
+        }
+
+        /**
+         * Removes {@code start} from the queue. Returns {@code false} if it was already dequeued, which
+         * means the compartment was passed on to it.
+         */
+        synchronized boolean cancel(final Runnable start) {
+            return queue.remove(start);
+        }
+
+        synchronized int runningCount() {
+            return running;
+        }
+
+        synchronized int queueSize() {
+            return queue.size();
+        }
+    }
+
+    private static final class IsolatedCall implements Call {
+        private final Call delegate;
+        private final Compartment compartment;
+
+        IsolatedCall(final Call delegate, final Compartment compartment) {
+            this.delegate = delegate;
+            this.compartment = compartment;
+        }
+
+        @Override
+        public Request request() {
+            return delegate.request();
+        }
+
+        @Override
+        public Response execute() throws IOException {
+            final CountDownLatch passed = new CountDownLatch(1);
+            final Runnable start = passed::countDown;
+            if (!compartment.acquire(start)) {
+                try {
+                    passed.await();
+                } catch (InterruptedException e) {
+                    if (!compartment.cancel(start)) {
+                        compartment.release();
+                    }
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the bulkhead");
+                }
+            }
+            try {
+                return delegate.execute();
+            } finally {
+                compartment.release();
+            }
+        }
+
+        @Override
+        public void enqueue(final Callback responseCallback) {
+            final Callback releasingCallback = new Callback() {
+                @Override
+                public void onResponse(final Call call, final Response response) throws IOException {
+                    try {
+                        responseCallback.onResponse(IsolatedCall.this, response);
+                    } finally {
+                        compartment.release();
+                    }
+                }
+
+                @Override
+                public void onFailure(final Call call, final IOException e) {
+                    try {
+                        responseCallback.onFailure(IsolatedCall.this, e);
+                    } finally {
+                        compartment.release();
+                    }
+                }
+            };
+
+            // A call canceled while queued fails on enqueue, which passes the compartment on.
+            final Runnable start = () -> delegate.enqueue(releasingCallback);
+            final boolean acquired;
+            try {
+                acquired = compartment.acquire(start);
+            } catch (IOException e) {
+                responseCallback.onFailure(this, e);
+                return;
+            }
+            if (acquired) {
+                start.run();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            delegate.cancel();
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return delegate.isExecuted();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return delegate.isCanceled();
+        }
+
+        @Override
+        public Timeout timeout() {
+            return delegate.timeout();
+        }
+
+        @Override
+        public Call clone() {
+            return new IsolatedCall(delegate.clone(), compartment);
+        }
+    }
+}
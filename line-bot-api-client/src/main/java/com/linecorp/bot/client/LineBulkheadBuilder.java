@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+import lombok.experimental.PackagePrivate;
+
+@ToString
+@Accessors(fluent = true)
+public class LineBulkheadBuilder {
+    private final Map<BulkheadCompartment, Integer> maxConcurrent = new EnumMap<>(BulkheadCompartment.class);
+    private final Map<BulkheadCompartment, Integer> maxQueued = new EnumMap<>(BulkheadCompartment.class);
+
+    /**
+     * Use {@link LineBulkhead#builder()} to create instance.
+     */
+    @PackagePrivate
+    LineBulkheadBuilder() {
+        for (BulkheadCompartment compartment : BulkheadCompartment.values()) {
+            maxConcurrent.put(compartment, compartment.getDefaultMaxConcurrent());
+            maxQueued.put(compartment, compartment.getDefaultMaxQueued());
+        }
+    }
+
+    /**
+     * Sets the limits of the compartment. Up to {@code maxConcurrent} requests are executed at once, and up
+     * to {@code maxQueued} requests wait for them. Requests exceeding both fail immediately.
+     *
+     * <p>Default values are 5 running and 1,000 queued for {@link BulkheadCompartment#REPLY}, 3 and 10,000
+     * for {@link BulkheadCompartment#SEND}, 2 and 10,000 for {@link BulkheadCompartment#READ}, and 3 and
+     * 1,000 for {@link BulkheadCompartment#BLOB}.
+     */
+    public LineBulkheadBuilder limit(@NonNull final BulkheadCompartment compartment, final int maxConcurrent,
+                                     final int maxQueued) {
+        return maxConcurrent(compartment, maxConcurrent).maxQueued(compartment, maxQueued);
+    }
+
+    /**
+     * Sets the max number of requests of the compartment executed at once, keeping its queue size.
+     *
+     * @see #limit(BulkheadCompartment, int, int)
+     */
+    public LineBulkheadBuilder maxConcurrent(@NonNull final BulkheadCompartment compartment,
+                                             final int maxConcurrent) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("maxConcurrent should be positive. But " + maxConcurrent);
+        }
+        this.maxConcurrent.put(compartment, maxConcurrent);
+        return this;
+    }
+
+    /**
+     * Sets the max number of requests waiting in the queue of the compartment, keeping its concurrency.
+     *
+     * @see #limit(BulkheadCompartment, int, int)
+     */
+    public LineBulkheadBuilder maxQueued(@NonNull final BulkheadCompartment compartment, final int maxQueued) {
+        if (maxQueued < 0) {
+            throw new IllegalArgumentException("maxQueued should not be negative. But " + maxQueued);
+        }
+        this.maxQueued.put(compartment, maxQueued);
+        return this;
+    }
+
+    /**
+     * Creates a new {@link LineBulkhead}.
+     */
+    public LineBulkhead build() {
+        return new LineBulkhead(maxConcurrent, maxQueued);
+    }
+}
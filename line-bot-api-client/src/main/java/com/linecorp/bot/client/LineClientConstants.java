@@ -17,6 +17,7 @@
 package com.linecorp.bot.client;
 
 import java.net.URI;
+import java.time.Duration;
 
 /**
  * Common constant holder.
@@ -28,4 +29,9 @@ public enum LineClientConstants {
     public static final long DEFAULT_CONNECT_TIMEOUT_MILLIS = 10_000;
     public static final long DEFAULT_READ_TIMEOUT_MILLIS = 10_000;
     public static final long DEFAULT_WRITE_TIMEOUT_MILLIS = 10_000;
+    public static final int DEFAULT_MAX_REQUESTS = 64;
+    public static final int DEFAULT_MAX_REQUESTS_PER_HOST = 5;
+    public static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+    public static final Duration DEFAULT_KEEP_ALIVE_DURATION = Duration.ofMinutes(5);
+    public static final int MAX_MULTICAST_RECIPIENTS = 500;
 }
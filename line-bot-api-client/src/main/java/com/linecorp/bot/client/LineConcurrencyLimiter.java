@@ -0,0 +1,362 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import com.linecorp.bot.client.exception.RequestNotSentException;
+
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.Timeout;
+
+/**
+ * Client side concurrency limiter which adapts the number of in-flight requests to the latency and errors of
+ * the LINE Messaging API.
+ *
+ * <p>The limit follows AIMD, the algorithm of TCP congestion control. While requests complete within
+ * {@code latencyTolerance} times the baseline latency, the limit grows by about one per limit responses.
+ * A 429 Too Many Requests, a 5xx response, a network error or a latency above the tolerance multiplies the
+ * limit by {@code backoffRatio}, at most once per round trip. Each {@link ApiEndpointClass} has its own
+ * baseline, so that slow endpoints like multicast aren't compared with fast ones like profile. The baseline
+ * is the lowest latency observed, slowly drifting towards recent latencies so that it follows the daily
+ * changes of the server.
+ *
+ * <p>Requests exceeding the limit wait in a queue without blocking the calling thread for asynchronous
+ * calls, and reply requests go ahead of others there. Requests exceeding {@code maxQueued} fail with
+ * {@link RequestNotSentException}. Latency includes waiting for the dispatcher of the transport, so raise the
+ * {@code maxRequestsPerHost} of the {@link LineHttpTransport} when {@code maxLimit} is greater than it.
+ *
+ * <p>With a {@link LineBulkhead}, requests take a slot only after leaving the queue of their compartment, and
+ * reply requests bypass the limiter so that they keep the capacity reserved by the bulkhead.
+ *
+ * <pre>{@code
+ * LineConcurrencyLimiter concurrencyLimiter = LineConcurrencyLimiter.builder()
+ *                                                                   .maxLimit(20)
+ *                                                                   .build();
+ * LineMessagingClient client = LineMessagingClient.builder(token)
+ *                                                 .concurrencyLimiter(concurrencyLimiter)
+ *                                                 .build();
+ * }</pre>
+ */
+@Slf4j
+@ToString(onlyExplicitlyIncluded = true)
+public final class LineConcurrencyLimiter {
+    /** Weight of a new sample in the drift of the baseline latency. */
+    private static final double BASELINE_DRIFT = 0.01;
+
+    @ToString.Include
+    private final int minLimit;
+    @ToString.Include
+    private final int maxLimit;
+    @ToString.Include
+    private final int maxQueued;
+    @ToString.Include
+    private final double backoffRatio;
+    @ToString.Include
+    private final double latencyTolerance;
+    private final LongSupplier nanoTime;
+
+    private final Queue<Runnable> replyQueue = new ArrayDeque<>();
+    private final Queue<Runnable> queue = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+    private final Map<ApiEndpointClass, Double> baselineLatencyNanos = new EnumMap<>(ApiEndpointClass.class);
+    private long lastDecreaseNanos;
+
+    private final LongAdder rejectedRequestCount = new LongAdder();
+    private final LongAdder limitDecreasedCount = new LongAdder();
+
+    LineConcurrencyLimiter(final int initialLimit, final int minLimit, final int maxLimit, final int maxQueued,
+                           final double backoffRatio, final double latencyTolerance,
+                           final LongSupplier nanoTime) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueued = maxQueued;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.nanoTime = nanoTime;
+        lastDecreaseNanos = nanoTime.getAsLong();
+    }
+
+    /**
+     * Creates a new {@link LineConcurrencyLimiterBuilder}.
+     */
+    public static LineConcurrencyLimiterBuilder builder() {
+        return new LineConcurrencyLimiterBuilder();
+    }
+
+    /**
+     * Wraps the call factory so that calls created by it are concurrency limited.
+     */
+    Call.Factory wrap(final Call.Factory callFactory) {
+        return request -> new LimitedCall(callFactory.newCall(request),
+                                          ApiEndpointClass.of(request.method(), request.url().encodedPath()));
+    }
+
+    /**
+     * Current limit of in-flight requests.
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Number of requests currently in flight.
+     */
+    public synchronized int getInFlightCount() {
+        return inFlight;
+    }
+
+    /**
+     * Number of requests currently waiting for the limit.
+     */
+    public synchronized int getQueueSize() {
+        return replyQueue.size() + queue.size();
+    }
+
+    /**
+     * Number of requests failed because the queue was full.
+     */
+    public long getRejectedRequestCount() {
+        return rejectedRequestCount.sum();
+    }
+
+    /**
+     * Number of times the limit was lowered by latency or errors.
+     */
+    public long getLimitDecreasedCount() {
+        return limitDecreasedCount.sum();
+    }
+
+    /**
+     * Takes an in-flight slot and returns {@code true}, or queues {@code start} and returns {@code false} if
+     * the limit is reached. {@code start} is run when a slot is passed on.
+     */
+    private boolean acquire(final Runnable start, final ApiEndpointClass endpointClass) throws IOException {
+        synchronized (this) {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return true;
+            }
+            if (getQueueSize() < maxQueued) {
+                (endpointClass == ApiEndpointClass.REPLY ? replyQueue : queue).add(start);
+                return false;
+            }
+        }
+        rejectedRequestCount.increment();
+        throw new RequestNotSentException("Concurrency limit exceeded. " + maxQueued
+                                          + " requests are already queued.");
+    }
+
+    /**
+     * Frees the slot of a request which started at {@code startNanos}, and updates the limit with its
+     * outcome.
+     */
+    private void release(final ApiEndpointClass endpointClass, final long startNanos, final boolean dropped) {
+        synchronized (this) {
+            inFlight--;
+            update(endpointClass, startNanos, nanoTime.getAsLong(), dropped);
+        }
+        passOn();
+    }
+
+    /**
+     * Frees the slot of a request which was not sent.
+     */
+    private void releaseUnused() {
+        synchronized (this) {
+            inFlight--;
+        }
+        passOn();
+    }
+
+    /**
+     * Passes free slots on to queued requests, replies first.
+     */
+    private void passOn() {
+        final Queue<Runnable> starts = new ArrayDeque<>();
+        synchronized (this) {
+            while (inFlight < (int) limit) {
+                Runnable next = replyQueue.poll();
+                if (next == null) {
+                    next = queue.poll();
+                }
+                if (next == null) {
+                    break;
+                }
+                inFlight++;
+                starts.add(next);
+            }
+        }
+        starts.forEach(Runnable::run);
+    }
+
+    private synchronized boolean cancel(final Runnable start) {
+        return replyQueue.remove(start) || queue.remove(start);
+    }
+
+    private void update(final ApiEndpointClass endpointClass, final long startNanos, final long now,
+                        final boolean dropped) {
+        final long latencyNanos = now - startNanos;
+        Double baseline = baselineLatencyNanos.get(endpointClass);
+        if (!dropped) {
+            if (baseline == null || latencyNanos < baseline) {
+                baseline = (double) latencyNanos;
+            } else {
+                baseline += (latencyNanos - baseline) * BASELINE_DRIFT;
+            }
+            baselineLatencyNanos.put(endpointClass, baseline);
+        }
+        if (dropped || baseline != null && latencyNanos > baseline * latencyTolerance) {
+            // Requests sent before the last decrease saw the old limit. Count a congestion once.
+            if (startNanos - lastDecreaseNanos >= 0) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastDecreaseNanos = now;
+                limitDecreasedCount.increment();
+                log.debug("Lowered the concurrency limit to {}. latency: {}ms, dropped: {}",
+                          (int) limit, TimeUnit.NANOSECONDS.toMillis(latencyNanos), dropped);
+            }
+        } else if ((inFlight + 1) * 2 >= limit) {
+            // Grow only while the limit is actually used.
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    private static boolean isDropped(final Response response) {
+        return response.code() == 429 || response.code() >= 500;
+    }
+
+    private final class LimitedCall implements Call {
+        private final Call delegate;
+        private final ApiEndpointClass endpointClass;
+
+        LimitedCall(final Call delegate, final ApiEndpointClass endpointClass) {
+            this.delegate = delegate;
+            this.endpointClass = endpointClass;
+        }
+
+        @Override
+        public Request request() {
+            return delegate.request();
+        }
+
+        @Override
+        public Response execute() throws IOException {
+            final CountDownLatch passed = new CountDownLatch(1);
+            final Runnable start = passed::countDown;
+            if (!acquire(start, endpointClass)) {
+                try {
+                    passed.await();
+                } catch (InterruptedException e) {
+                    if (!cancel(start)) {
+                        releaseUnused();
+                    }
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the concurrency limit");
+                }
+            }
+            final long startNanos = nanoTime.getAsLong();
+            boolean dropped = true;
+            try {
+                final Response response = delegate.execute();
+                dropped = isDropped(response);
+                return response;
+            } finally {
+                release(endpointClass, startNanos, dropped);
+            }
+        }
+
+        @Override
+        public void enqueue(final Callback responseCallback) {
+            final long[] startNanos = new long[1];
+            final Callback releasingCallback = new Callback() {
+                @Override
+                public void onResponse(final Call call, final Response response) throws IOException {
+                    // Measure the latency until the headers arrive, not until the body is consumed.
+                    release(endpointClass, startNanos[0], isDropped(response));
+                    responseCallback.onResponse(LimitedCall.this, response);
+                }
+
+                @Override
+                public void onFailure(final Call call, final IOException e) {
+                    if (call.isCanceled()) {
+                        releaseUnused();
+                    } else {
+                        release(endpointClass, startNanos[0], true);
+                    }
+                    responseCallback.onFailure(LimitedCall.this, e);
+                }
+            };
+
+            // A call canceled while queued fails on enqueue, which passes the slot on.
+            final Runnable start = () -> {
+                startNanos[0] = nanoTime.getAsLong();
+                delegate.enqueue(releasingCallback);
+            };
+            final boolean acquired;
+            try {
+                acquired = acquire(start, endpointClass);
+            } catch (IOException e) {
+                responseCallback.onFailure(this, e);
+                return;
+            }
+            if (acquired) {
+                start.run();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            delegate.cancel();
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return delegate.isExecuted();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return delegate.isCanceled();
+        }
+
+        @Override
+        public Timeout timeout() {
+            return delegate.timeout();
+        }
+
+        @Override
+        public Call clone() {
+            return new LimitedCall(delegate.clone(), endpointClass);
+        }
+    }
+}
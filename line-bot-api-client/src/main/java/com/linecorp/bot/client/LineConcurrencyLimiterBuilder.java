@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+import lombok.experimental.PackagePrivate;
+
+@ToString
+@Accessors(fluent = true)
+public class LineConcurrencyLimiterBuilder {
+    /**
+     * Use {@link LineConcurrencyLimiter#builder()} to create instance.
+     */
+    @PackagePrivate
+    LineConcurrencyLimiterBuilder() {
+    }
+
+    /**
+     * Limit of in-flight requests at start.
+     *
+     * <p>Default value = {@value LineClientConstants#DEFAULT_MAX_REQUESTS_PER_HOST}.
+     */
+    @Setter
+    private int initialLimit = LineClientConstants.DEFAULT_MAX_REQUESTS_PER_HOST;
+
+    /**
+     * Lower bound of the limit.
+     *
+     * <p>Default value = 1.
+     */
+    @Setter
+    private int minLimit = 1;
+
+    /**
+     * Upper bound of the limit.
+     *
+     * <p>Default value = 20.
+     */
+    @Setter
+    private int maxLimit = 20;
+
+    /**
+     * Max number of requests waiting for the limit. Requests exceeding this fail immediately.
+     *
+     * <p>Default value = 10,000.
+     */
+    @Setter
+    private int maxQueued = 10_000;
+
+    /**
+     * Ratio the limit is multiplied by on congestion.
+     *
+     * <p>Default value = 0.9.
+     */
+    @Setter
+    private double backoffRatio = 0.9;
+
+    /**
+     * Latency above this times the baseline latency is taken as congestion.
+     *
+     * <p>Default value = 2.0.
+     */
+    @Setter
+    private double latencyTolerance = 2;
+
+    /**
+     * Creates a new {@link LineConcurrencyLimiter}.
+     */
+    public LineConcurrencyLimiter build() {
+        if (minLimit <= 0) {
+            throw new IllegalArgumentException("minLimit should be positive. But " + minLimit);
+        }
+        if (maxLimit < minLimit) {
+            throw new IllegalArgumentException(
+                    "maxLimit should not be less than minLimit " + minLimit + ". But " + maxLimit);
+        }
+        if (initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException(
+                    "initialLimit should be between minLimit and maxLimit. But " + initialLimit);
+        }
+        if (maxQueued < 0) {
+            throw new IllegalArgumentException("maxQueued should not be negative. But " + maxQueued);
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio should be between 0 and 1. But " + backoffRatio);
+        }
+        if (latencyTolerance <= 1) {
+            throw new IllegalArgumentException(
+                    "latencyTolerance should be greater than 1. But " + latencyTolerance);
+        }
+        return new LineConcurrencyLimiter(initialLimit, minLimit, maxLimit, maxQueued, backoffRatio,
+                                          latencyTolerance, System::nanoTime);
+    }
+}
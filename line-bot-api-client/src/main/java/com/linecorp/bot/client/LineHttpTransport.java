@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.io.Closeable;
+
+import lombok.NonNull;
+import lombok.ToString;
+import okhttp3.OkHttpClient;
+
+/**
+ * HTTP transport which can be shared by LINE API clients.
+ *
+ * <p>Clients built with the same transport share its connection pool, TLS sessions and dispatcher.
+ * So connections to the API servers are reused across clients, and the number of threads and sockets
+ * doesn't grow with the number of clients. Limits of concurrent requests apply to all of them together.
+ *
+ * <pre>{@code
+ * LineHttpTransport transport = LineHttpTransport.builder()
+ *                                                .maxRequestsPerHost(20)
+ *                                                .build();
+ * LineMessagingClient messagingClient = LineMessagingClient.builder(token).transport(transport).build();
+ * LineBlobClient blobClient = LineBlobClient.builder(token).transport(transport).build();
+ * }</pre>
+ */
+@ToString
+public final class LineHttpTransport implements Closeable {
+    private final OkHttpClient okHttpClient;
+
+    LineHttpTransport(final OkHttpClient okHttpClient) {
+        this.okHttpClient = okHttpClient;
+    }
+
+    /**
+     * Creates a new {@link LineHttpTransportBuilder}.
+     */
+    public static LineHttpTransportBuilder builder() {
+        return new LineHttpTransportBuilder();
+    }
+
+    /**
+     * Creates a transport which shares the connection pool, TLS settings and dispatcher of
+     * the {@link OkHttpClient}. Interceptors and timeouts of each client are added to its own copy.
+     *
+     * <p>To use this method, please add dependency to 'com.squareup.okhttp3:okhttp'.
+     */
+    public static LineHttpTransport of(@NonNull final OkHttpClient okHttpClient) {
+        return new LineHttpTransport(okHttpClient);
+    }
+
+    /**
+     * Creates a builder of {@link OkHttpClient} for a client, which shares resources of this transport.
+     */
+    OkHttpClient.Builder newOkHttpClientBuilder() {
+        return okHttpClient.newBuilder();
+    }
+
+    /**
+     * Number of open connections, including idle ones.
+     */
+    public int getConnectionCount() {
+        return okHttpClient.connectionPool().connectionCount();
+    }
+
+    /**
+     * Number of idle connections.
+     */
+    public int getIdleConnectionCount() {
+        return okHttpClient.connectionPool().idleConnectionCount();
+    }
+
+    /**
+     * Number of requests being executed.
+     */
+    public int getRunningRequestCount() {
+        return okHttpClient.dispatcher().runningCallsCount();
+    }
+
+    /**
+     * Number of requests waiting for the limits of concurrent requests.
+     */
+    public int getQueuedRequestCount() {
+        return okHttpClient.dispatcher().queuedCallsCount();
+    }
+
+    /**
+     * Stops the threads executing requests and closes idle connections.
+     * Clients using this transport can't send requests after this.
+     */
+    @Override
+    public void close() {
+        okHttpClient.dispatcher().executorService().shutdown();
+        okHttpClient.connectionPool().evictAll();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+import lombok.experimental.PackagePrivate;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+
+@ToString
+@Accessors(fluent = true)
+public class LineHttpTransportBuilder {
+    /**
+     * Use {@link LineHttpTransport#builder()} to create instance.
+     */
+    @PackagePrivate
+    LineHttpTransportBuilder() {
+    }
+
+    /**
+     * Max number of requests executed concurrently.
+     *
+     * <p>Default value = {@value LineClientConstants#DEFAULT_MAX_REQUESTS}.
+     */
+    @Setter
+    private int maxRequests = LineClientConstants.DEFAULT_MAX_REQUESTS;
+
+    /**
+     * Max number of requests executed concurrently for each host.
+     *
+     * <p>Default value = {@value LineClientConstants#DEFAULT_MAX_REQUESTS_PER_HOST}.
+     */
+    @Setter
+    private int maxRequestsPerHost = LineClientConstants.DEFAULT_MAX_REQUESTS_PER_HOST;
+
+    /**
+     * Executor service which executes HTTP requests.
+     *
+     * <p>Default = {@code null}, which uses the thread pool of OkHttp.
+     */
+    @Setter
+    private ExecutorService dispatcherExecutorService;
+
+    /**
+     * Max number of idle connections kept in the pool.
+     *
+     * <p>Default value = {@value LineClientConstants#DEFAULT_MAX_IDLE_CONNECTIONS}.
+     */
+    @Setter
+    private int maxIdleConnections = LineClientConstants.DEFAULT_MAX_IDLE_CONNECTIONS;
+
+    /**
+     * How long an idle connection is kept in the pool.
+     *
+     * <p>Default value = 5 minutes.
+     */
+    @Setter
+    @NonNull
+    private Duration keepAliveDuration = LineClientConstants.DEFAULT_KEEP_ALIVE_DURATION;
+
+    /**
+     * Creates a new {@link LineHttpTransport}.
+     */
+    public LineHttpTransport build() {
+        final Dispatcher dispatcher =
+                createDispatcher(maxRequests, maxRequestsPerHost, dispatcherExecutorService);
+        final ConnectionPool connectionPool =
+                new ConnectionPool(maxIdleConnections, keepAliveDuration.toMillis(), TimeUnit.MILLISECONDS);
+        final OkHttpClient okHttpClient = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(connectionPool)
+                .build();
+        return new LineHttpTransport(okHttpClient);
+    }
+
+    static Dispatcher createDispatcher(final int maxRequests, final int maxRequestsPerHost,
+                                       final ExecutorService executorService) {
+        final Dispatcher dispatcher = executorService != null ? new Dispatcher(executorService)
+                                                              : new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        return dispatcher;
+    }
+}
@@ -18,6 +18,7 @@ package com.linecorp.bot.client;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 import com.linecorp.bot.model.Broadcast;
 import com.linecorp.bot.model.Multicast;
@@ -214,6 +215,29 @@ public interface LineMessagingClient {
      */
     CompletableFuture<MembersIdsResponse> getRoomMembersIds(String roomId, String start);
 
+    /**
+     * Streams all user IDs of group members, following {@link MembersIdsResponse#getNext()} automatically.
+     *
+     * <p>The next page is requested while the current page is consumed, and at most two pages are kept in
+     * memory. Failures are thrown as {@link java.util.concurrent.CompletionException} from the terminal
+     * operation. Close the stream to cancel the prefetched page when not consuming all IDs.
+     *
+     * @see #getGroupMembersIds(String, String)
+     */
+    default Stream<String> streamGroupMembersIds(String groupId) {
+        return MembersIdsSpliterator.stream(start -> getGroupMembersIds(groupId, start));
+    }
+
+    /**
+     * Streams all user IDs of room members, following {@link MembersIdsResponse#getNext()} automatically.
+     *
+     * @see #streamGroupMembersIds(String)
+     * @see #getRoomMembersIds(String, String)
+     */
+    default Stream<String> streamRoomMembersIds(String roomId) {
+        return MembersIdsSpliterator.stream(start -> getRoomMembersIds(roomId, start));
+    }
+
     /**
      * Leave a group.
      *
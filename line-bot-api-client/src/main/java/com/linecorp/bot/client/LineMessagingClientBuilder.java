@@ -21,6 +21,9 @@ import static java.util.Objects.requireNonNull;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
@@ -35,6 +38,7 @@ import lombok.Setter;
 import lombok.ToString;
 import lombok.experimental.Accessors;
 import lombok.experimental.PackagePrivate;
+import okhttp3.Call;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
@@ -116,6 +120,78 @@ public class LineMessagingClientBuilder {
     @Setter
     private long writeTimeout = LineClientConstants.DEFAULT_WRITE_TIMEOUT_MILLIS;
 
+    /**
+     * HTTP transport shared with other clients.
+     *
+     * <p>Default = {@code null}, which creates a transport for this builder. If specified,
+     * {@link #okHttpClientBuilder(OkHttpClient.Builder, boolean)}, {@link #maxRequests(int)},
+     * {@link #maxRequestsPerHost(int)} and {@link #dispatcherExecutorService(ExecutorService)} are ignored
+     * since they are properties of the transport.
+     *
+     * @see LineHttpTransport
+     */
+    @Setter
+    private LineHttpTransport transport;
+
+    /**
+     * Rate limiter applied to requests of this client.
+     *
+     * <p>Default = {@code null}, which sends requests without client side rate limiting.
+     *
+     * @see LineRateLimiter
+     */
+    @Setter
+    private LineRateLimiter rateLimiter;
+
+    /**
+     * Bulkhead isolating reply, send, read and blob requests of this client.
+     *
+     * <p>Default = {@code null}, which executes all requests in the dispatcher of the transport.
+     *
+     * @see LineBulkhead
+     */
+    @Setter
+    private LineBulkhead bulkhead;
+
+    /**
+     * Adaptive concurrency limiter applied to requests of this client.
+     *
+     * <p>Default = {@code null}, which sends requests up to the static limits of the transport.
+     *
+     * @see LineConcurrencyLimiter
+     */
+    @Setter
+    private LineConcurrencyLimiter concurrencyLimiter;
+
+    /**
+     * Retry policy applied to message sending requests of this client.
+     *
+     * <p>Default = {@code null}, which fails on the first network error or 5xx response.
+     *
+     * @see LineRetryPolicy
+     */
+    @Setter
+    private LineRetryPolicy retryPolicy;
+
+    private int maxRequests = LineClientConstants.DEFAULT_MAX_REQUESTS;
+    private int maxRequestsPerHost = LineClientConstants.DEFAULT_MAX_REQUESTS_PER_HOST;
+    private ExecutorService dispatcherExecutorService;
+
+    /**
+     * Whether any of the dispatcher settings above is specified. Otherwise, the dispatcher of
+     * {@link #okHttpClientBuilder(OkHttpClient.Builder, boolean)} is kept.
+     */
+    private boolean dispatcherConfigured;
+
+    /**
+     * Executor which completes {@link CompletableFuture}s returned by the client.
+     *
+     * <p>Default = {@code null}, which completes them on the threads executing HTTP requests. Specify this
+     * if continuations of the futures take long, so that they don't hold the threads executing requests.
+     */
+    @Setter
+    private Executor callbackExecutor;
+
     /**
      * Channel token supplier of this client.
      *
@@ -169,12 +245,52 @@ public class LineMessagingClientBuilder {
         return this;
     }
 
+    /**
+     * Max number of requests executed concurrently.
+     *
+     * <p>Default value = {@value LineClientConstants#DEFAULT_MAX_REQUESTS}.
+     */
+    public LineMessagingClientBuilder maxRequests(int maxRequests) {
+        this.maxRequests = maxRequests;
+        dispatcherConfigured = true;
+        return this;
+    }
+
+    /**
+     * Max number of requests executed concurrently for each host.
+     *
+     * <p>Almost all requests go to the same host, so this limits the number of asynchronous calls in flight.
+     * Requests exceeding the limit wait in the queue.
+     *
+     * <p>Default value = {@value LineClientConstants#DEFAULT_MAX_REQUESTS_PER_HOST}.
+     */
+    public LineMessagingClientBuilder maxRequestsPerHost(int maxRequestsPerHost) {
+        this.maxRequestsPerHost = maxRequestsPerHost;
+        dispatcherConfigured = true;
+        return this;
+    }
+
+    /**
+     * Executor service which executes HTTP requests.
+     *
+     * <p>Default = {@code null}, which uses the thread pool of OkHttp.
+     */
+    public LineMessagingClientBuilder dispatcherExecutorService(ExecutorService dispatcherExecutorService) {
+        this.dispatcherExecutorService = dispatcherExecutorService;
+        dispatcherConfigured = true;
+        return this;
+    }
+
     /**
      * Set customized OkHttpClient.Builder.
      *
      * <p>In case of you need your own customized {@link OkHttpClient},
      * this builder allows specify {@link OkHttpClient.Builder} instance.
      *
+     * <p>The dispatcher of the given builder is kept unless {@link #maxRequests(int)},
+     * {@link #maxRequestsPerHost(int)} or {@link #dispatcherExecutorService(ExecutorService)} is specified,
+     * in which case it's replaced with a dispatcher of those settings.
+     *
      * <p>To use this method, please add dependency to 'com.squareup.retrofit2:retrofit'.
      *
      * @param addAuthenticationHeader If true, all default okhttp interceptors ignored.
@@ -193,9 +309,8 @@ public class LineMessagingClientBuilder {
      * Creates a new {@link LineMessagingService}.
      */
     <T> T buildRetrofitIface(URI apiEndPoint, Class<T> retrofitIFace) {
-        if (okHttpClientBuilder == null) {
-            okHttpClientBuilder = new OkHttpClient.Builder();
-        }
+        // Each service gets its own builder not to add interceptors twice, while sharing the transport.
+        final OkHttpClient.Builder okHttpClientBuilder = transport().newOkHttpClientBuilder();
 
         // Add interceptors.
         if (addAuthenticationHeader) {
@@ -217,14 +332,55 @@ public class LineMessagingClientBuilder {
         if (retrofitBuilder == null) {
             retrofitBuilder = createDefaultRetrofitBuilder();
         }
-        retrofitBuilder.client(okHttpClient);
+        Call.Factory callFactory = okHttpClient;
+        if (concurrencyLimiter != null) {
+            // Requests queued in the bulkhead or delayed by the rate limiter don't take in-flight slots.
+            callFactory = concurrencyLimiter.wrap(callFactory);
+        }
+        if (bulkhead != null) {
+            // Replies bypass the concurrency limiter, so that they keep the capacity reserved for them.
+            callFactory = bulkhead.wrap(okHttpClient, callFactory);
+        }
+        if (rateLimiter != null) {
+            callFactory = rateLimiter.wrap(callFactory);
+        }
+        if (retryPolicy != null) {
+            // Each attempt goes through the rate limiter.
+            callFactory = retryPolicy.wrap(callFactory);
+        }
+        retrofitBuilder.callFactory(callFactory);
         retrofitBuilder.baseUrl(apiEndPoint.toString());
+        if (callbackExecutor != null) {
+            retrofitBuilder.callbackExecutor(callbackExecutor);
+        }
 
         final Retrofit retrofit = retrofitBuilder.build();
 
         return retrofit.create(retrofitIFace);
     }
 
+    private LineHttpTransport transport() {
+        if (transport != null) {
+            return transport;
+        }
+
+        // Services built by this builder share a transport of their own.
+        if (okHttpClientBuilder != null) {
+            if (dispatcherConfigured) {
+                okHttpClientBuilder.dispatcher(LineHttpTransportBuilder.createDispatcher(
+                        maxRequests, maxRequestsPerHost, dispatcherExecutorService));
+            }
+            transport = LineHttpTransport.of(okHttpClientBuilder.build());
+        } else {
+            transport = LineHttpTransport.builder()
+                                         .maxRequests(maxRequests)
+                                         .maxRequestsPerHost(maxRequestsPerHost)
+                                         .dispatcherExecutorService(dispatcherExecutorService)
+                                         .build();
+        }
+        return transport;
+    }
+
     static HeaderInterceptor buildAuthenticationInterceptor(ChannelTokenSupplier channelTokenSupplier) {
         requireNonNull(channelTokenSupplier, "channelTokenSupplier");
         return HeaderInterceptor.forChannelTokenSupplier(channelTokenSupplier);
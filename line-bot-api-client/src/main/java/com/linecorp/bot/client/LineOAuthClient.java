@@ -43,6 +43,17 @@ public interface LineOAuthClient {
      */
     CompletableFuture<IssueChannelAccessTokenResponse> issueChannelToken(IssueChannelAccessTokenRequest req);
 
+    /**
+     * Issues a channel access token v2.1 whose lifetime is specified by the JWT assertion. It will return a
+     * failed {@link CompletableFuture} with {@link ChannelAccessTokenException} if it has an error during
+     * calling the API.
+     *
+     * @param clientAssertion a JWT signed by the private key of the channel, e.g. created by
+     *         {@link JwtAssertionSigner#sign()}.
+     * @see <a href="https://developers.line.biz/en/reference/messaging-api/#issue-channel-access-token-v2-1">document</a>
+     */
+    CompletableFuture<IssueChannelAccessTokenResponse> issueChannelTokenByJWT(String clientAssertion);
+
     /**
      * Revokes a channel access token. It will return a failed {@link CompletableFuture} with
      * {@link ChannelAccessTokenException} if it has an error during calling the API.
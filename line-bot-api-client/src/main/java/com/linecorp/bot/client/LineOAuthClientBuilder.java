@@ -118,6 +118,17 @@ public class LineOAuthClientBuilder {
 
     private OkHttpClient.Builder okHttpClientBuilder;
 
+    /**
+     * HTTP transport shared with other clients.
+     *
+     * <p>Default = {@code null}, which creates an {@link OkHttpClient} for this client.
+     * If specified, {@link #okHttpClientBuilder} is ignored.
+     *
+     * @see LineHttpTransport
+     */
+    @Setter
+    private LineHttpTransport transport;
+
     /**
      * Custom interceptors.
      *
@@ -141,9 +152,7 @@ public class LineOAuthClientBuilder {
      * Creates a new {@link LineOAuthService}.
      */
     private LineOAuthService buildRetrofit() {
-        if (okHttpClientBuilder == null) {
-            okHttpClientBuilder = new OkHttpClient.Builder();
-        }
+        final OkHttpClient.Builder okHttpClientBuilder = newOkHttpClientBuilder();
 
         if (additionalInterceptors != null) {
             additionalInterceptors.forEach(okHttpClientBuilder::addInterceptor);
@@ -169,6 +178,13 @@ public class LineOAuthClientBuilder {
         return retrofit.create(LineOAuthService.class);
     }
 
+    private OkHttpClient.Builder newOkHttpClientBuilder() {
+        if (transport != null) {
+            return transport.newOkHttpClientBuilder();
+        }
+        return okHttpClientBuilder != null ? okHttpClientBuilder : new OkHttpClient.Builder();
+    }
+
     private static Interceptor buildLoggingInterceptor() {
         final Logger slf4jLogger = LoggerFactory.getLogger("com.linecorp.bot.client.wire");
 
@@ -37,6 +37,8 @@ import retrofit2.Response;
 @AllArgsConstructor
 class LineOAuthClientImpl implements LineOAuthClient {
     private static final ObjectMapper objectMapper = ModelObjectMapper.createNewObjectMapper();
+    private static final String CLIENT_ASSERTION_TYPE_JWT_BEARER =
+            "urn:ietf:params:oauth:client-assertion-type:jwt-bearer";
 
     private final LineOAuthService service;
 
@@ -48,6 +50,13 @@ class LineOAuthClientImpl implements LineOAuthClient {
                                                   req.getClientSecret()));
     }
 
+    @Override
+    public CompletableFuture<IssueChannelAccessTokenResponse> issueChannelTokenByJWT(String clientAssertion) {
+        return toFuture(service.issueChannelTokenByJWT("client_credentials",
+                                                       CLIENT_ASSERTION_TYPE_JWT_BEARER,
+                                                       clientAssertion));
+    }
+
     @Override
     public CompletableFuture<Void> revokeChannelToken(String accessToken) {
         return toFuture(service.revokeChannelToken(accessToken));
@@ -44,6 +44,17 @@ interface LineOAuthService {
                                                             @Field("client_id") String clientId,
                                                             @Field("client_secret") String clientSecret);
 
+    /**
+     * Issues a channel access token v2.1 with a JWT assertion signed by the private key of the channel.
+     * See {@link LineOAuthClient#issueChannelTokenByJWT(String)}.
+     */
+    @FormUrlEncoded
+    @POST("oauth2/v2.1/token")
+    Call<IssueChannelAccessTokenResponse> issueChannelTokenByJWT(
+            @Field("grant_type") String grantType,
+            @Field("client_assertion_type") String clientAssertionType,
+            @Field("client_assertion") String clientAssertion);
+
     /**
      * Revokes a channel access token. It will return a failed {@link CompletableFuture} with
      * {@link ChannelAccessTokenException} if it has an error during calling the API.
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import com.linecorp.bot.client.exception.NotFoundException;
+import com.linecorp.bot.model.event.Event;
+import com.linecorp.bot.model.event.FollowEvent;
+import com.linecorp.bot.model.event.MemberJoinedEvent;
+import com.linecorp.bot.model.event.source.GroupSource;
+import com.linecorp.bot.model.event.source.RoomSource;
+import com.linecorp.bot.model.event.source.Source;
+import com.linecorp.bot.model.profile.UserProfileResponse;
+
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Caches profiles returned by {@link LineMessagingClient#getProfile(String)},
+ * {@link LineMessagingClient#getGroupMemberProfile(String, String)} and
+ * {@link LineMessagingClient#getRoomMemberProfile(String, String)}.
+ *
+ * <p>Profiles are kept for {@code ttl}, and 404 Not Found for {@code notFoundTtl}. Other failures are not
+ * cached. Concurrent lookups of the same profile share one request. The least recently used profiles are
+ * evicted when the number of cached profiles exceeds {@code maximumSize}.
+ *
+ * <pre>{@code
+ * LineProfileCache profileCache = LineProfileCache.builder(lineMessagingClient).build();
+ * String displayName = profileCache.getProfile(userId).get().getDisplayName();
+ * }</pre>
+ */
+@Slf4j
+@ToString(onlyExplicitlyIncluded = true)
+public final class LineProfileCache {
+    private final LineMessagingClient client;
+    @ToString.Include
+    private final long ttlNanos;
+    @ToString.Include
+    private final long notFoundTtlNanos;
+    private final LongSupplier nanoTime;
+    private final Map<String, Entry> entries;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    LineProfileCache(final LineMessagingClient client, final long ttlNanos, final long notFoundTtlNanos,
+                     final int maximumSize, final LongSupplier nanoTime) {
+        this.client = client;
+        this.ttlNanos = ttlNanos;
+        this.notFoundTtlNanos = notFoundTtlNanos;
+        this.nanoTime = nanoTime;
+        entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Creates a new {@link LineProfileCacheBuilder}.
+     */
+    public static LineProfileCacheBuilder builder(final LineMessagingClient client) {
+        return new LineProfileCacheBuilder(client);
+    }
+
+    /**
+     * Cached version of {@link LineMessagingClient#getProfile(String)}.
+     */
+    public CompletableFuture<UserProfileResponse> getProfile(final String userId) {
+        return get(userId, () -> client.getProfile(userId));
+    }
+
+    /**
+     * Cached version of {@link LineMessagingClient#getGroupMemberProfile(String, String)}.
+     */
+    public CompletableFuture<UserProfileResponse> getGroupMemberProfile(final String groupId,
+                                                                        final String userId) {
+        return get("group:" + groupId + ':' + userId, () -> client.getGroupMemberProfile(groupId, userId));
+    }
+
+    /**
+     * Cached version of {@link LineMessagingClient#getRoomMemberProfile(String, String)}.
+     */
+    public CompletableFuture<UserProfileResponse> getRoomMemberProfile(final String roomId,
+                                                                       final String userId) {
+        return get("room:" + roomId + ':' + userId, () -> client.getRoomMemberProfile(roomId, userId));
+    }
+
+    /**
+     * Loads profiles of users in the event in background, so that following lookups hit the cache.
+     * Supports {@link FollowEvent} and {@link MemberJoinedEvent}. Other events are ignored.
+     */
+    public void warmUp(final Event event) {
+        if (event instanceof FollowEvent) {
+            final String userId = event.getSource().getUserId();
+            if (userId != null) {
+                getProfile(userId);
+            }
+        } else if (event instanceof MemberJoinedEvent) {
+            final Source source = event.getSource();
+            for (Source member : ((MemberJoinedEvent) event).getJoined().getMembers()) {
+                final String userId = member.getUserId();
+                if (userId == null) {
+                    continue;
+                }
+                if (source instanceof GroupSource) {
+                    getGroupMemberProfile(source.getSenderId(), userId);
+                } else if (source instanceof RoomSource) {
+                    getRoomMemberProfile(source.getSenderId(), userId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Discards the cached profiles of the user, e.g. on {@link com.linecorp.bot.model.event.UnfollowEvent}.
+     */
+    public synchronized void invalidate(final String userId) {
+        entries.keySet().removeIf(key -> key.equals(userId) || key.endsWith(':' + userId));
+    }
+
+    /**
+     * Number of lookups served from the cache, including ones joined to a request in flight.
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Number of lookups which sent a request.
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    private CompletableFuture<UserProfileResponse> get(
+            final String key, final Supplier<CompletableFuture<UserProfileResponse>> loader) {
+        final Entry entry;
+        synchronized (this) {
+            final Entry cached = entries.get(key);
+            if (cached != null && (cached.loading || cached.expiresAtNanos - nanoTime.getAsLong() > 0)) {
+                hitCount.increment();
+                return copy(cached.future);
+            }
+            missCount.increment();
+            entry = new Entry();
+            entries.put(key, entry);
+        }
+
+        // Sent outside the lock. Concurrent lookups of the key wait for the future of the entry.
+        try {
+            loader.get().whenComplete((profile, throwable) -> onLoaded(key, entry, profile, throwable));
+        } catch (RuntimeException e) {
+            onLoaded(key, entry, null, e);
+        }
+        return copy(entry.future);
+    }
+
+    private void onLoaded(final String key, final Entry entry,
+                          final UserProfileResponse profile, final Throwable throwable) {
+        final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                                ? throwable.getCause() : throwable;
+        synchronized (this) {
+            entry.loading = false;
+            if (cause == null) {
+                entry.expiresAtNanos = nanoTime.getAsLong() + ttlNanos;
+            } else if (cause instanceof NotFoundException) {
+                entry.expiresAtNanos = nanoTime.getAsLong() + notFoundTtlNanos;
+            } else {
+                entries.remove(key, entry);
+            }
+        }
+        // Completed outside the lock, as callbacks of callers run on this thread.
+        if (cause == null) {
+            entry.future.complete(profile);
+        } else {
+            log.debug("Failed to get profile. key={}", key, cause);
+            entry.future.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * Returns a future completed with the cached one, so that callers can't complete the cached one.
+     */
+    private static <T> CompletableFuture<T> copy(final CompletableFuture<T> future) {
+        final CompletableFuture<T> copy = new CompletableFuture<>();
+        future.whenComplete((value, throwable) -> {
+            if (throwable != null) {
+                copy.completeExceptionally(throwable);
+            } else {
+                copy.complete(value);
+            }
+        });
+        return copy;
+    }
+
+    private static final class Entry {
+        final CompletableFuture<UserProfileResponse> future = new CompletableFuture<>();
+        /** Never expires while loading. */
+        boolean loading = true;
+        long expiresAtNanos;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.time.Duration;
+
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+import lombok.experimental.PackagePrivate;
+
+@ToString
+@Accessors(fluent = true)
+public class LineProfileCacheBuilder {
+    private final LineMessagingClient client;
+
+    /**
+     * Use {@link LineProfileCache#builder(LineMessagingClient)} to create instance.
+     */
+    @PackagePrivate
+    LineProfileCacheBuilder(@NonNull final LineMessagingClient client) {
+        this.client = client;
+    }
+
+    /**
+     * How long a profile is cached. Changes of display names and pictures are visible after it.
+     *
+     * <p>Default value = 10 minutes.
+     */
+    @Setter
+    @NonNull
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * How long 404 Not Found is cached, e.g. for users who haven't added the bot as a friend.
+     *
+     * <p>Default value = 1 minute.
+     */
+    @Setter
+    @NonNull
+    private Duration notFoundTtl = Duration.ofMinutes(1);
+
+    /**
+     * Max number of cached profiles.
+     *
+     * <p>Default value = 10,000.
+     */
+    @Setter
+    private int maximumSize = 10_000;
+
+    /**
+     * Creates a new {@link LineProfileCache}.
+     */
+    public LineProfileCache build() {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize should be positive. But " + maximumSize);
+        }
+        if (ttl.isNegative() || notFoundTtl.isNegative()) {
+            throw new IllegalArgumentException("ttl should not be negative.");
+        }
+        return new LineProfileCache(client, ttl.toNanos(), notFoundTtl.toNanos(), maximumSize,
+                                    System::nanoTime);
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.linecorp.bot.client.exception.RequestNotSentException;
+
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.Timeout;
+
+/**
+ * Client side rate limiter which keeps requests within the rate limits of the LINE Messaging API.
+ *
+ * <p>Requests are classified by {@link ApiEndpointClass} and each class has its own token bucket.
+ * Requests exceeding the rate are not rejected but delayed, without blocking the calling thread for
+ * asynchronous calls. Requests which would have to wait longer than {@code maxDelay} fail with
+ * {@link RequestNotSentException} instead.
+ *
+ * <p>When the server responds with 429 Too Many Requests (converted to
+ * {@link com.linecorp.bot.client.exception.TooManyRequestsException}), the rate of the class is halved
+ * and its burst is used up. The rate recovers gradually as following requests succeed.
+ * The {@code Retry-After} header is honored if present.
+ *
+ * <p>Rate limits are counted per channel. Share a limiter only among clients of the same channel.
+ *
+ * <pre>{@code
+ * LineRateLimiter rateLimiter = LineRateLimiter.builder()
+ *                                              .limit(ApiEndpointClass.PUSH, 100, Duration.ofSeconds(1))
+ *                                              .build();
+ * LineMessagingClient client = LineMessagingClient.builder(token).rateLimiter(rateLimiter).build();
+ * }</pre>
+ */
+@Slf4j
+@ToString(onlyExplicitlyIncluded = true)
+public final class LineRateLimiter implements Closeable {
+    /** The slowest rate after repeated 429 responses is 1/{@value} of the limit. */
+    private static final double MAX_BACKOFF = 64;
+    /** Factor applied to the backoff on each successful response. */
+    private static final double RECOVERY_FACTOR = 0.95;
+
+    @ToString.Include
+    private final Map<ApiEndpointClass, Bucket> buckets = new EnumMap<>(ApiEndpointClass.class);
+    @ToString.Include
+    private final long maxDelayNanos;
+    private final ScheduledExecutorService scheduler;
+
+    private final LongAdder delayedRequestCount = new LongAdder();
+    private final LongAdder rejectedRequestCount = new LongAdder();
+    private final LongAdder tooManyRequestsCount = new LongAdder();
+
+    LineRateLimiter(final Map<ApiEndpointClass, Integer> permits, final Map<ApiEndpointClass, Duration> periods,
+                    final Duration maxDelay) {
+        for (ApiEndpointClass endpointClass : ApiEndpointClass.values()) {
+            buckets.put(endpointClass, new Bucket(permits.get(endpointClass), periods.get(endpointClass)));
+        }
+        maxDelayNanos = maxDelay.toNanos();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "line-bot-rate-limiter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates a new {@link LineRateLimiterBuilder}.
+     */
+    public static LineRateLimiterBuilder builder() {
+        return new LineRateLimiterBuilder();
+    }
+
+    /**
+     * Wraps the call factory so that calls created by it are rate limited.
+     */
+    Call.Factory wrap(final Call.Factory callFactory) {
+        return request -> new RateLimitedCall(callFactory.newCall(request), bucketOf(request));
+    }
+
+    private Bucket bucketOf(final Request request) {
+        return buckets.get(ApiEndpointClass.of(request.method(), request.url().encodedPath()));
+    }
+
+    /**
+     * Number of requests which were delayed to keep the rate limits.
+     */
+    public long getDelayedRequestCount() {
+        return delayedRequestCount.sum();
+    }
+
+    /**
+     * Number of requests failed because they would have to wait longer than {@code maxDelay}.
+     */
+    public long getRejectedRequestCount() {
+        return rejectedRequestCount.sum();
+    }
+
+    /**
+     * Number of 429 Too Many Requests responses received.
+     */
+    public long getTooManyRequestsCount() {
+        return tooManyRequestsCount.sum();
+    }
+
+    /**
+     * Current rate of the endpoint class in requests per second, lowered by 429 responses.
+     */
+    public double getCurrentRate(final ApiEndpointClass endpointClass) {
+        return buckets.get(endpointClass).currentRate();
+    }
+
+    /**
+     * Stops the thread which sends delayed requests. Delayed requests not sent yet fail.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private long reserve(final Bucket bucket) throws IOException {
+        final long waitNanos = bucket.reserve(System.nanoTime(), maxDelayNanos);
+        if (waitNanos < 0) {
+            rejectedRequestCount.increment();
+            throw new RequestNotSentException("Rate limit exceeded. The request would wait longer than "
+                                  + Duration.ofNanos(maxDelayNanos));
+        }
+        if (waitNanos > 0) {
+            delayedRequestCount.increment();
+        }
+        return waitNanos;
+    }
+
+    private void record(final Bucket bucket, final Response response) {
+        if (response.code() == 429) {
+            tooManyRequestsCount.increment();
+            final long retryAfterNanos = parseRetryAfter(response.header("Retry-After"));
+            bucket.onTooManyRequests(System.nanoTime(), retryAfterNanos);
+            log.warn("Got 429 Too Many Requests for {}. Lowered the rate to {}/s.",
+                     response.request().url().encodedPath(), bucket.currentRate());
+        } else if (response.isSuccessful()) {
+            bucket.onSuccess();
+        }
+    }
+
+    private static long parseRetryAfter(final String retryAfter) {
+        if (retryAfter == null) {
+            return 0;
+        }
+        try {
+            return TimeUnit.SECONDS.toNanos(Math.max(0, Long.parseLong(retryAfter.trim())));
+        } catch (NumberFormatException e) {
+            // HTTP-date form is not used by the LINE API.
+            return 0;
+        }
+    }
+
+    /**
+     * Token bucket implemented as the generic cell rate algorithm. Instead of counting tokens, it keeps
+     * the theoretical time the next request is sent at the configured rate, which makes reservations of
+     * future slots cheap.
+     */
+    @ToString
+    private static final class Bucket {
+        private final long baseIntervalNanos;
+        private final int burst;
+
+        private double backoff = 1;
+        private long theoreticalArrivalNanos = System.nanoTime();
+
+        Bucket(final int permits, final Duration period) {
+            baseIntervalNanos = Math.max(1, period.toNanos() / permits);
+            burst = permits;
+        }
+
+        private long intervalNanos() {
+            return (long) (baseIntervalNanos * backoff);
+        }
+
+        private long toleranceNanos() {
+            return intervalNanos() * (burst - 1);
+        }
+
+        /**
+         * Reserves a slot and returns nanoseconds to wait until it, or {@code -1} if it's later than
+         * {@code maxDelayNanos}.
+         */
+        synchronized long reserve(final long now, final long maxDelayNanos) {
+            final long waitNanos = Math.max(0, theoreticalArrivalNanos - toleranceNanos() - now);
+            if (waitNanos > maxDelayNanos) {
+                return -1;
+            }
+            theoreticalArrivalNanos = Math.max(theoreticalArrivalNanos, now) + intervalNanos();
+            return waitNanos;
+        }
+
+        synchronized void onTooManyRequests(final long now, final long retryAfterNanos) {
+            backoff = Math.min(backoff * 2, MAX_BACKOFF);
+            // Give up the remaining burst, and wait for Retry-After if the server told.
+            theoreticalArrivalNanos = Math.max(theoreticalArrivalNanos,
+                                               now + toleranceNanos() + retryAfterNanos);
+        }
+
+        synchronized void onSuccess() {
+            backoff = Math.max(1, backoff * RECOVERY_FACTOR);
+        }
+
+        synchronized double currentRate() {
+            return TimeUnit.SECONDS.toNanos(1) / (double) intervalNanos();
+        }
+    }
+
+    private final class RateLimitedCall implements Call {
+        private final Call delegate;
+        private final Bucket bucket;
+
+        RateLimitedCall(final Call delegate, final Bucket bucket) {
+            this.delegate = delegate;
+            this.bucket = bucket;
+        }
+
+        @Override
+        public Request request() {
+            return delegate.request();
+        }
+
+        @Override
+        public Response execute() throws IOException {
+            final long waitNanos = reserve(bucket);
+            if (waitNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the rate limit");
+                }
+            }
+            final Response response = delegate.execute();
+            record(bucket, response);
+            return response;
+        }
+
+        @Override
+        public void enqueue(final Callback responseCallback) {
+            final long waitNanos;
+            try {
+                waitNanos = reserve(bucket);
+            } catch (IOException e) {
+                responseCallback.onFailure(this, e);
+                return;
+            }
+
+            final Callback recordingCallback = new Callback() {
+                @Override
+                public void onResponse(final Call call, final Response response) throws IOException {
+                    record(bucket, response);
+                    responseCallback.onResponse(RateLimitedCall.this, response);
+                }
+
+                @Override
+                public void onFailure(final Call call, final IOException e) {
+                    responseCallback.onFailure(RateLimitedCall.this, e);
+                }
+            };
+
+            if (waitNanos == 0) {
+                delegate.enqueue(recordingCallback);
+                return;
+            }
+            try {
+                // A call canceled while waiting fails on enqueue.
+                scheduler.schedule(() -> delegate.enqueue(recordingCallback), waitNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                responseCallback.onFailure(this, new RequestNotSentException("Rate limiter is closed", e));
+            }
+        }
+
+        @Override
+        public void cancel() {
+            delegate.cancel();
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return delegate.isExecuted();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return delegate.isCanceled();
+        }
+
+        @Override
+        public Timeout timeout() {
+            return delegate.timeout();
+        }
+
+        @Override
+        public Call clone() {
+            return new RateLimitedCall(delegate.clone(), bucket);
+        }
+    }
+}
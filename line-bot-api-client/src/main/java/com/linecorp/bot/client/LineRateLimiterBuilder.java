@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+import lombok.experimental.PackagePrivate;
+
+@ToString
+@Accessors(fluent = true)
+public class LineRateLimiterBuilder {
+    private final Map<ApiEndpointClass, Integer> permits = new EnumMap<>(ApiEndpointClass.class);
+    private final Map<ApiEndpointClass, Duration> periods = new EnumMap<>(ApiEndpointClass.class);
+
+    /**
+     * Use {@link LineRateLimiter#builder()} to create instance.
+     */
+    @PackagePrivate
+    LineRateLimiterBuilder() {
+        for (ApiEndpointClass endpointClass : ApiEndpointClass.values()) {
+            permits.put(endpointClass, endpointClass.getDefaultPermits());
+            periods.put(endpointClass, endpointClass.getDefaultPeriod());
+        }
+    }
+
+    /**
+     * Max time a request waits for the rate limit. Requests which would wait longer fail immediately.
+     *
+     * <p>Default value = 1 minute.
+     */
+    @Setter
+    @NonNull
+    private Duration maxDelay = Duration.ofMinutes(1);
+
+    /**
+     * Sets the rate limit of the endpoint class. Up to {@code permits} requests are sent at once, and then
+     * requests are spread evenly over the period.
+     *
+     * <p>Default values are 60 requests per hour for {@link ApiEndpointClass#NARROWCAST} and
+     * {@link ApiEndpointClass#BROADCAST}, and 2,000 requests per second for others.
+     */
+    public LineRateLimiterBuilder limit(@NonNull final ApiEndpointClass endpointClass, final int permits,
+                                        @NonNull final Duration period) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("permits should be positive. But " + permits);
+        }
+        if (period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("period should be positive. But " + period);
+        }
+        this.permits.put(endpointClass, permits);
+        this.periods.put(endpointClass, period);
+        return this;
+    }
+
+    /**
+     * Creates a new {@link LineRateLimiter}.
+     */
+    public LineRateLimiter build() {
+        return new LineRateLimiter(permits, periods, maxDelay);
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.linecorp.bot.client.exception.RequestNotSentException;
+
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.Timeout;
+
+/**
+ * Retry policy which resends messages failed by network errors or 5xx responses.
+ *
+ * <p>Only endpoints accepting the {@value #RETRY_KEY_HEADER} header are retried, i.e.
+ * {@link ApiEndpointClass#PUSH}, {@link ApiEndpointClass#MULTICAST}, {@link ApiEndpointClass#NARROWCAST} and
+ * {@link ApiEndpointClass#BROADCAST}. A random UUID is attached as the retry key of each send, unless the
+ * caller set one, and reused for all attempts of it, so the server never delivers the messages twice.
+ * When an earlier attempt was already accepted, the server responds with 409 Conflict,
+ * which is treated as success. Requests failed with {@link RequestNotSentException}, e.g. rejected by a rate
+ * limiter, are not retried.
+ *
+ * <p>Attempts are separated by exponential backoff with full jitter.
+ *
+ * <pre>{@code
+ * LineRetryPolicy retryPolicy = LineRetryPolicy.builder()
+ *                                              .maxAttempts(ApiEndpointClass.PUSH, 5)
+ *                                              .build();
+ * LineMessagingClient client = LineMessagingClient.builder(token).retryPolicy(retryPolicy).build();
+ * }</pre>
+ */
+@Slf4j
+@ToString(onlyExplicitlyIncluded = true)
+public final class LineRetryPolicy implements Closeable {
+    static final String RETRY_KEY_HEADER = "X-Line-Retry-Key";
+    static final Set<ApiEndpointClass> RETRY_KEY_SUPPORTED = Collections.unmodifiableSet(
+            EnumSet.of(ApiEndpointClass.PUSH, ApiEndpointClass.MULTICAST,
+                       ApiEndpointClass.NARROWCAST, ApiEndpointClass.BROADCAST));
+
+    @ToString.Include
+    private final Map<ApiEndpointClass, Integer> maxAttempts;
+    @ToString.Include
+    private final long initialBackoffNanos;
+    @ToString.Include
+    private final long maxBackoffNanos;
+    private final ScheduledExecutorService scheduler;
+
+    private final LongAdder retryCount = new LongAdder();
+    private final LongAdder alreadyAcceptedCount = new LongAdder();
+    private final LongAdder exhaustedCount = new LongAdder();
+
+    LineRetryPolicy(final Map<ApiEndpointClass, Integer> maxAttempts,
+                    final Duration initialBackoff, final Duration maxBackoff) {
+        this.maxAttempts = new EnumMap<>(maxAttempts);
+        initialBackoffNanos = initialBackoff.toNanos();
+        maxBackoffNanos = maxBackoff.toNanos();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "line-bot-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates a new {@link LineRetryPolicyBuilder}.
+     */
+    public static LineRetryPolicyBuilder builder() {
+        return new LineRetryPolicyBuilder();
+    }
+
+    /**
+     * Wraps the call factory so that calls created by it are retried.
+     */
+    Call.Factory wrap(final Call.Factory callFactory) {
+        return request -> {
+            final ApiEndpointClass endpointClass =
+                    ApiEndpointClass.of(request.method(), request.url().encodedPath());
+            if (!RETRY_KEY_SUPPORTED.contains(endpointClass)) {
+                return callFactory.newCall(request);
+            }
+            return new RetryingCall(callFactory, withRetryKey(request), maxAttempts.get(endpointClass));
+        };
+    }
+
+    private static Request withRetryKey(final Request request) {
+        if (request.header(RETRY_KEY_HEADER) != null) {
+            return request;
+        }
+        return request.newBuilder()
+                      .header(RETRY_KEY_HEADER, UUID.randomUUID().toString())
+                      .build();
+    }
+
+    /**
+     * Number of attempts made after the first one.
+     */
+    public long getRetryCount() {
+        return retryCount.sum();
+    }
+
+    /**
+     * Number of 409 Conflict responses treated as success, because an earlier attempt was accepted.
+     */
+    public long getAlreadyAcceptedCount() {
+        return alreadyAcceptedCount.sum();
+    }
+
+    /**
+     * Number of sends failed after all attempts.
+     */
+    public long getExhaustedCount() {
+        return exhaustedCount.sum();
+    }
+
+    /**
+     * Stops the thread which sends delayed attempts. Attempts not sent yet fail.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private long backoffNanos(final int attempt) {
+        final long ceiling = initialBackoffNanos << Math.min(attempt - 1, 30);
+        final long bound = ceiling > 0 ? Math.min(ceiling, maxBackoffNanos) : maxBackoffNanos;
+        return ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+
+    private static boolean isRetryable(final Response response) {
+        return response.code() >= 500;
+    }
+
+    private Response acceptConflict(final Response response) {
+        if (response.code() != 409) {
+            return response;
+        }
+        alreadyAcceptedCount.increment();
+        final Response.Builder builder = response.newBuilder().code(200).message("OK");
+        final String acceptedRequestId = response.header("x-line-accepted-request-id");
+        if (acceptedRequestId != null) {
+            builder.header("x-line-request-id", acceptedRequestId);
+        }
+        return builder.build();
+    }
+
+    private final class RetryingCall implements Call {
+        private final Call.Factory callFactory;
+        private final Request request;
+        private final int maxAttempts;
+
+        private volatile Call current;
+        private volatile boolean canceled;
+        private volatile boolean executed;
+
+        RetryingCall(final Call.Factory callFactory, final Request request, final int maxAttempts) {
+            this.callFactory = callFactory;
+            this.request = request;
+            this.maxAttempts = maxAttempts;
+            current = callFactory.newCall(request);
+        }
+
+        @Override
+        public Request request() {
+            return request;
+        }
+
+        @Override
+        public Response execute() throws IOException {
+            executed = true;
+            for (int attempt = 1; ; attempt++) {
+                final boolean last = attempt >= maxAttempts || canceled;
+                if (attempt > 1) {
+                    current = callFactory.newCall(request);
+                }
+                final Response response;
+                try {
+                    response = current.execute();
+                } catch (RequestNotSentException e) {
+                    // Rejected on the client side. Retrying would only add load to the saturated client.
+                    throw e;
+                } catch (IOException e) {
+                    if (last) {
+                        exhaustedCount.increment();
+                        throw e;
+                    }
+                    sleep(attempt, e.toString());
+                    continue;
+                }
+                if (!isRetryable(response) || last) {
+                    if (isRetryable(response)) {
+                        exhaustedCount.increment();
+                    }
+                    return acceptConflict(response);
+                }
+                response.close();
+                sleep(attempt, "HTTP " + response.code());
+            }
+        }
+
+        private void sleep(final int attempt, final String cause) throws IOException {
+            final long backoffNanos = backoffNanos(attempt);
+            log.info("Retrying {} {} after {}. attempt={}",
+                     request.url().encodedPath(), Duration.ofNanos(backoffNanos), cause, attempt + 1);
+            retryCount.increment();
+            try {
+                TimeUnit.NANOSECONDS.sleep(backoffNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for retry");
+            }
+        }
+
+        @Override
+        public void enqueue(final Callback responseCallback) {
+            executed = true;
+            enqueue(1, responseCallback);
+        }
+
+        private void enqueue(final int attempt, final Callback responseCallback) {
+            final boolean last = attempt >= maxAttempts;
+            current.enqueue(new Callback() {
+                @Override
+                public void onResponse(final Call call, final Response response) throws IOException {
+                    if (!isRetryable(response) || last || canceled) {
+                        if (isRetryable(response)) {
+                            exhaustedCount.increment();
+                        }
+                        responseCallback.onResponse(RetryingCall.this, acceptConflict(response));
+                        return;
+                    }
+                    response.close();
+                    schedule(attempt, "HTTP " + response.code(), responseCallback);
+                }
+
+                @Override
+                public void onFailure(final Call call, final IOException e) {
+                    if (e instanceof RequestNotSentException) {
+                        responseCallback.onFailure(RetryingCall.this, e);
+                        return;
+                    }
+                    if (last || canceled) {
+                        exhaustedCount.increment();
+                        responseCallback.onFailure(RetryingCall.this, e);
+                        return;
+                    }
+                    schedule(attempt, e.toString(), responseCallback);
+                }
+            });
+        }
+
+        private void schedule(final int attempt, final String cause, final Callback responseCallback) {
+            final long backoffNanos = backoffNanos(attempt);
+            log.info("Retrying {} {} after {}. attempt={}",
+                     request.url().encodedPath(), Duration.ofNanos(backoffNanos), cause, attempt + 1);
+            retryCount.increment();
+            try {
+                scheduler.schedule(() -> {
+                    current = callFactory.newCall(request);
+                    if (canceled) {
+                        current.cancel();
+                    }
+                    enqueue(attempt + 1, responseCallback);
+                }, backoffNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                responseCallback.onFailure(this, new IOException("Retry policy is closed", e));
+            }
+        }
+
+        @Override
+        public void cancel() {
+            canceled = true;
+            current.cancel();
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return executed;
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled;
+        }
+
+        @Override
+        public Timeout timeout() {
+            return current.timeout();
+        }
+
+        @Override
+        public Call clone() {
+            // A clone is the same logical send, so it keeps the retry key.
+            return new RetryingCall(callFactory, request, maxAttempts);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+import lombok.experimental.PackagePrivate;
+
+@ToString
+@Accessors(fluent = true)
+public class LineRetryPolicyBuilder {
+    private static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+    private final Map<ApiEndpointClass, Integer> maxAttempts = new EnumMap<>(ApiEndpointClass.class);
+
+    /**
+     * Use {@link LineRetryPolicy#builder()} to create instance.
+     */
+    @PackagePrivate
+    LineRetryPolicyBuilder() {
+        for (ApiEndpointClass endpointClass : LineRetryPolicy.RETRY_KEY_SUPPORTED) {
+            maxAttempts.put(endpointClass, DEFAULT_MAX_ATTEMPTS);
+        }
+    }
+
+    /**
+     * Upper bound of the backoff before the second attempt. The bound doubles on each attempt.
+     *
+     * <p>Default value = 1 second.
+     */
+    @Setter
+    @NonNull
+    private Duration initialBackoff = Duration.ofSeconds(1);
+
+    /**
+     * Max upper bound of the backoff between attempts.
+     *
+     * <p>Default value = 30 seconds.
+     */
+    @Setter
+    @NonNull
+    private Duration maxBackoff = Duration.ofSeconds(30);
+
+    /**
+     * Sets the max number of attempts of the endpoint class, including the first one.
+     * {@code 1} disables retries of it.
+     *
+     * <p>Default value = 3 for {@link ApiEndpointClass#PUSH}, {@link ApiEndpointClass#MULTICAST},
+     * {@link ApiEndpointClass#NARROWCAST} and {@link ApiEndpointClass#BROADCAST}. Other endpoint classes
+     * don't accept a retry key and can't be retried.
+     */
+    public LineRetryPolicyBuilder maxAttempts(@NonNull final ApiEndpointClass endpointClass,
+                                              final int maxAttempts) {
+        if (!LineRetryPolicy.RETRY_KEY_SUPPORTED.contains(endpointClass)) {
+            throw new IllegalArgumentException(endpointClass + " doesn't support retry keys.");
+        }
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("maxAttempts should be positive. But " + maxAttempts);
+        }
+        this.maxAttempts.put(endpointClass, maxAttempts);
+        return this;
+    }
+
+    /**
+     * Creates a new {@link LineRetryPolicy}.
+     */
+    public LineRetryPolicy build() {
+        if (initialBackoff.isNegative() || maxBackoff.isNegative()) {
+            throw new IllegalArgumentException("backoff should not be negative.");
+        }
+        return new LineRetryPolicy(maxAttempts, initialBackoff, maxBackoff);
+    }
+}
@@ -136,6 +136,17 @@ public class ManageAudienceClientBuilder {
 
     private OkHttpClient.Builder okHttpClientBuilder;
 
+    /**
+     * HTTP transport shared with other clients.
+     *
+     * <p>Default = {@code null}, which creates an {@link OkHttpClient} for this client.
+     * If specified, {@link #okHttpClientBuilder} is ignored.
+     *
+     * @see LineHttpTransport
+     */
+    @Setter
+    private LineHttpTransport transport;
+
     /**
      * Custom interceptors.
      *
@@ -182,9 +193,7 @@ public class ManageAudienceClientBuilder {
      * Creates a new {@link LineMessagingService}.
      */
     <T> T buildRetrofitIface(URI apiEndPoint, Class<T> retrofitIFace) {
-        if (okHttpClientBuilder == null) {
-            okHttpClientBuilder = new OkHttpClient.Builder();
-        }
+        final OkHttpClient.Builder okHttpClientBuilder = newOkHttpClientBuilder();
 
         // Add interceptors.
         if (addAuthenticationHeader) {
@@ -214,6 +223,13 @@ public class ManageAudienceClientBuilder {
         return retrofit.create(retrofitIFace);
     }
 
+    private OkHttpClient.Builder newOkHttpClientBuilder() {
+        if (transport != null) {
+            return transport.newOkHttpClientBuilder();
+        }
+        return okHttpClientBuilder != null ? okHttpClientBuilder : new OkHttpClient.Builder();
+    }
+
     static HeaderInterceptor buildAuthenticationInterceptor(ChannelTokenSupplier channelTokenSupplier) {
         requireNonNull(channelTokenSupplier, "channelTokenSupplier");
         return HeaderInterceptor.forChannelTokenSupplier(channelTokenSupplier);
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators.AbstractSpliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.linecorp.bot.model.profile.MembersIdsResponse;
+
+/**
+ * Spliterator over all member IDs of a group or room, which follows {@link MembersIdsResponse#getNext()}.
+ *
+ * <p>The next page is requested as soon as the current page arrives, and no further until the consumer
+ * reaches it. So at most two pages are kept in memory, and a slow consumer slows down the requests.
+ */
+final class MembersIdsSpliterator extends AbstractSpliterator<String> {
+    private final Function<String, CompletableFuture<MembersIdsResponse>> pageLoader;
+
+    private Iterator<String> currentPage;
+    private CompletableFuture<MembersIdsResponse> nextPage;
+
+    private MembersIdsSpliterator(final Function<String, CompletableFuture<MembersIdsResponse>> pageLoader) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+        this.pageLoader = pageLoader;
+    }
+
+    /**
+     * Creates a sequential stream of member IDs. {@code pageLoader} is called with the continuation token,
+     * or {@code null} for the first page. Closing the stream cancels the prefetched page.
+     */
+    static Stream<String> stream(final Function<String, CompletableFuture<MembersIdsResponse>> pageLoader) {
+        final MembersIdsSpliterator spliterator = new MembersIdsSpliterator(pageLoader);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::cancel);
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super String> action) {
+        if (currentPage == null) {
+            // The first page is loaded lazily, when the stream is consumed.
+            nextPage = pageLoader.apply(null);
+        }
+        while (currentPage == null || !currentPage.hasNext()) {
+            if (nextPage == null) {
+                return false;
+            }
+            final MembersIdsResponse page = await(nextPage);
+            // Prefetch while the consumer processes this page.
+            nextPage = page.getNext().map(pageLoader).orElse(null);
+            currentPage = page.getMemberIds().iterator();
+        }
+        action.accept(currentPage.next());
+        return true;
+    }
+
+    private void cancel() {
+        if (nextPage != null) {
+            nextPage.cancel(false);
+        }
+    }
+
+    private static MembersIdsResponse await(final CompletableFuture<MembersIdsResponse> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.util.Set;
+
+import com.linecorp.bot.client.exception.LineMessagingException;
+import com.linecorp.bot.model.Multicast;
+
+import lombok.Value;
+
+/**
+ * Result of a {@link Multicast} batch sent by {@link MulticastFanout}.
+ */
+@Value
+public class MulticastBatchResult {
+    /**
+     * Sequence number of the batch, starting from 0.
+     */
+    long index;
+
+    /**
+     * Position of the first user ID of the batch in the input.
+     */
+    long offset;
+
+    /**
+     * Number of user IDs of the input consumed by the batch. It may be larger than the size of
+     * {@link #getUserIds()} when the input has duplicated IDs.
+     */
+    int inputCount;
+
+    /**
+     * Recipients of the batch. Empty in {@link MulticastFanoutResult#getFailedBatches()}.
+     */
+    Set<String> userIds;
+
+    /**
+     * Value of {@literal X-Line-Request-Id} header, or {@code null} if the batch failed without response.
+     */
+    String requestId;
+
+    /**
+     * Cause of the failure, or {@code null} if the batch succeeded.
+     */
+    LineMessagingException exception;
+
+    /**
+     * Position in the input before which all user IDs have been processed, successfully or not.
+     * To resume an interrupted fan-out, pass it as {@code startOffset} with the same input.
+     */
+    long resumeOffset;
+
+    public boolean isSucceeded() {
+        return exception == null;
+    }
+}
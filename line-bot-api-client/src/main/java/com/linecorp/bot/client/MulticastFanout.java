@@ -0,0 +1,231 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+import com.linecorp.bot.client.exception.GeneralLineMessagingException;
+import com.linecorp.bot.client.exception.LineMessagingException;
+import com.linecorp.bot.model.Multicast;
+import com.linecorp.bot.model.message.Message;
+import com.linecorp.bot.model.response.BotApiResponse;
+
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends the same messages to a large number of users with {@link LineMessagingClient#multicast(Multicast)}.
+ *
+ * <p>User IDs are read from the input lazily and packed into batches of up to
+ * {@value LineClientConstants#MAX_MULTICAST_RECIPIENTS} recipients. At most {@code maxConcurrency} batches
+ * are in flight, so the input is never loaded into memory at once. Configure the client with
+ * {@link LineRateLimiter} and {@link LineRetryPolicy} to keep the rate limits and to resend batches
+ * safely on transient failures.
+ *
+ * <pre>{@code
+ * MulticastFanout fanout = MulticastFanout.builder(client)
+ *                                         .listener(result -> saveProgress(result.getResumeOffset()))
+ *                                         .build();
+ * try (Stream<String> userIds = Files.lines(path)) {
+ *     MulticastFanoutResult result = fanout.execute(userIds, messages, loadProgress());
+ * }
+ * }</pre>
+ */
+@Slf4j
+@ToString
+public final class MulticastFanout {
+    private final LineMessagingClient client;
+    private final int batchSize;
+    private final int maxConcurrency;
+    private final boolean notificationDisabled;
+    @ToString.Exclude
+    private final MulticastFanoutListener listener;
+
+    MulticastFanout(final LineMessagingClient client, final int batchSize, final int maxConcurrency,
+                    final boolean notificationDisabled, final MulticastFanoutListener listener) {
+        this.client = client;
+        this.batchSize = batchSize;
+        this.maxConcurrency = maxConcurrency;
+        this.notificationDisabled = notificationDisabled;
+        this.listener = listener;
+    }
+
+    /**
+     * Creates a new {@link MulticastFanoutBuilder}.
+     */
+    public static MulticastFanoutBuilder builder(@NonNull final LineMessagingClient client) {
+        return new MulticastFanoutBuilder(client);
+    }
+
+    /**
+     * Sends the messages to all user IDs of the stream.
+     *
+     * @see #execute(Iterator, List, long)
+     */
+    public MulticastFanoutResult execute(final Stream<String> userIds, final List<Message> messages)
+            throws InterruptedException {
+        return execute(userIds.iterator(), messages, 0);
+    }
+
+    /**
+     * Sends the messages to the user IDs of the stream after {@code startOffset}.
+     *
+     * @see #execute(Iterator, List, long)
+     */
+    public MulticastFanoutResult execute(final Stream<String> userIds, final List<Message> messages,
+                                         final long startOffset) throws InterruptedException {
+        return execute(userIds.iterator(), messages, startOffset);
+    }
+
+    /**
+     * Sends the messages to the user IDs of the iterator after {@code startOffset}, and blocks until all
+     * batches complete.
+     *
+     * <p>Pass {@link MulticastBatchResult#getResumeOffset()} reported to the listener as
+     * {@code startOffset} to resume an interrupted fan-out with the same input. Offsets in the results
+     * are positions in the whole input, including skipped IDs.
+     *
+     * @throws InterruptedException if interrupted. Batches in flight are not canceled.
+     */
+    public MulticastFanoutResult execute(@NonNull final Iterator<String> userIds,
+                                         @NonNull final List<Message> messages,
+                                         final long startOffset) throws InterruptedException {
+        long offset = 0;
+        while (offset < startOffset && userIds.hasNext()) {
+            userIds.next();
+            offset++;
+        }
+        final long skippedCount = offset;
+
+        final Progress progress = new Progress(offset);
+        final Semaphore inFlight = new Semaphore(maxConcurrency);
+        long index = 0;
+        while (userIds.hasNext()) {
+            final long batchOffset = offset;
+            final Set<String> batch = new LinkedHashSet<>();
+            while (batch.size() < batchSize && userIds.hasNext()) {
+                batch.add(userIds.next());
+                offset++;
+            }
+
+            inFlight.acquire();
+            final long batchIndex = index++;
+            final int inputCount = (int) (offset - batchOffset);
+            send(batch, messages).whenComplete((response, throwable) -> {
+                try {
+                    progress.complete(batchIndex, batchOffset, inputCount, batch, response, throwable);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        inFlight.acquire(maxConcurrency);
+        return progress.toResult(offset - skippedCount, index);
+    }
+
+    private CompletableFuture<BotApiResponse> send(final Set<String> batch, final List<Message> messages) {
+        try {
+            return client.multicast(new Multicast(batch, messages, notificationDisabled));
+        } catch (RuntimeException e) {
+            final CompletableFuture<BotApiResponse> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    /**
+     * Tracks completed batches to compute the resume offset, which only advances when all preceding
+     * batches complete. Holds at most {@code maxConcurrency} out of order batches.
+     */
+    private final class Progress {
+        private final Map<Long, Long> completedAhead = new HashMap<>();
+        private final List<MulticastBatchResult> failedBatches = new ArrayList<>();
+        private long nextIndex;
+        private long resumeOffset;
+        private long succeededBatchCount;
+
+        Progress(final long startOffset) {
+            resumeOffset = startOffset;
+        }
+
+        synchronized void complete(final long index, final long offset, final int inputCount,
+                                   final Set<String> userIds, final BotApiResponse response,
+                                   final Throwable throwable) {
+            completedAhead.put(index, offset + inputCount);
+            while (completedAhead.containsKey(nextIndex)) {
+                resumeOffset = completedAhead.remove(nextIndex);
+                nextIndex++;
+            }
+
+            final LineMessagingException exception = throwable != null ? toLineMessagingException(throwable)
+                                                                       : null;
+            final String requestId;
+            if (response != null) {
+                requestId = response.getRequestId();
+            } else if (exception != null && exception.getErrorResponse() != null) {
+                requestId = exception.getErrorResponse().getRequestId();
+            } else {
+                requestId = null;
+            }
+            final MulticastBatchResult result = new MulticastBatchResult(
+                    index, offset, inputCount, Collections.unmodifiableSet(userIds), requestId, exception,
+                    resumeOffset);
+            if (exception == null) {
+                succeededBatchCount++;
+            } else {
+                log.warn("Multicast batch failed. index={}, offset={}", index, offset, exception);
+                // The listener has seen the user IDs. Don't hold them until the end of the fan-out.
+                failedBatches.add(new MulticastBatchResult(index, offset, inputCount, Collections.emptySet(),
+                                                           requestId, exception, resumeOffset));
+            }
+
+            if (listener != null) {
+                try {
+                    listener.onBatchCompleted(result);
+                } catch (RuntimeException e) {
+                    log.error("MulticastFanoutListener threw an exception. {}", result, e);
+                }
+            }
+        }
+
+        synchronized MulticastFanoutResult toResult(final long inputCount, final long batchCount) {
+            return new MulticastFanoutResult(inputCount, batchCount, succeededBatchCount,
+                                             Collections.unmodifiableList(new ArrayList<>(failedBatches)));
+        }
+    }
+
+    private static LineMessagingException toLineMessagingException(final Throwable throwable) {
+        final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                                ? throwable.getCause() : throwable;
+        if (cause instanceof LineMessagingException) {
+            return (LineMessagingException) cause;
+        }
+        return new GeneralLineMessagingException(cause.getMessage(), null, cause);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+import lombok.experimental.PackagePrivate;
+
+@ToString
+@Accessors(fluent = true)
+public class MulticastFanoutBuilder {
+    private final LineMessagingClient client;
+
+    /**
+     * Use {@link MulticastFanout#builder(LineMessagingClient)} to create instance.
+     */
+    @PackagePrivate
+    MulticastFanoutBuilder(@NonNull final LineMessagingClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Max number of recipients of a batch.
+     *
+     * <p>Default value = {@value LineClientConstants#MAX_MULTICAST_RECIPIENTS}, which is the max of the API.
+     */
+    @Setter
+    private int batchSize = LineClientConstants.MAX_MULTICAST_RECIPIENTS;
+
+    /**
+     * Max number of batches sent concurrently. The number of requests actually executed concurrently is
+     * also limited by the {@link LineHttpTransport} of the client.
+     *
+     * <p>Default value = {@value LineClientConstants#DEFAULT_MAX_REQUESTS_PER_HOST}.
+     */
+    @Setter
+    private int maxConcurrency = LineClientConstants.DEFAULT_MAX_REQUESTS_PER_HOST;
+
+    /**
+     * Whether to send messages without push notifications.
+     *
+     * <p>Default value = {@code false}.
+     */
+    @Setter
+    private boolean notificationDisabled;
+
+    /**
+     * Listener notified of each completed batch.
+     *
+     * <p>Default value = {@code null}.
+     */
+    @Setter
+    private MulticastFanoutListener listener;
+
+    /**
+     * Creates a new {@link MulticastFanout}.
+     */
+    public MulticastFanout build() {
+        if (batchSize <= 0 || batchSize > LineClientConstants.MAX_MULTICAST_RECIPIENTS) {
+            throw new IllegalArgumentException(
+                    "batchSize should be between 1 and " + LineClientConstants.MAX_MULTICAST_RECIPIENTS
+                    + ". But " + batchSize);
+        }
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency should be positive. But " + maxConcurrency);
+        }
+        return new MulticastFanout(client, batchSize, maxConcurrency, notificationDisabled, listener);
+    }
+}
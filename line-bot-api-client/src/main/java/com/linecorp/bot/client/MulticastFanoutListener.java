@@ -0,0 +1,33 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+/**
+ * Listener notified of the progress of {@link MulticastFanout}.
+ *
+ * <p>Calls are serialized and ordered by {@link MulticastBatchResult#getResumeOffset()}, but not by
+ * {@link MulticastBatchResult#getIndex()}, as batches are sent concurrently. The listener is called on
+ * the threads completing the requests, so it shouldn't block.
+ */
+@FunctionalInterface
+public interface MulticastFanoutListener {
+    /**
+     * Called when a batch succeeded or failed. Persist {@link MulticastBatchResult#getResumeOffset()} to
+     * resume the fan-out after a crash, and the failed batches to send them again.
+     */
+    void onBatchCompleted(MulticastBatchResult result);
+}
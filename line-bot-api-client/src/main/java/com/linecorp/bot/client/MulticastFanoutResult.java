@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.util.List;
+
+import lombok.Value;
+
+/**
+ * Summary of a fan-out by {@link MulticastFanout}.
+ */
+@Value
+public class MulticastFanoutResult {
+    /**
+     * Number of user IDs consumed from the input, excluding the skipped ones.
+     */
+    long inputCount;
+
+    /**
+     * Number of batches sent.
+     */
+    long batchCount;
+
+    /**
+     * Number of batches succeeded.
+     */
+    long succeededBatchCount;
+
+    /**
+     * Batches failed, without their user IDs so that a failing fan-out doesn't hold the whole input.
+     * Use {@link MulticastBatchResult#getOffset()} and {@link MulticastBatchResult#getInputCount()} to
+     * read the recipients from the input again, or keep them in {@link MulticastFanoutListener}.
+     */
+    List<MulticastBatchResult> failedBatches;
+
+    public boolean isSucceeded() {
+        return failedBatches.isEmpty();
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import com.linecorp.bot.model.oauth.ChannelAccessTokenException;
+import com.linecorp.bot.model.oauth.IssueChannelAccessTokenRequest;
+import com.linecorp.bot.model.oauth.IssueChannelAccessTokenResponse;
+
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link ChannelTokenSupplier} which issues channel access tokens with {@link LineOAuthClient} and renews
+ * them before they expire. Tokens are issued either with the channel secret by
+ * {@link LineOAuthClient#issueChannelToken(IssueChannelAccessTokenRequest)}, or with a JWT assertion by
+ * {@link LineOAuthClient#issueChannelTokenByJWT(String)}, signed for each issue.
+ *
+ * <p>{@link #get()} returns the cached token without locking while it's valid. A new token is issued in the
+ * background {@code refreshMargin} before expiry, and again after {@code retryInterval} if issuing fails, so
+ * request threads only wait for the first token, or when the token has expired because issuing kept
+ * failing. Concurrent callers share a single issue request.
+ *
+ * <pre>{@code
+ * RefreshingChannelTokenSupplier supplier =
+ *         RefreshingChannelTokenSupplier.builder(LineOAuthClient.builder().build(), channelId, channelSecret)
+ *                                       .build();
+ * LineMessagingClient client = LineMessagingClient.builder(supplier).build();
+ * }</pre>
+ */
+@Slf4j
+@ToString(onlyExplicitlyIncluded = true)
+public final class RefreshingChannelTokenSupplier implements ChannelTokenSupplier, Closeable {
+    private final Supplier<CompletableFuture<IssueChannelAccessTokenResponse>> issuer;
+    @ToString.Include
+    private final long refreshMarginNanos;
+    @ToString.Include
+    private final long retryIntervalNanos;
+    private final LongSupplier nanoTime;
+    private final ScheduledExecutorService scheduler;
+    /** The next renewal. Replaced on each issue so that only one renewal is pending. */
+    private ScheduledFuture<?> scheduledRefresh;
+
+    private volatile IssuedToken token;
+    private final AtomicReference<CompletableFuture<IssuedToken>> inFlight = new AtomicReference<>();
+
+    private final LongAdder issuedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+
+    RefreshingChannelTokenSupplier(final Supplier<CompletableFuture<IssueChannelAccessTokenResponse>> issuer,
+                                   final long refreshMarginNanos, final long retryIntervalNanos,
+                                   final LongSupplier nanoTime) {
+        this.issuer = issuer;
+        this.refreshMarginNanos = refreshMarginNanos;
+        this.retryIntervalNanos = retryIntervalNanos;
+        this.nanoTime = nanoTime;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "line-bot-token-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates a new {@link RefreshingChannelTokenSupplierBuilder}.
+     *
+     * @param channelId Channel ID, found on the console.
+     * @param channelSecret Channel secret, found on the console.
+     */
+    public static RefreshingChannelTokenSupplierBuilder builder(
+            @NonNull final LineOAuthClient oAuthClient,
+            @NonNull final String channelId,
+            @NonNull final String channelSecret) {
+        final IssueChannelAccessTokenRequest request =
+                IssueChannelAccessTokenRequest.builder()
+                                              .clientId(channelId)
+                                              .clientSecret(channelSecret)
+                                              .build();
+        return new RefreshingChannelTokenSupplierBuilder(() -> oAuthClient.issueChannelToken(request));
+    }
+
+    /**
+     * Creates a new {@link RefreshingChannelTokenSupplierBuilder} issuing channel access tokens v2.1 with
+     * assertions signed by the signer.
+     */
+    public static RefreshingChannelTokenSupplierBuilder builder(
+            @NonNull final LineOAuthClient oAuthClient,
+            @NonNull final JwtAssertionSigner signer) {
+        return new RefreshingChannelTokenSupplierBuilder(
+                () -> oAuthClient.issueChannelTokenByJWT(signer.sign()));
+    }
+
+    /**
+     * Returns the current channel access token, waiting for a new one only if there is no valid token.
+     *
+     * @throws ChannelAccessTokenException if the token can't be issued.
+     */
+    @Override
+    public String get() {
+        final IssuedToken current = token;
+        if (current != null && isValid(current)) {
+            return current.accessToken;
+        }
+        try {
+            return refresh(false).join().accessToken;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ChannelAccessTokenException) {
+                throw (ChannelAccessTokenException) e.getCause();
+            }
+            throw new ChannelAccessTokenException("Failed to issue channel access token", e.getCause());
+        }
+    }
+
+    /**
+     * Returns the number of tokens issued.
+     */
+    public long getIssuedCount() {
+        return issuedCount.sum();
+    }
+
+    /**
+     * Returns the number of failed attempts to issue a token.
+     */
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    /**
+     * Stops renewing the token. Tokens already issued are not revoked.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Issues a new token, or joins the issue request in flight.
+     *
+     * @param force whether to issue even if the current token is still valid.
+     */
+    CompletableFuture<IssuedToken> refresh(final boolean force) {
+        while (true) {
+            final CompletableFuture<IssuedToken> existing = inFlight.get();
+            if (existing != null) {
+                return existing;
+            }
+            final IssuedToken current = token;
+            if (!force && current != null && isValid(current)) {
+                // Issued by another caller since the token was read.
+                return CompletableFuture.completedFuture(current);
+            }
+            final CompletableFuture<IssuedToken> future = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, future)) {
+                issue(future);
+                return future;
+            }
+        }
+    }
+
+    private void issue(final CompletableFuture<IssuedToken> future) {
+        final long requestedAt = nanoTime.getAsLong();
+        CompletableFuture<IssueChannelAccessTokenResponse> response;
+        try {
+            response = issuer.get();
+        } catch (RuntimeException e) {
+            response = new CompletableFuture<>();
+            response.completeExceptionally(e);
+        }
+        response.whenComplete((issued, throwable) -> {
+            if (throwable == null) {
+                // Measured from the request, so the token is never used past its actual expiry.
+                final long lifetimeNanos = TimeUnit.SECONDS.toNanos(issued.getExpiresInSecs());
+                final IssuedToken newToken = new IssuedToken(issued.getAccessToken(),
+                                                             requestedAt + lifetimeNanos);
+                token = newToken;
+                inFlight.set(null);
+                issuedCount.increment();
+                log.debug("Issued channel access token. expiresIn={}s", issued.getExpiresInSecs());
+                scheduleRefresh(Math.max(lifetimeNanos - refreshMarginNanos, lifetimeNanos / 2));
+                future.complete(newToken);
+            } else {
+                inFlight.set(null);
+                failedCount.increment();
+                log.warn("Failed to issue channel access token. Retrying in {}ms.",
+                         TimeUnit.NANOSECONDS.toMillis(retryIntervalNanos), throwable);
+                scheduleRefresh(retryIntervalNanos);
+                future.completeExceptionally(throwable);
+            }
+        });
+    }
+
+    private synchronized void scheduleRefresh(final long delayNanos) {
+        // An issue requested by get() while a retry is pending replaces the retry.
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+        }
+        try {
+            scheduledRefresh = scheduler.schedule(() -> refresh(true), Math.max(delayNanos, retryIntervalNanos),
+                                                  TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            log.debug("Closed. Stopped renewing channel access token.");
+        }
+    }
+
+    private boolean isValid(final IssuedToken issuedToken) {
+        return nanoTime.getAsLong() - issuedToken.expiresAtNanos < 0;
+    }
+
+    @AllArgsConstructor
+    static final class IssuedToken {
+        final String accessToken;
+        final long expiresAtNanos;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import com.linecorp.bot.model.oauth.IssueChannelAccessTokenResponse;
+
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+import lombok.experimental.PackagePrivate;
+
+@ToString(onlyExplicitlyIncluded = true)
+@Accessors(fluent = true)
+public class RefreshingChannelTokenSupplierBuilder {
+    private final Supplier<CompletableFuture<IssueChannelAccessTokenResponse>> issuer;
+
+    /**
+     * Use {@link RefreshingChannelTokenSupplier#builder(LineOAuthClient, String, String)} or
+     * {@link RefreshingChannelTokenSupplier#builder(LineOAuthClient, JwtAssertionSigner)} to create instance.
+     */
+    @PackagePrivate
+    RefreshingChannelTokenSupplierBuilder(
+            final Supplier<CompletableFuture<IssueChannelAccessTokenResponse>> issuer) {
+        this.issuer = issuer;
+    }
+
+    /**
+     * How long before expiry a new token is issued. Capped at half the lifetime of the token.
+     *
+     * <p>Default value = 1 day.
+     */
+    @Setter
+    @NonNull
+    @ToString.Include
+    private Duration refreshMargin = Duration.ofDays(1);
+
+    /**
+     * Interval between attempts to issue a token after a failure.
+     *
+     * <p>Default value = 1 minute.
+     */
+    @Setter
+    @NonNull
+    @ToString.Include
+    private Duration retryInterval = Duration.ofMinutes(1);
+
+    /**
+     * Creates a new {@link RefreshingChannelTokenSupplier}, and starts issuing the first token in the
+     * background.
+     */
+    public RefreshingChannelTokenSupplier build() {
+        if (refreshMargin.isNegative()) {
+            throw new IllegalArgumentException("refreshMargin should not be negative. But " + refreshMargin);
+        }
+        if (retryInterval.isNegative() || retryInterval.isZero()) {
+            throw new IllegalArgumentException("retryInterval should be positive. But " + retryInterval);
+        }
+        final RefreshingChannelTokenSupplier supplier =
+                new RefreshingChannelTokenSupplier(issuer, refreshMargin.toNanos(),
+                                                   retryInterval.toNanos(), System::nanoTime);
+        supplier.refresh(true);
+        return supplier;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.net.FileNameMap;
+import java.net.URLConnection;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+
+import com.linecorp.bot.client.exception.GeneralLineMessagingException;
+import com.linecorp.bot.client.exception.LineMessagingException;
+import com.linecorp.bot.model.response.BotApiResponse;
+
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Uploads images of many rich menus with {@link LineBlobClient#setRichMenuImage(String, String, Path)}.
+ *
+ * <p>Images are streamed from the files, and at most {@code maxConcurrency} uploads are in flight, so the
+ * heap holds no image as a whole. The {@code Content-Type} of each image is resolved from its file name.
+ *
+ * <pre>{@code
+ * RichMenuImageUploader uploader = RichMenuImageUploader.builder(blobClient).build();
+ * RichMenuImageUploadResult result = uploader.upload(imagesByRichMenuId);
+ * result.getFailures().forEach((richMenuId, e) -> log.warn("Failed to upload {}", richMenuId, e));
+ * }</pre>
+ */
+@Slf4j
+@ToString
+public final class RichMenuImageUploader {
+    private static final FileNameMap FILE_NAME_MAP = URLConnection.getFileNameMap();
+
+    private final LineBlobClient client;
+    private final int maxConcurrency;
+
+    RichMenuImageUploader(final LineBlobClient client, final int maxConcurrency) {
+        this.client = client;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Creates a new {@link RichMenuImageUploaderBuilder}.
+     */
+    public static RichMenuImageUploaderBuilder builder(@NonNull final LineBlobClient client) {
+        return new RichMenuImageUploaderBuilder(client);
+    }
+
+    /**
+     * Uploads the image files keyed by rich menu ID, and blocks until all uploads complete.
+     *
+     * @throws InterruptedException if interrupted. Uploads in flight are not canceled.
+     */
+    public RichMenuImageUploadResult upload(@NonNull final Map<String, Path> images)
+            throws InterruptedException {
+        final Map<String, LineMessagingException> failures = new LinkedHashMap<>();
+        final Semaphore inFlight = new Semaphore(maxConcurrency);
+        for (Entry<String, Path> image : images.entrySet()) {
+            final String richMenuId = image.getKey();
+            inFlight.acquire();
+            send(richMenuId, image.getValue()).whenComplete((response, throwable) -> {
+                try {
+                    if (throwable != null) {
+                        final LineMessagingException exception = toLineMessagingException(throwable);
+                        log.warn("Rich menu image upload failed. richMenuId={}", richMenuId, exception);
+                        synchronized (failures) {
+                            failures.put(richMenuId, exception);
+                        }
+                    }
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        inFlight.acquire(maxConcurrency);
+        synchronized (failures) {
+            return new RichMenuImageUploadResult(images.size() - failures.size(),
+                                                 Collections.unmodifiableMap(new LinkedHashMap<>(failures)));
+        }
+    }
+
+    private CompletableFuture<BotApiResponse> send(final String richMenuId, final Path image) {
+        try {
+            final String contentType = FILE_NAME_MAP.getContentTypeFor(image.getFileName().toString());
+            if (contentType == null) {
+                throw new IllegalArgumentException("Can't assume Content-Type of " + image);
+            }
+            return client.setRichMenuImage(richMenuId, contentType, image);
+        } catch (RuntimeException e) {
+            final CompletableFuture<BotApiResponse> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    private static LineMessagingException toLineMessagingException(final Throwable throwable) {
+        final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                                ? throwable.getCause() : throwable;
+        if (cause instanceof LineMessagingException) {
+            return (LineMessagingException) cause;
+        }
+        return new GeneralLineMessagingException(cause.getMessage(), null, cause);
+    }
+}
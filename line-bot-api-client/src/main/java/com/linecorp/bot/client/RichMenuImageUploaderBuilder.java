@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+import lombok.experimental.PackagePrivate;
+
+@ToString
+@Accessors(fluent = true)
+public class RichMenuImageUploaderBuilder {
+    private final LineBlobClient client;
+
+    /**
+     * Use {@link RichMenuImageUploader#builder(LineBlobClient)} to create instance.
+     */
+    @PackagePrivate
+    RichMenuImageUploaderBuilder(@NonNull final LineBlobClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Max number of images uploaded concurrently. The number of requests actually executed concurrently is
+     * also limited by the {@link LineHttpTransport} of the client.
+     *
+     * <p>Default value = {@value LineClientConstants#DEFAULT_MAX_REQUESTS_PER_HOST}.
+     */
+    @Setter
+    private int maxConcurrency = LineClientConstants.DEFAULT_MAX_REQUESTS_PER_HOST;
+
+    /**
+     * Creates a new {@link RichMenuImageUploader}.
+     */
+    public RichMenuImageUploader build() {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency should be positive. But " + maxConcurrency);
+        }
+        return new RichMenuImageUploader(client, maxConcurrency);
+    }
+}
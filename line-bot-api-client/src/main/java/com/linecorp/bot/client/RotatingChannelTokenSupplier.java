@@ -0,0 +1,147 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link ChannelTokenSupplier} which spreads requests over a pool of channel access tokens in turn.
+ *
+ * <p>A token answered with 401 Unauthorized or 429 Too Many Requests is taken out of rotation for
+ * {@code unauthorizedSuspension} or {@code tooManyRequestsSuspension}, so a revoked or throttled token
+ * only fails the requests already sent with it. When all tokens are suspended, the one whose suspension
+ * ends first is used.
+ *
+ * <pre>{@code
+ * RotatingChannelTokenSupplier supplier = RotatingChannelTokenSupplier.builder(tokens).build();
+ * LineMessagingClient client = LineMessagingClient.builder(supplier).build();
+ * }</pre>
+ */
+@Slf4j
+@ToString(onlyExplicitlyIncluded = true)
+public final class RotatingChannelTokenSupplier implements ChannelTokenSupplier {
+    private final List<PooledToken> tokens;
+    private final Map<String, PooledToken> tokensByValue;
+    @ToString.Include
+    private final long unauthorizedSuspensionNanos;
+    @ToString.Include
+    private final long tooManyRequestsSuspensionNanos;
+    private final LongSupplier nanoTime;
+    private final AtomicInteger next = new AtomicInteger();
+
+    RotatingChannelTokenSupplier(final List<String> tokens, final long unauthorizedSuspensionNanos,
+                                 final long tooManyRequestsSuspensionNanos, final LongSupplier nanoTime) {
+        this.tokens = new ArrayList<>(tokens.size());
+        tokensByValue = new HashMap<>();
+        for (String token : tokens) {
+            final PooledToken pooledToken = new PooledToken(this.tokens.size(), token, nanoTime.getAsLong());
+            this.tokens.add(pooledToken);
+            tokensByValue.put(token, pooledToken);
+        }
+        this.unauthorizedSuspensionNanos = unauthorizedSuspensionNanos;
+        this.tooManyRequestsSuspensionNanos = tooManyRequestsSuspensionNanos;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Creates a new {@link RotatingChannelTokenSupplierBuilder}.
+     */
+    public static RotatingChannelTokenSupplierBuilder builder(final List<String> channelTokens) {
+        return new RotatingChannelTokenSupplierBuilder(channelTokens);
+    }
+
+    @Override
+    public String get() {
+        final long now = nanoTime.getAsLong();
+        final int start = Math.floorMod(next.getAndIncrement(), tokens.size());
+        PooledToken earliest = null;
+        for (int i = 0; i < tokens.size(); i++) {
+            final PooledToken token = tokens.get((start + i) % tokens.size());
+            if (now - token.suspendedUntilNanos >= 0) {
+                token.usageCount.increment();
+                return token.value;
+            }
+            if (earliest == null || token.suspendedUntilNanos - earliest.suspendedUntilNanos < 0) {
+                earliest = token;
+            }
+        }
+        earliest.usageCount.increment();
+        return earliest.value;
+    }
+
+    @Override
+    public void onResponse(final String channelToken, final int statusCode) {
+        final PooledToken token = tokensByValue.get(channelToken);
+        if (token == null) {
+            return;
+        }
+        if (statusCode == 401) {
+            token.unauthorizedCount.increment();
+            suspend(token, unauthorizedSuspensionNanos, statusCode);
+        } else if (statusCode == 429) {
+            token.tooManyRequestsCount.increment();
+            suspend(token, tooManyRequestsSuspensionNanos, statusCode);
+        }
+    }
+
+    private void suspend(final PooledToken token, final long suspensionNanos, final int statusCode) {
+        token.suspendedUntilNanos = nanoTime.getAsLong() + suspensionNanos;
+        log.warn("Channel access token #{} is suspended for {}ms by status {}.",
+                 token.index, suspensionNanos / 1_000_000, statusCode);
+    }
+
+    /**
+     * Returns usage of each token, in the order of the pool. Tokens themselves are not included.
+     */
+    public List<ChannelTokenUsage> getUsages() {
+        final long now = nanoTime.getAsLong();
+        final List<ChannelTokenUsage> usages = new ArrayList<>(tokens.size());
+        for (PooledToken token : tokens) {
+            usages.add(new ChannelTokenUsage(token.index,
+                                             token.usageCount.sum(),
+                                             token.unauthorizedCount.sum(),
+                                             token.tooManyRequestsCount.sum(),
+                                             now - token.suspendedUntilNanos < 0));
+        }
+        return Collections.unmodifiableList(usages);
+    }
+
+    private static final class PooledToken {
+        final int index;
+        final String value;
+        final LongAdder usageCount = new LongAdder();
+        final LongAdder unauthorizedCount = new LongAdder();
+        final LongAdder tooManyRequestsCount = new LongAdder();
+        volatile long suspendedUntilNanos;
+
+        PooledToken(final int index, final String value, final long createdAtNanos) {
+            this.index = index;
+            this.value = value;
+            suspendedUntilNanos = createdAtNanos;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+import lombok.experimental.PackagePrivate;
+
+@ToString(onlyExplicitlyIncluded = true)
+@Accessors(fluent = true)
+public class RotatingChannelTokenSupplierBuilder {
+    private final List<String> channelTokens;
+
+    /**
+     * Use {@link RotatingChannelTokenSupplier#builder(List)} to create instance.
+     */
+    @PackagePrivate
+    RotatingChannelTokenSupplierBuilder(@NonNull final List<String> channelTokens) {
+        this.channelTokens = new ArrayList<>(new LinkedHashSet<>(channelTokens));
+    }
+
+    /**
+     * How long a token answered with 401 Unauthorized is out of rotation.
+     *
+     * <p>Default value = 10 minutes.
+     */
+    @Setter
+    @NonNull
+    @ToString.Include
+    private Duration unauthorizedSuspension = Duration.ofMinutes(10);
+
+    /**
+     * How long a token answered with 429 Too Many Requests is out of rotation.
+     *
+     * <p>Default value = 1 minute.
+     */
+    @Setter
+    @NonNull
+    @ToString.Include
+    private Duration tooManyRequestsSuspension = Duration.ofMinutes(1);
+
+    /**
+     * Creates a new {@link RotatingChannelTokenSupplier}.
+     */
+    public RotatingChannelTokenSupplier build() {
+        if (channelTokens.isEmpty() || channelTokens.contains(null)) {
+            throw new IllegalArgumentException("channelTokens should be non-empty and contain no null.");
+        }
+        if (unauthorizedSuspension.isNegative() || tooManyRequestsSuspension.isNegative()) {
+            throw new IllegalArgumentException("Suspensions should not be negative.");
+        }
+        return new RotatingChannelTokenSupplier(channelTokens, unauthorizedSuspension.toNanos(),
+                                                tooManyRequestsSuspension.toNanos(), System::nanoTime);
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.linecorp.bot.client.exception;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a request is failed on the client side without being sent to the server, e.g. it's
+ * rejected by a rate limiter, a bulkhead or a concurrency limiter, or there's no channel access token.
+ *
+ * <p>{@link com.linecorp.bot.client.LineRetryPolicy LineRetryPolicy} doesn't retry such requests, since
+ * retrying would only add load to a client which is already saturated.
+ */
+public class RequestNotSentException extends IOException {
+    private static final long serialVersionUID = LineMessagingException.SERIAL_VERSION_UID;
+
+    public RequestNotSentException(final String message) {
+        super(message);
+    }
+
+    public RequestNotSentException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+}
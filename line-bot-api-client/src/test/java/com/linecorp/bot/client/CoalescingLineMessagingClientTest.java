@@ -0,0 +1,169 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import com.linecorp.bot.client.exception.BadRequestException;
+import com.linecorp.bot.client.exception.LineServerException;
+import com.linecorp.bot.model.Multicast;
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.message.TextMessage;
+import com.linecorp.bot.model.response.BotApiResponse;
+
+public class CoalescingLineMessagingClientTest {
+    private static final BotApiResponse RESPONSE = new BotApiResponse("REQUEST_ID", "", emptyList());
+
+    @Rule
+    public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    @Mock
+    private LineMessagingClient delegate;
+
+    private CoalescingLineMessagingClient target;
+
+    @Before
+    public void setUp() {
+        target = CoalescingLineMessagingClient.builder(delegate)
+                                              .window(Duration.ofMillis(50))
+                                              .build();
+    }
+
+    @After
+    public void tearDown() {
+        target.close();
+    }
+
+    @Test
+    public void coalesceSameMessages() throws Exception {
+        when(delegate.multicast(any())).thenReturn(CompletableFuture.completedFuture(RESPONSE));
+        when(delegate.pushMessage(any())).thenReturn(CompletableFuture.completedFuture(RESPONSE));
+
+        // Do
+        final CompletableFuture<BotApiResponse> first = target.pushMessage(push("U1", "hello"));
+        final CompletableFuture<BotApiResponse> second = target.pushMessage(push("U2", "hello"));
+        final CompletableFuture<BotApiResponse> other = target.pushMessage(push("U3", "bye"));
+
+        // Verify
+        assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo(RESPONSE);
+        assertThat(second.get(1, TimeUnit.SECONDS)).isEqualTo(RESPONSE);
+        assertThat(other.get(1, TimeUnit.SECONDS)).isEqualTo(RESPONSE);
+        final ArgumentCaptor<Multicast> multicast = ArgumentCaptor.forClass(Multicast.class);
+        verify(delegate).multicast(multicast.capture());
+        assertThat(multicast.getValue().getTo()).containsExactly("U1", "U2");
+        verify(delegate).pushMessage(push("U3", "bye"));
+        assertThat(target.getCoalescedPushCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void propagateServerErrorToEachPush() throws Exception {
+        final CompletableFuture<BotApiResponse> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new LineServerException("error", null));
+        when(delegate.multicast(any())).thenReturn(failed);
+
+        // Do
+        final CompletableFuture<BotApiResponse> first = target.pushMessage(push("U1", "hello"));
+        final CompletableFuture<BotApiResponse> second = target.pushMessage(push("U2", "hello"));
+
+        // Verify
+        assertThatThrownBy(() -> first.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(LineServerException.class);
+        assertThatThrownBy(() -> second.get(1, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(LineServerException.class);
+    }
+
+    @Test
+    public void sendPushesOneByOneOnRecipientError() throws Exception {
+        final CompletableFuture<BotApiResponse> multicastFailed = new CompletableFuture<>();
+        multicastFailed.completeExceptionally(new BadRequestException("Invalid recipient", null));
+        when(delegate.multicast(any())).thenReturn(multicastFailed);
+        final CompletableFuture<BotApiResponse> pushFailed = new CompletableFuture<>();
+        pushFailed.completeExceptionally(new BadRequestException("Invalid recipient", null));
+        when(delegate.pushMessage(push("U1", "hello"))).thenReturn(CompletableFuture.completedFuture(RESPONSE));
+        when(delegate.pushMessage(push("U2", "hello"))).thenReturn(pushFailed);
+
+        // Do
+        final CompletableFuture<BotApiResponse> valid = target.pushMessage(push("U1", "hello"));
+        final CompletableFuture<BotApiResponse> invalid = target.pushMessage(push("U2", "hello"));
+
+        // Verify
+        assertThat(valid.get(1, TimeUnit.SECONDS)).isEqualTo(RESPONSE);
+        assertThatThrownBy(() -> invalid.get(1, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(BadRequestException.class);
+        verify(delegate, times(1)).multicast(any());
+        assertThat(target.getSplitMulticastCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void notCoalescePushToGroup() {
+        when(delegate.pushMessage(any())).thenReturn(CompletableFuture.completedFuture(RESPONSE));
+
+        // Do
+        final CompletableFuture<BotApiResponse> future = target.pushMessage(push("C1", "hello"));
+
+        // Verify
+        assertThat(future).isCompletedWithValue(RESPONSE);
+        verify(delegate, never()).multicast(any());
+    }
+
+    @Test
+    public void sendSecondPushToSameUserAfterFirst() throws Exception {
+        when(delegate.pushMessage(any())).thenReturn(CompletableFuture.completedFuture(RESPONSE));
+        final CompletableFuture<BotApiResponse> first = target.pushMessage(push("U1", "hello"));
+
+        // Do
+        final CompletableFuture<BotApiResponse> second = target.pushMessage(push("U1", "hello"));
+
+        // Verify
+        assertThat(second).isNotDone();
+        verify(delegate, never()).pushMessage(any());
+        assertThat(second.get()).isEqualTo(RESPONSE);
+        assertThat(first).isCompletedWithValue(RESPONSE);
+        verify(delegate, times(2)).pushMessage(any());
+        verify(delegate, never()).multicast(any());
+    }
+
+    private static PushMessage push(final String to, final String text) {
+        return new PushMessage(to, new TextMessage(text));
+    }
+}
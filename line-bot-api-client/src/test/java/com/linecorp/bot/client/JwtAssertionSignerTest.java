@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.time.Duration;
+import java.util.Base64;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class JwtAssertionSignerTest {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static KeyPair keyPair;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPair = generator.generateKeyPair();
+    }
+
+    @Test
+    public void signVerifiableAssertion() throws Exception {
+        final JwtAssertionSigner target =
+                JwtAssertionSigner.builder("1234567890", "KEY_ID", keyPair.getPrivate()).build();
+
+        // Do
+        final String assertion = target.sign(1_600_000_000L);
+
+        // Verify
+        final String[] parts = assertion.split("\\.");
+        assertThat(parts).hasSize(3);
+        final Signature rs256 = Signature.getInstance("SHA256withRSA");
+        rs256.initVerify(keyPair.getPublic());
+        rs256.update((parts[0] + '.' + parts[1]).getBytes(StandardCharsets.US_ASCII));
+        assertThat(rs256.verify(Base64.getUrlDecoder().decode(parts[2]))).isTrue();
+
+        final JsonNode header = OBJECT_MAPPER.readTree(Base64.getUrlDecoder().decode(parts[0]));
+        assertThat(header.get("alg").asText()).isEqualTo("RS256");
+        assertThat(header.get("kid").asText()).isEqualTo("KEY_ID");
+        final JsonNode claims = OBJECT_MAPPER.readTree(Base64.getUrlDecoder().decode(parts[1]));
+        assertThat(claims.get("iss").asText()).isEqualTo("1234567890");
+        assertThat(claims.get("sub").asText()).isEqualTo("1234567890");
+        assertThat(claims.get("aud").asText()).isEqualTo("https://api.line.me/");
+        assertThat(claims.get("exp").asLong()).isEqualTo(1_600_000_000L + 30 * 60);
+        assertThat(claims.get("token_exp").asLong()).isEqualTo(30 * 24 * 60 * 60);
+    }
+
+    @Test
+    public void parseJwk() throws Exception {
+        final RSAPrivateCrtKey key = (RSAPrivateCrtKey) keyPair.getPrivate();
+        final String jwk = OBJECT_MAPPER.createObjectNode()
+                                        .put("kty", "RSA")
+                                        .put("alg", "RS256")
+                                        .put("n", encode(key.getModulus()))
+                                        .put("e", encode(key.getPublicExponent()))
+                                        .put("d", encode(key.getPrivateExponent()))
+                                        .put("p", encode(key.getPrimeP()))
+                                        .put("q", encode(key.getPrimeQ()))
+                                        .put("dp", encode(key.getPrimeExponentP()))
+                                        .put("dq", encode(key.getPrimeExponentQ()))
+                                        .put("qi", encode(key.getCrtCoefficient()))
+                                        .toString();
+
+        // Do
+        final RSAPrivateCrtKey parsed = (RSAPrivateCrtKey) JwtAssertionSigner.parseJwk(jwk);
+
+        // Verify
+        assertThat(parsed.getModulus()).isEqualTo(key.getModulus());
+        assertThat(parsed.getPrivateExponent()).isEqualTo(key.getPrivateExponent());
+    }
+
+    @Test
+    public void rejectTokenLifetimeOverMax() {
+        assertThatThrownBy(() -> JwtAssertionSigner.builder("1234567890", "KEY_ID", keyPair.getPrivate())
+                                                   .tokenLifetime(Duration.ofDays(31))
+                                                   .build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String encode(final BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes[0] == 0 && bytes.length > 1) {
+            final byte[] unsigned = new byte[bytes.length - 1];
+            System.arraycopy(bytes, 1, unsigned, 0, unsigned.length);
+            bytes = unsigned;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
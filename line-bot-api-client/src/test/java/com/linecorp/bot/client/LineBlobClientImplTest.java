@@ -19,29 +19,42 @@ package com.linecorp.bot.client;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonMap;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.only;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.rules.Timeout;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 import org.mockito.stubbing.OngoingStubbing;
 
+import com.linecorp.bot.client.exception.GeneralLineMessagingException;
 import com.linecorp.bot.model.response.BotApiResponse;
 
 import okhttp3.Headers;
 import okhttp3.MediaType;
 import okhttp3.Request;
+import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
+import okio.Buffer;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
@@ -60,6 +73,9 @@ public class LineBlobClientImplTest {
     @Rule
     public final Timeout timeoutRule = Timeout.seconds(5);
 
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Mock
     private LineBlobService retrofitMock;
 
@@ -80,6 +96,55 @@ public class LineBlobClientImplTest {
         assertThat(contentResponse.getMimeType()).isEqualTo("image/jpeg");
     }
 
+    @Test
+    public void downloadMessageContentTest() throws Exception {
+        final byte[] content = "CONTENT".getBytes();
+        whenCall(retrofitMock.getMessageContent(any()),
+                 ResponseBody.create(MediaType.parse("image/jpeg"), content));
+        final Path destination = temporaryFolder.getRoot().toPath().resolve("content.jpg");
+        final List<Long> progress = new ArrayList<>();
+
+        // Do
+        final MessageContentTransferResult result =
+                target.downloadMessageContent("ID", destination, progress::add).get();
+
+        // Verify
+        assertThat(result.getLength()).isEqualTo(content.length);
+        assertThat(result.getMimeType()).isEqualTo("image/jpeg");
+        assertThat(Files.readAllBytes(destination)).isEqualTo(content);
+        assertThat(progress.get(progress.size() - 1)).isEqualTo(content.length);
+    }
+
+    @Test
+    public void downloadMessageContentDeletesTruncatedFile() throws Exception {
+        final byte[] content = "CONTENT".getBytes();
+        whenCall(retrofitMock.getMessageContent(any()),
+                 ResponseBody.create(MediaType.parse("image/jpeg"), content.length + 1,
+                                     new Buffer().write(content)));
+        final Path destination = temporaryFolder.getRoot().toPath().resolve("content.jpg");
+
+        // Do & Verify
+        assertThatThrownBy(() -> target.downloadMessageContent("ID", destination).get())
+                .hasCauseInstanceOf(GeneralLineMessagingException.class);
+        assertThat(destination).doesNotExist();
+    }
+
+    @Test
+    public void transferMessageContentTest() throws Exception {
+        final byte[] content = "CONTENT".getBytes();
+        whenCall(retrofitMock.getMessageContent(any()),
+                 ResponseBody.create(MediaType.parse("video/mp4"), content));
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Do
+        final MessageContentTransferResult result =
+                target.transferMessageContent("ID", Channels.newChannel(outputStream)).get();
+
+        // Verify
+        assertThat(result.getLength()).isEqualTo(content.length);
+        assertThat(outputStream.toByteArray()).isEqualTo(content);
+    }
+
     @Test
     public void getRichMenuImageTest() throws Exception {
         whenCall(retrofitMock.getRichMenuImage(any()),
@@ -109,8 +174,51 @@ public class LineBlobClientImplTest {
 
     }
 
+    @Test
+    public void uploadRichMenuImageFromFileTest() throws Exception {
+        whenCall(retrofitMock.uploadRichMenuImage(any(), any()),
+                 null);
+        final byte[] content = "IMAGE".getBytes();
+        final Path image = temporaryFolder.newFile("image.png").toPath();
+        Files.write(image, content);
+
+        // Do
+        final BotApiResponse botApiResponse =
+                target.setRichMenuImage("ID", "image/png", image).get();
+
+        // Verify
+        final ArgumentCaptor<RequestBody> requestBody = ArgumentCaptor.forClass(RequestBody.class);
+        verify(retrofitMock, only()).uploadRichMenuImage(eq("ID"), requestBody.capture());
+        assertThat(requestBody.getValue().contentLength()).isEqualTo(content.length);
+        assertThat(readTwice(requestBody.getValue())).isEqualTo("IMAGEIMAGE");
+        assertThat(botApiResponse).isEqualTo(BOT_API_SUCCESS_RESPONSE);
+    }
+
+    @Test
+    public void uploadRichMenuImageFromByteBufferTest() throws Exception {
+        whenCall(retrofitMock.uploadRichMenuImage(any(), any()),
+                 null);
+        final ByteBuffer content = ByteBuffer.wrap("IMAGE".getBytes());
+
+        // Do
+        target.setRichMenuImage("ID", "image/png", content).get();
+
+        // Verify
+        final ArgumentCaptor<RequestBody> requestBody = ArgumentCaptor.forClass(RequestBody.class);
+        verify(retrofitMock, only()).uploadRichMenuImage(eq("ID"), requestBody.capture());
+        assertThat(readTwice(requestBody.getValue())).isEqualTo("IMAGEIMAGE");
+        assertThat(content.remaining()).isEqualTo(5);
+    }
+
     // Utility methods
 
+    private static String readTwice(RequestBody requestBody) throws IOException {
+        final Buffer buffer = new Buffer();
+        requestBody.writeTo(buffer);
+        requestBody.writeTo(buffer);
+        return buffer.readUtf8();
+    }
+
     private static <T> void whenCall(Call<T> call, T value) {
         final OngoingStubbing<Call<T>> callOngoingStubbing = when(call);
         callOngoingStubbing.thenReturn(enqueue(value));
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.linecorp.bot.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+
+public class LineBlobClientImplWiremockTest extends AbstractWiremockTest {
+    private static final byte[] IMAGE = { 1, 2, 3, 4 };
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test(timeout = ASYNC_TEST_TIMEOUT)
+    public void getMessageContentIsNotBuffered() throws Exception {
+        // Sending the whole content takes far longer than the timeout.
+        mockWebServer.enqueue(new MockResponse()
+                                      .setBody(new Buffer().write(new byte[1024 * 1024]))
+                                      .throttleBody(1024, 100, TimeUnit.MILLISECONDS));
+
+        // Do
+        try (MessageContentResponse response = lineBlobClient.getMessageContent("ID").get()) {
+            // Verify
+            assertThat(response.getLength()).isEqualTo(1024 * 1024);
+            assertThat(response.getStream().read(new byte[1024])).isPositive();
+        }
+    }
+
+    @Test(timeout = ASYNC_TEST_TIMEOUT)
+    public void setRichMenuImageFromInputStream() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setBody("{}"));
+        final ByteArrayInputStream content = new ByteArrayInputStream(IMAGE);
+
+        // Do
+        lineBlobClient.setRichMenuImage("RICH_MENU_ID", "image/png", content, IMAGE.length).get();
+
+        // Verify
+        final RecordedRequest request = mockWebServer.takeRequest();
+        assertThat(request.getPath()).isEqualTo("/v2/bot/richmenu/RICH_MENU_ID/content");
+        assertThat(request.getHeader("Content-Type")).isEqualTo("image/png");
+        assertThat(request.getBody().readByteArray()).isEqualTo(IMAGE);
+        assertThat(content.available()).isZero();
+    }
+
+    @Test(timeout = ASYNC_TEST_TIMEOUT)
+    public void setRichMenuImageFromFile() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setBody("{}"));
+        final Path image = temporaryFolder.newFile().toPath();
+        Files.write(image, IMAGE);
+
+        // Do
+        lineBlobClient.setRichMenuImage("RICH_MENU_ID", "image/png", image).get();
+
+        // Verify
+        assertThat(mockWebServer.takeRequest().getBody().readByteArray()).isEqualTo(IMAGE);
+    }
+}
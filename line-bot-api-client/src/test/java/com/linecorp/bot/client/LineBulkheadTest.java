@@ -0,0 +1,153 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.ReplyMessage;
+import com.linecorp.bot.model.message.TextMessage;
+import com.linecorp.bot.model.response.BotApiResponse;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+public class LineBulkheadTest {
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    private final CountDownLatch pushReleased = new CountDownLatch(1);
+    private MockWebServer mockWebServer;
+    private LineBulkhead bulkhead;
+    private LineMessagingClient client;
+
+    @Before
+    public void setUp() {
+        mockWebServer = new MockWebServer();
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) throws InterruptedException {
+                if (request.getPath().endsWith("/push")) {
+                    pushReleased.await();
+                }
+                return new MockResponse().setHeader("x-line-request-id", "REQUEST_ID").setBody("{}");
+            }
+        });
+        bulkhead = LineBulkhead.builder()
+                               .limit(BulkheadCompartment.SEND, 1, 1)
+                               .build();
+        client = LineMessagingClient.builder("token")
+                                    .apiEndPoint(URI.create(mockWebServer.url("/").toString()))
+                                    .bulkhead(bulkhead)
+                                    .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        pushReleased.countDown();
+        bulkhead.close();
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    public void replyWhileSendIsSaturated() throws Exception {
+        final CompletableFuture<BotApiResponse> running = client.pushMessage(push());
+        final CompletableFuture<BotApiResponse> queued = client.pushMessage(push());
+        final CompletableFuture<BotApiResponse> rejected = client.pushMessage(push());
+
+        // Do
+        final ReplyMessage replyMessage = new ReplyMessage("REPLY_TOKEN", new TextMessage("text"));
+        final BotApiResponse reply = client.replyMessage(replyMessage).get(1, TimeUnit.SECONDS);
+
+        // Verify
+        assertThat(reply.getRequestId()).isEqualTo("REQUEST_ID");
+        assertThatThrownBy(() -> rejected.get(1, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+        assertThat(bulkhead.getRunningCount(BulkheadCompartment.SEND)).isEqualTo(1);
+        assertThat(bulkhead.getQueueSize(BulkheadCompartment.SEND)).isEqualTo(1);
+        assertThat(bulkhead.getRejectedRequestCount()).isEqualTo(1);
+
+        pushReleased.countDown();
+        assertThat(running.get(1, TimeUnit.SECONDS).getRequestId()).isEqualTo("REQUEST_ID");
+        assertThat(queued.get(1, TimeUnit.SECONDS).getRequestId()).isEqualTo("REQUEST_ID");
+        assertThat(bulkhead.getQueuedRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void keepDefaultQueueWhenOnlyConcurrencyIsSet() throws Exception {
+        final LineBulkhead concurrencyOnly = LineBulkhead.builder()
+                                                         .maxConcurrent(BulkheadCompartment.SEND, 1)
+                                                         .build();
+        try {
+            final LineMessagingClient client =
+                    LineMessagingClient.builder("token")
+                                       .apiEndPoint(URI.create(mockWebServer.url("/").toString()))
+                                       .bulkhead(concurrencyOnly)
+                                       .build();
+            final CompletableFuture<BotApiResponse> running = client.pushMessage(push());
+
+            // Do
+            final CompletableFuture<BotApiResponse> queued = client.pushMessage(push());
+
+            // Verify
+            assertThat(concurrencyOnly.getQueueSize(BulkheadCompartment.SEND)).isEqualTo(1);
+            assertThat(concurrencyOnly.getRejectedRequestCount()).isZero();
+            pushReleased.countDown();
+            assertThat(running.get(1, TimeUnit.SECONDS).getRequestId()).isEqualTo("REQUEST_ID");
+            assertThat(queued.get(1, TimeUnit.SECONDS).getRequestId()).isEqualTo("REQUEST_ID");
+        } finally {
+            concurrencyOnly.close();
+        }
+    }
+
+    @Test
+    public void classifyRequests() {
+        assertThat(BulkheadCompartment.of("POST", "/v2/bot/message/reply"))
+                .isEqualTo(BulkheadCompartment.REPLY);
+        assertThat(BulkheadCompartment.of("POST", "/v2/bot/message/multicast"))
+                .isEqualTo(BulkheadCompartment.SEND);
+        assertThat(BulkheadCompartment.of("GET", "/v2/bot/profile/U1")).isEqualTo(BulkheadCompartment.READ);
+        assertThat(BulkheadCompartment.of("GET", "/v2/bot/message/MESSAGE_ID/content"))
+                .isEqualTo(BulkheadCompartment.BLOB);
+        assertThat(BulkheadCompartment.of("POST", "/v2/bot/richmenu/RICH_MENU_ID/content"))
+                .isEqualTo(BulkheadCompartment.BLOB);
+    }
+
+    @Test
+    public void limitShouldBePositive() {
+        assertThatThrownBy(() -> LineBulkhead.builder().limit(BulkheadCompartment.READ, 0, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static PushMessage push() {
+        return new PushMessage("USER_ID", new TextMessage("text"));
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import com.linecorp.bot.model.Multicast;
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.ReplyMessage;
+import com.linecorp.bot.model.message.TextMessage;
+import com.linecorp.bot.model.response.BotApiResponse;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+public class LineConcurrencyLimiterTest {
+    private static final String ERROR_BODY = "{\"message\":\"An error occurred.\"}";
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final CountDownLatch responseReleased = new CountDownLatch(1);
+    private MockWebServer mockWebServer;
+
+    @Before
+    public void setUp() {
+        mockWebServer = new MockWebServer();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        responseReleased.countDown();
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    public void raiseLimitWhileFast() throws Exception {
+        final LineConcurrencyLimiter limiter = limiter(1, 1);
+        mockWebServer.enqueue(new MockResponse().setBody("{}"));
+
+        // Do
+        client(limiter).pushMessage(push()).get();
+
+        // Verify
+        assertThat(limiter.getLimit()).isEqualTo(2);
+        assertThat(limiter.getInFlightCount()).isZero();
+    }
+
+    @Test
+    public void lowerLimitOnTooManyRequests() throws Exception {
+        final LineConcurrencyLimiter limiter = limiter(10, 1);
+        mockWebServer.enqueue(new MockResponse().setResponseCode(429).setBody(ERROR_BODY));
+
+        // Do
+        assertThatThrownBy(() -> client(limiter).pushMessage(push()).get())
+                .isInstanceOf(ExecutionException.class);
+
+        // Verify
+        assertThat(limiter.getLimit()).isEqualTo(9);
+        assertThat(limiter.getLimitDecreasedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void lowerLimitOnSlowResponse() throws Exception {
+        final LineConcurrencyLimiter limiter = limiter(10, 1);
+        final LineMessagingClient client = client(limiter);
+        mockWebServer.enqueue(new MockResponse().setBody("{}"));
+        client.pushMessage(push()).get();
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) {
+                nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+                return new MockResponse().setBody("{}");
+            }
+        });
+
+        // Do
+        client.pushMessage(push()).get();
+
+        // Verify
+        assertThat(limiter.getLimit()).isEqualTo(9);
+    }
+
+    @Test
+    public void compareLatencyWithinEndpointClass() throws Exception {
+        final LineConcurrencyLimiter limiter = limiter(10, 1);
+        final LineMessagingClient client = client(limiter);
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) {
+                if (request.getPath().endsWith("/multicast")) {
+                    nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+                    return new MockResponse().setBody("{}");
+                }
+                nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(40));
+                return new MockResponse().setBody("{\"displayName\":\"name\",\"userId\":\"USER_ID\"}");
+            }
+        });
+        final Multicast multicast =
+                new Multicast(Collections.singleton("USER_ID"), new TextMessage("text"));
+
+        // Do
+        for (int i = 0; i < 5; i++) {
+            client.getProfile("USER_ID").get();
+            client.multicast(multicast).get();
+        }
+
+        // Verify
+        assertThat(limiter.getLimitDecreasedCount()).isZero();
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    public void queueRequestsOverLimit() throws Exception {
+        final LineConcurrencyLimiter limiter = limiter(1, 1);
+        final LineMessagingClient client = client(limiter);
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) throws InterruptedException {
+                responseReleased.await();
+                return new MockResponse().setHeader("x-line-request-id", "REQUEST_ID").setBody("{}");
+            }
+        });
+        final CompletableFuture<BotApiResponse> running = client.pushMessage(push());
+        final CompletableFuture<BotApiResponse> queued = client.pushMessage(push());
+
+        // Do
+        final CompletableFuture<BotApiResponse> rejected = client.pushMessage(push());
+
+        // Verify
+        assertThatThrownBy(() -> rejected.get(1, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+        assertThat(limiter.getInFlightCount()).isEqualTo(1);
+        assertThat(limiter.getQueueSize()).isEqualTo(1);
+        assertThat(limiter.getRejectedRequestCount()).isEqualTo(1);
+
+        responseReleased.countDown();
+        assertThat(running.get().getRequestId()).isEqualTo("REQUEST_ID");
+        assertThat(queued.get().getRequestId()).isEqualTo("REQUEST_ID");
+        assertThat(limiter.getQueueSize()).isZero();
+    }
+
+    @Test
+    public void replyBypassesLimiterWithBulkhead() throws Exception {
+        final LineConcurrencyLimiter limiter = limiter(1, 1);
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) throws InterruptedException {
+                if (request.getPath().endsWith("/push")) {
+                    responseReleased.await();
+                }
+                return new MockResponse().setBody("{}");
+            }
+        });
+        try (LineBulkhead bulkhead = LineBulkhead.builder().build()) {
+            final LineMessagingClient client =
+                    LineMessagingClient.builder("token")
+                                       .apiEndPoint(URI.create(mockWebServer.url("/").toString()))
+                                       .bulkhead(bulkhead)
+                                       .concurrencyLimiter(limiter)
+                                       .build();
+            final CompletableFuture<BotApiResponse> running = client.pushMessage(push());
+
+            // Do
+            client.replyMessage(new ReplyMessage("REPLY_TOKEN", new TextMessage("text"))).get();
+
+            // Verify
+            assertThat(running).isNotDone();
+            assertThat(limiter.getInFlightCount()).isEqualTo(1);
+            assertThat(limiter.getQueueSize()).isZero();
+
+            responseReleased.countDown();
+            running.get();
+        }
+    }
+
+    @Test
+    public void initialLimitWithinBounds() {
+        assertThatThrownBy(() -> LineConcurrencyLimiter.builder().initialLimit(30).maxLimit(20).build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private LineConcurrencyLimiter limiter(final int initialLimit, final int maxQueued) {
+        return new LineConcurrencyLimiter(initialLimit, 1, 20, maxQueued, 0.9, 2, nanoTime::get);
+    }
+
+    private LineMessagingClient client(final LineConcurrencyLimiter limiter) {
+        return LineMessagingClient.builder("token")
+                                  .apiEndPoint(URI.create(mockWebServer.url("/").toString()))
+                                  .concurrencyLimiter(limiter)
+                                  .build();
+    }
+
+    private static PushMessage push() {
+        return new PushMessage("USER_ID", new TextMessage("text"));
+    }
+}
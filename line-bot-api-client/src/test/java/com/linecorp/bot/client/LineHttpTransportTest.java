@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+public class LineHttpTransportTest {
+    private MockWebServer mockWebServer;
+    private LineHttpTransport transport;
+
+    @Before
+    public void setUp() {
+        mockWebServer = new MockWebServer();
+        transport = LineHttpTransport.builder().build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        transport.close();
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    public void clientsShareConnection() throws Exception {
+        final URI endPoint = URI.create(mockWebServer.url("/").toString());
+        final LineMessagingClient messagingClient = LineMessagingClient.builder("token1")
+                                                                       .apiEndPoint(endPoint)
+                                                                       .transport(transport)
+                                                                       .build();
+        final LineBlobClient blobClient = LineBlobClient.builder("token2")
+                                                        .apiEndPoint(endPoint)
+                                                        .transport(transport)
+                                                        .build();
+        mockWebServer.enqueue(new MockResponse().setBody("{}"));
+        mockWebServer.enqueue(new MockResponse().setHeader("Content-Type", "image/jpeg").setBody("content"));
+
+        // Do
+        messagingClient.getProfile("USER_ID").get(10, TimeUnit.SECONDS);
+        blobClient.getMessageContent("MESSAGE_ID").get(10, TimeUnit.SECONDS).getStream().close();
+
+        // Verify
+        assertThat(transport.getConnectionCount()).isEqualTo(1);
+        assertThat(mockWebServer.takeRequest().getHeader("Authorization")).isEqualTo("Bearer token1");
+        final RecordedRequest blobRequest = mockWebServer.takeRequest();
+        assertThat(blobRequest.getHeader("Authorization")).isEqualTo("Bearer token2");
+        assertThat(blobRequest.getSequenceNumber()).isEqualTo(1);
+    }
+
+    @Test
+    public void blobServiceOfMessagingClientHasSingleAuthorizationHeader() throws Exception {
+        final URI endPoint = URI.create(mockWebServer.url("/").toString());
+        final LineMessagingClient messagingClient = LineMessagingClient.builder("token")
+                                                                       .apiEndPoint(endPoint)
+                                                                       .blobEndPoint(endPoint)
+                                                                       .build();
+        mockWebServer.enqueue(new MockResponse().setHeader("Content-Type", "image/jpeg").setBody("content"));
+
+        // Do
+        messagingClient.getMessageContent("MESSAGE_ID").get(10, TimeUnit.SECONDS).getStream().close();
+
+        // Verify
+        assertThat(mockWebServer.takeRequest().getHeaders().values("Authorization"))
+                .containsExactly("Bearer token");
+    }
+}
@@ -19,11 +19,27 @@ package com.linecorp.bot.client;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Rule;
 import org.junit.Test;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.RecordedRequest;
 
 public class LineMessagingClientBuilderTest extends AbstractWiremockTest {
@@ -62,6 +78,96 @@ public class LineMessagingClientBuilderTest extends AbstractWiremockTest {
                 .isEqualTo("Bearer MOCKED_TOKEN");
     }
 
+    @Test
+    public void testMaxRequestsPerHost() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                release.await();
+                inFlight.decrementAndGet();
+                return new MockResponse().setBody("{}");
+            }
+        });
+        lineMessagingClient = LineMessagingClient.builder("token")
+                                                 .apiEndPoint(URI.create(mockWebServer.url("/").toString()))
+                                                 .maxRequestsPerHost(2)
+                                                 .build();
+
+        // Do
+        final List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(lineMessagingClient.getProfile("TEST"));
+        }
+        Thread.sleep(300);
+        final int inFlightBeforeRelease = inFlight.get();
+        release.countDown();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        // Verify
+        assertThat(inFlightBeforeRelease).isEqualTo(2);
+        assertThat(maxInFlight.get()).isEqualTo(2);
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(4);
+    }
+
+    @Test
+    public void testDispatcherOfOkHttpClientBuilderIsKept() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setBody("{}"));
+        final AtomicInteger executedCalls = new AtomicInteger();
+        final ExecutorService executorService = new ThreadPoolExecutor(
+                0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>()) {
+            @Override
+            public void execute(Runnable command) {
+                executedCalls.incrementAndGet();
+                super.execute(command);
+            }
+        };
+        final OkHttpClient.Builder okHttpClientBuilder =
+                new OkHttpClient.Builder().dispatcher(new okhttp3.Dispatcher(executorService));
+        lineMessagingClient = LineMessagingClient.builder("token")
+                                                 .apiEndPoint(URI.create(mockWebServer.url("/").toString()))
+                                                 .okHttpClientBuilder(okHttpClientBuilder, true)
+                                                 .build();
+
+        try {
+            // Do
+            lineMessagingClient.getProfile("TEST").get(10, TimeUnit.SECONDS);
+
+            // Verify
+            assertThat(executedCalls.get()).isEqualTo(1);
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void testCallbackExecutor() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setBody("{}"));
+        final AtomicInteger executedCallbacks = new AtomicInteger();
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        final Executor callbackExecutor = command -> {
+            executedCallbacks.incrementAndGet();
+            executorService.execute(command);
+        };
+        lineMessagingClient = LineMessagingClient.builder("token")
+                                                 .apiEndPoint(URI.create(mockWebServer.url("/").toString()))
+                                                 .callbackExecutor(callbackExecutor)
+                                                 .build();
+
+        try {
+            // Do
+            lineMessagingClient.getProfile("TEST").get(10, TimeUnit.SECONDS);
+
+            // Verify
+            assertThat(executedCallbacks.get()).isEqualTo(1);
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
     @Test
     public void testBuildWithoutChannelToken() {
         assertThatThrownBy(() -> {
@@ -123,6 +123,29 @@ public class LineOAuthClientTest {
         assertThat(e.getErrorDescription()).isEqualTo("errorDetail");
     }
 
+    @Test
+    public void issueTokenByJwt() throws Exception {
+        mockWebServer.enqueue(new MockResponse()
+                                      .setResponseCode(200)
+                                      .setBody("{\"access_token\":\"accessToken\",\"expires_in\":30,"
+                                               + "\"token_type\":\"Bearer\",\"key_id\":\"keyId\"}"));
+
+        // Do
+        final IssueChannelAccessTokenResponse actualResponse =
+                target.issueChannelTokenByJWT("header.claims.signature").join();
+
+        // Verify
+        final RecordedRequest recordedRequest = mockWebServer.takeRequest();
+        assertThat(recordedRequest.getPath())
+                .isEqualTo("/oauth2/v2.1/token");
+        assertThat(recordedRequest.getBody().readUtf8())
+                .isEqualTo("grant_type=client_credentials"
+                           + "&client_assertion_type=urn%3Aietf%3Aparams%3Aoauth%3Aclient-assertion-type"
+                           + "%3Ajwt-bearer&client_assertion=header.claims.signature");
+        assertThat(actualResponse.getAccessToken()).isEqualTo("accessToken");
+        assertThat(actualResponse.getKeyId()).isEqualTo("keyId");
+    }
+
     @Test
     public void revokeToken() throws Exception {
         mockWebServer.enqueue(new MockResponse().setResponseCode(200));
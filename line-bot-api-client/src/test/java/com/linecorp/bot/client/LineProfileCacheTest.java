@@ -0,0 +1,174 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import com.linecorp.bot.client.exception.GeneralLineMessagingException;
+import com.linecorp.bot.client.exception.NotFoundException;
+import com.linecorp.bot.model.event.MemberJoinedEvent;
+import com.linecorp.bot.model.event.MemberJoinedEvent.JoinedMembers;
+import com.linecorp.bot.model.event.source.GroupSource;
+import com.linecorp.bot.model.event.source.UserSource;
+import com.linecorp.bot.model.profile.UserProfileResponse;
+
+public class LineProfileCacheTest {
+    private static final UserProfileResponse PROFILE =
+            new UserProfileResponse("name", "USER_ID", URI.create("https://line.me/picture_url"), "status");
+
+    @Rule
+    public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    @Mock
+    private LineMessagingClient client;
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private LineProfileCache target;
+
+    @Before
+    public void setUp() {
+        target = new LineProfileCache(client, TimeUnit.MINUTES.toNanos(10), TimeUnit.MINUTES.toNanos(1),
+                                      2, nanoTime::get);
+    }
+
+    @Test
+    public void collapseConcurrentLookups() throws Exception {
+        final CompletableFuture<UserProfileResponse> response = new CompletableFuture<>();
+        when(client.getProfile("USER_ID")).thenReturn(response);
+
+        // Do
+        final CompletableFuture<UserProfileResponse> first = target.getProfile("USER_ID");
+        final CompletableFuture<UserProfileResponse> second = target.getProfile("USER_ID");
+        response.complete(PROFILE);
+
+        // Verify
+        assertThat(first.get()).isEqualTo(PROFILE);
+        assertThat(second.get()).isEqualTo(PROFILE);
+        verify(client, times(1)).getProfile("USER_ID");
+        assertThat(target.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void expireAfterTtl() throws Exception {
+        when(client.getProfile("USER_ID")).thenReturn(CompletableFuture.completedFuture(PROFILE));
+        target.getProfile("USER_ID").get();
+
+        // Do
+        nanoTime.addAndGet(TimeUnit.MINUTES.toNanos(9));
+        target.getProfile("USER_ID").get();
+        nanoTime.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        target.getProfile("USER_ID").get();
+
+        // Verify
+        verify(client, times(2)).getProfile("USER_ID");
+    }
+
+    @Test
+    public void cacheNotFoundShorter() {
+        final CompletableFuture<UserProfileResponse> notFound = new CompletableFuture<>();
+        notFound.completeExceptionally(new NotFoundException("Not found", null));
+        when(client.getProfile("USER_ID")).thenReturn(notFound);
+        target.getProfile("USER_ID");
+
+        // Do
+        final CompletableFuture<UserProfileResponse> cached = target.getProfile("USER_ID");
+        nanoTime.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        target.getProfile("USER_ID");
+
+        // Verify
+        assertThat(cached).isCompletedExceptionally();
+        verify(client, times(2)).getProfile("USER_ID");
+    }
+
+    @Test
+    public void notCacheOtherFailures() {
+        final CompletableFuture<UserProfileResponse> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new GeneralLineMessagingException("error", null, null));
+        when(client.getProfile("USER_ID")).thenReturn(failed);
+
+        // Do
+        target.getProfile("USER_ID");
+        target.getProfile("USER_ID");
+
+        // Verify
+        verify(client, times(2)).getProfile("USER_ID");
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        when(client.getProfile("U1")).thenReturn(CompletableFuture.completedFuture(PROFILE));
+        when(client.getProfile("U2")).thenReturn(CompletableFuture.completedFuture(PROFILE));
+        when(client.getProfile("U3")).thenReturn(CompletableFuture.completedFuture(PROFILE));
+        target.getProfile("U1");
+        target.getProfile("U2");
+        target.getProfile("U1");
+
+        // Do
+        target.getProfile("U3");
+        target.getProfile("U1");
+        target.getProfile("U2");
+
+        // Verify
+        verify(client, times(1)).getProfile("U1");
+        verify(client, times(2)).getProfile("U2");
+    }
+
+    @Test
+    public void warmUpWithMemberJoinedEvent() {
+        when(client.getGroupMemberProfile("GROUP_ID", "USER_ID"))
+                .thenReturn(CompletableFuture.completedFuture(PROFILE));
+        final MemberJoinedEvent event =
+                MemberJoinedEvent.builder()
+                                 .source(GroupSource.builder().groupId("GROUP_ID").build())
+                                 .timestamp(Instant.now())
+                                 .joined(JoinedMembers.builder()
+                                                      .members(singletonList(
+                                                              UserSource.builder().userId("USER_ID").build()))
+                                                      .build())
+                                 .build();
+
+        // Do
+        target.warmUp(event);
+        final CompletableFuture<UserProfileResponse> profile =
+                target.getGroupMemberProfile("GROUP_ID", "USER_ID");
+
+        // Verify
+        assertThat(profile).isCompletedWithValue(PROFILE);
+        assertThat(target.getHitCount()).isEqualTo(1);
+    }
+}
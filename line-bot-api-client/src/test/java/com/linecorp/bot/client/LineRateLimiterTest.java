@@ -0,0 +1,150 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.linecorp.bot.client.exception.TooManyRequestsException;
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.message.TextMessage;
+import com.linecorp.bot.model.profile.UserProfileResponse;
+import com.linecorp.bot.model.response.BotApiResponse;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+public class LineRateLimiterTest {
+    private MockWebServer mockWebServer;
+    private LineRateLimiter rateLimiter;
+    private LineMessagingClient client;
+
+    @Before
+    public void setUp() {
+        mockWebServer = new MockWebServer();
+        rateLimiter = LineRateLimiter.builder()
+                                     .limit(ApiEndpointClass.PUSH, 1, Duration.ofMillis(500))
+                                     .maxDelay(Duration.ofMillis(700))
+                                     .build();
+        client = LineMessagingClient.builder("token")
+                                    .apiEndPoint(URI.create(mockWebServer.url("/").toString()))
+                                    .rateLimiter(rateLimiter)
+                                    .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        rateLimiter.close();
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    public void classifyEndpoints() {
+        assertThat(ApiEndpointClass.of("POST", "/v2/bot/message/push")).isEqualTo(ApiEndpointClass.PUSH);
+        assertThat(ApiEndpointClass.of("GET", "/v2/bot/message/push")).isEqualTo(ApiEndpointClass.OTHER);
+        assertThat(ApiEndpointClass.of("GET", "/v2/bot/profile/USER_ID")).isEqualTo(ApiEndpointClass.PROFILE);
+        assertThat(ApiEndpointClass.of("GET", "/v2/bot/group/GROUP_ID/member/USER_ID"))
+                .isEqualTo(ApiEndpointClass.PROFILE);
+        assertThat(ApiEndpointClass.of("POST", "/v2/bot/user/USER_ID/richmenu/RICH_MENU_ID"))
+                .isEqualTo(ApiEndpointClass.RICH_MENU_LINK);
+        assertThat(ApiEndpointClass.of("DELETE", "/v2/bot/user/USER_ID/richmenu"))
+                .isEqualTo(ApiEndpointClass.RICH_MENU_LINK);
+        assertThat(ApiEndpointClass.of("POST", "/base/v2/bot/message/narrowcast"))
+                .isEqualTo(ApiEndpointClass.NARROWCAST);
+    }
+
+    @Test
+    public void delayRequestExceedingLimit() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setBody("{}"));
+        mockWebServer.enqueue(new MockResponse().setBody("{}"));
+
+        // Do
+        final long start = System.nanoTime();
+        final CompletableFuture<BotApiResponse> first = client.pushMessage(push());
+        final CompletableFuture<BotApiResponse> second = client.pushMessage(push());
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+
+        // Verify
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(450));
+        assertThat(rateLimiter.getDelayedRequestCount()).isEqualTo(1);
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void otherEndpointClassIsNotDelayed() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setBody("{}"));
+        mockWebServer.enqueue(new MockResponse().setBody("{}"));
+
+        // Do
+        client.pushMessage(push()).get(10, TimeUnit.SECONDS);
+        final UserProfileResponse profile = client.getProfile("USER_ID").get(10, TimeUnit.SECONDS);
+
+        // Verify
+        assertThat(profile).isNotNull();
+        assertThat(rateLimiter.getDelayedRequestCount()).isZero();
+    }
+
+    @Test
+    public void rejectRequestWaitingLongerThanMaxDelay() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setBody("{}"));
+        mockWebServer.enqueue(new MockResponse().setBody("{}"));
+        client.pushMessage(push()).get(10, TimeUnit.SECONDS);
+        client.pushMessage(push());
+
+        // Do
+        final CompletableFuture<BotApiResponse> third = client.pushMessage(push());
+
+        // Verify
+        assertThatThrownBy(() -> third.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IOException.class);
+        assertThat(rateLimiter.getRejectedRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void slowDownAfterTooManyRequests() throws Exception {
+        mockWebServer.enqueue(new MockResponse()
+                                      .setResponseCode(429)
+                                      .setBody("{\"message\":\"The API rate limit has been exceeded.\"}"));
+        final double initialRate = rateLimiter.getCurrentRate(ApiEndpointClass.PUSH);
+
+        // Do
+        final CompletableFuture<BotApiResponse> future = client.pushMessage(push());
+
+        // Verify
+        assertThatThrownBy(() -> future.get(10, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(TooManyRequestsException.class);
+        assertThat(rateLimiter.getTooManyRequestsCount()).isEqualTo(1);
+        assertThat(rateLimiter.getCurrentRate(ApiEndpointClass.PUSH)).isEqualTo(initialRate / 2);
+    }
+
+    private static PushMessage push() {
+        return new PushMessage("USER_ID", new TextMessage("text"));
+    }
+}
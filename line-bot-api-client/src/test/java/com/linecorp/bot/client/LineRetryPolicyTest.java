@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.linecorp.bot.client.exception.LineServerException;
+import com.linecorp.bot.client.exception.RequestNotSentException;
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.message.TextMessage;
+import com.linecorp.bot.model.response.BotApiResponse;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+public class LineRetryPolicyTest {
+    private static final String ERROR_BODY = "{\"message\":\"An error occurred.\"}";
+
+    private MockWebServer mockWebServer;
+    private LineRetryPolicy retryPolicy;
+    private LineMessagingClient client;
+
+    @Before
+    public void setUp() {
+        mockWebServer = new MockWebServer();
+        retryPolicy = LineRetryPolicy.builder()
+                                     .initialBackoff(Duration.ofMillis(10))
+                                     .build();
+        client = LineMessagingClient.builder("token")
+                                    .apiEndPoint(URI.create(mockWebServer.url("/").toString()))
+                                    .retryPolicy(retryPolicy)
+                                    .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        retryPolicy.close();
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    public void retryServerErrorWithSameRetryKey() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500).setBody(ERROR_BODY));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(503).setBody(ERROR_BODY));
+        mockWebServer.enqueue(new MockResponse().setHeader("x-line-request-id", "REQUEST_ID").setBody("{}"));
+
+        // Do
+        final BotApiResponse response = client.pushMessage(push()).get(10, TimeUnit.SECONDS);
+
+        // Verify
+        assertThat(response.getRequestId()).isEqualTo("REQUEST_ID");
+        final String retryKey = mockWebServer.takeRequest().getHeader(LineRetryPolicy.RETRY_KEY_HEADER);
+        assertThat(retryKey).isNotEmpty();
+        assertThat(mockWebServer.takeRequest().getHeader(LineRetryPolicy.RETRY_KEY_HEADER)).isEqualTo(retryKey);
+        assertThat(mockWebServer.takeRequest().getHeader(LineRetryPolicy.RETRY_KEY_HEADER)).isEqualTo(retryKey);
+        assertThat(retryPolicy.getRetryCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void alreadyAcceptedIsSuccess() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500).setBody(ERROR_BODY));
+        mockWebServer.enqueue(new MockResponse()
+                                      .setResponseCode(409)
+                                      .setHeader("x-line-accepted-request-id", "ACCEPTED_ID")
+                                      .setBody("{\"message\":\"The retry key is already accepted\"}"));
+
+        // Do
+        final BotApiResponse response = client.pushMessage(push()).get(10, TimeUnit.SECONDS);
+
+        // Verify
+        assertThat(response.getRequestId()).isEqualTo("ACCEPTED_ID");
+        assertThat(retryPolicy.getAlreadyAcceptedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void failAfterMaxAttempts() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockWebServer.enqueue(new MockResponse().setResponseCode(500).setBody(ERROR_BODY));
+        }
+
+        // Do & Verify
+        assertThatThrownBy(() -> client.pushMessage(push()).get(10, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(LineServerException.class);
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(3);
+        assertThat(retryPolicy.getExhaustedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void notRetryEndpointWithoutRetryKey() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500).setBody(ERROR_BODY));
+
+        // Do & Verify
+        assertThatThrownBy(() -> client.getProfile("USER_ID").get(10, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(LineServerException.class);
+        final RecordedRequest request = mockWebServer.takeRequest();
+        assertThat(request.getHeader(LineRetryPolicy.RETRY_KEY_HEADER)).isNull();
+        assertThat(retryPolicy.getRetryCount()).isZero();
+    }
+
+    @Test
+    public void notRetryRequestNotSent() {
+        final ChannelTokenSupplier failingSupplier = () -> {
+            throw new IllegalStateException("No token");
+        };
+        client = LineMessagingClient.builder(failingSupplier)
+                                    .apiEndPoint(URI.create(mockWebServer.url("/").toString()))
+                                    .retryPolicy(retryPolicy)
+                                    .build();
+
+        // Do & Verify
+        assertThatThrownBy(() -> client.pushMessage(push()).get(10, TimeUnit.SECONDS))
+                .hasRootCauseInstanceOf(IllegalStateException.class)
+                .satisfies(e -> assertThat(e.getCause().getCause())
+                        .isInstanceOf(RequestNotSentException.class));
+        assertThat(mockWebServer.getRequestCount()).isZero();
+        assertThat(retryPolicy.getRetryCount()).isZero();
+    }
+
+    @Test
+    public void maxAttemptsOfEndpointWithoutRetryKey() {
+        assertThatThrownBy(() -> LineRetryPolicy.builder().maxAttempts(ApiEndpointClass.PROFILE, 2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static PushMessage push() {
+        return new PushMessage("USER_ID", new TextMessage("text"));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import com.linecorp.bot.client.exception.LineServerException;
+import com.linecorp.bot.model.profile.MembersIdsResponse;
+
+public class MembersIdsSpliteratorTest {
+    @Test
+    public void followNextToken() {
+        final List<String> requestedTokens = new ArrayList<>();
+        final Stream<String> stream = MembersIdsSpliterator.stream(start -> {
+            requestedTokens.add(start);
+            if (start == null) {
+                return CompletableFuture.completedFuture(new MembersIdsResponse(asList("U1", "U2"), "TOKEN"));
+            }
+            return CompletableFuture.completedFuture(new MembersIdsResponse(singletonList("U3"), null));
+        });
+
+        // Do
+        final List<String> memberIds = stream.collect(Collectors.toList());
+
+        // Verify
+        assertThat(memberIds).containsExactly("U1", "U2", "U3");
+        assertThat(requestedTokens).containsExactly(null, "TOKEN");
+    }
+
+    @Test
+    public void prefetchOnlyNextPage() {
+        final List<String> requestedTokens = new ArrayList<>();
+        final Iterator<String> iterator = MembersIdsSpliterator.stream(start -> {
+            requestedTokens.add(start);
+            final int page = start == null ? 0 : Integer.parseInt(start);
+            return CompletableFuture.completedFuture(
+                    new MembersIdsResponse(singletonList("U" + page), String.valueOf(page + 1)));
+        }).iterator();
+
+        // Do
+        iterator.next();
+
+        // Verify
+        assertThat(requestedTokens).containsExactly(null, "1");
+    }
+
+    @Test
+    public void throwFailureOfPage() {
+        final CompletableFuture<MembersIdsResponse> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new LineServerException("error", null));
+        final Stream<String> stream = MembersIdsSpliterator.stream(start -> failed);
+
+        // Do & Verify
+        assertThatThrownBy(() -> stream.collect(Collectors.toList()))
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(LineServerException.class);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Local OAuth endpoint for {@link okhttp3.mockwebserver.MockWebServer}, which issues channel access tokens
+ * v2.1 for JWT assertions verified with the public key, like the real one.
+ */
+class MockOAuthEndpoint extends Dispatcher {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final String channelId;
+    private final String keyId;
+    private final PublicKey publicKey;
+    private final int expiresInSecs;
+
+    private final AtomicInteger issuedCount = new AtomicInteger();
+    private final Set<String> issuedTokens = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param expiresInSecs lifetime of issued tokens, overriding {@code token_exp} of assertions.
+     */
+    MockOAuthEndpoint(final String channelId, final String keyId, final PublicKey publicKey,
+                      final int expiresInSecs) {
+        this.channelId = channelId;
+        this.keyId = keyId;
+        this.publicKey = publicKey;
+        this.expiresInSecs = expiresInSecs;
+    }
+
+    int getIssuedCount() {
+        return issuedCount.get();
+    }
+
+    boolean isIssued(final String accessToken) {
+        return issuedTokens.contains(accessToken);
+    }
+
+    @Override
+    public MockResponse dispatch(final RecordedRequest request) {
+        if (!"/oauth2/v2.1/token".equals(request.getPath())) {
+            return new MockResponse().setResponseCode(404);
+        }
+        final Map<String, String> form = parseForm(request.getBody().readUtf8());
+        if (!"client_credentials".equals(form.get("grant_type"))
+            || !"urn:ietf:params:oauth:client-assertion-type:jwt-bearer".equals(
+                form.get("client_assertion_type"))) {
+            return error("unsupported_grant_type");
+        }
+        final String error = verify(form.get("client_assertion"));
+        if (error != null) {
+            return error(error);
+        }
+
+        final String accessToken = "TOKEN_" + issuedCount.incrementAndGet();
+        issuedTokens.add(accessToken);
+        return new MockResponse().setBody(
+                "{\"access_token\":\"" + accessToken + "\",\"expires_in\":" + expiresInSecs
+                + ",\"token_type\":\"Bearer\",\"key_id\":\"KEY_" + accessToken + "\"}");
+    }
+
+    private String verify(final String assertion) {
+        if (assertion == null) {
+            return "invalid_request";
+        }
+        final String[] parts = assertion.split("\\.");
+        if (parts.length != 3) {
+            return "invalid_request";
+        }
+        try {
+            final Signature rs256 = Signature.getInstance("SHA256withRSA");
+            rs256.initVerify(publicKey);
+            rs256.update((parts[0] + '.' + parts[1]).getBytes(StandardCharsets.US_ASCII));
+            if (!rs256.verify(Base64.getUrlDecoder().decode(parts[2]))) {
+                return "invalid_client";
+            }
+            final JsonNode header = OBJECT_MAPPER.readTree(Base64.getUrlDecoder().decode(parts[0]));
+            final JsonNode claims = OBJECT_MAPPER.readTree(Base64.getUrlDecoder().decode(parts[1]));
+            if (!keyId.equals(header.path("kid").asText())
+                || !channelId.equals(claims.path("iss").asText())
+                || !channelId.equals(claims.path("sub").asText())
+                || claims.path("exp").asLong() < System.currentTimeMillis() / 1000
+                || !claims.path("token_exp").canConvertToLong()) {
+                return "invalid_client";
+            }
+            return null;
+        } catch (GeneralSecurityException | IOException e) {
+            return "invalid_client";
+        }
+    }
+
+    private static MockResponse error(final String error) {
+        return new MockResponse().setResponseCode(400)
+                                 .setBody("{\"error\":\"" + error + "\",\"error_description\":\"\"}");
+    }
+
+    private static Map<String, String> parseForm(final String body) {
+        final Map<String, String> form = new HashMap<>();
+        for (String pair : body.split("&")) {
+            final int separator = pair.indexOf('=');
+            if (separator < 0) {
+                continue;
+            }
+            try {
+                form.put(URLDecoder.decode(pair.substring(0, separator), "UTF-8"),
+                         URLDecoder.decode(pair.substring(separator + 1), "UTF-8"));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return form;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import com.linecorp.bot.client.exception.LineServerException;
+import com.linecorp.bot.model.Multicast;
+import com.linecorp.bot.model.message.Message;
+import com.linecorp.bot.model.message.TextMessage;
+import com.linecorp.bot.model.response.BotApiResponse;
+
+public class MulticastFanoutTest {
+    private static final List<Message> MESSAGES = singletonList(new TextMessage("text"));
+
+    @Rule
+    public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    @Mock
+    private LineMessagingClient client;
+
+    @Test
+    public void packIntoBatches() throws Exception {
+        final List<Multicast> sent = new ArrayList<>();
+        final AtomicInteger requestId = new AtomicInteger();
+        when(client.multicast(any())).thenAnswer(invocation -> {
+            synchronized (sent) {
+                sent.add(invocation.getArgument(0));
+            }
+            return CompletableFuture.completedFuture(
+                    new BotApiResponse("REQUEST_" + requestId.getAndIncrement(), "", emptyList()));
+        });
+        final List<MulticastBatchResult> results = new ArrayList<>();
+        final MulticastFanout fanout = MulticastFanout.builder(client)
+                                                      .listener(results::add)
+                                                      .build();
+
+        // Do
+        final MulticastFanoutResult result = fanout.execute(userIds(1200), MESSAGES);
+
+        // Verify
+        assertThat(result.isSucceeded()).isTrue();
+        assertThat(result.getInputCount()).isEqualTo(1200);
+        assertThat(result.getBatchCount()).isEqualTo(3);
+        assertThat(sent).extracting(multicast -> multicast.getTo().size()).containsExactly(500, 500, 200);
+        assertThat(results).extracting(MulticastBatchResult::getResumeOffset)
+                           .containsExactly(500L, 1000L, 1200L);
+        assertThat(results.get(0).getRequestId()).isEqualTo("REQUEST_0");
+    }
+
+    @Test
+    public void reportFailedBatchAndResumeOffsetInOrder() throws Exception {
+        final List<CompletableFuture<BotApiResponse>> futures = new CopyOnWriteArrayList<>();
+        when(client.multicast(any())).thenAnswer(invocation -> {
+            final CompletableFuture<BotApiResponse> future = new CompletableFuture<>();
+            futures.add(future);
+            return future;
+        });
+        final List<MulticastBatchResult> results = new ArrayList<>();
+        final MulticastFanout fanout = MulticastFanout.builder(client)
+                                                      .batchSize(10)
+                                                      .maxConcurrency(2)
+                                                      .listener(results::add)
+                                                      .build();
+
+        // Do
+        final CompletableFuture<MulticastFanoutResult> execution = CompletableFuture.supplyAsync(() -> {
+            try {
+                return fanout.execute(userIds(120), MESSAGES, 100);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (futures.size() < 2) {
+            Thread.sleep(10);
+        }
+        futures.get(1).complete(new BotApiResponse("REQUEST_1", "", emptyList()));
+        futures.get(0).completeExceptionally(new LineServerException("error", null));
+        final MulticastFanoutResult result = execution.get();
+
+        // Verify
+        assertThat(results).extracting(MulticastBatchResult::getIndex).containsExactly(1L, 0L);
+        assertThat(results).extracting(MulticastBatchResult::getResumeOffset).containsExactly(100L, 120L);
+        assertThat(result.getSucceededBatchCount()).isEqualTo(1);
+        assertThat(result.getFailedBatches()).hasSize(1);
+        final MulticastBatchResult failed = result.getFailedBatches().get(0);
+        assertThat(failed.getOffset()).isEqualTo(100);
+        assertThat(failed.getInputCount()).isEqualTo(10);
+        assertThat(failed.getUserIds()).isEmpty();
+        assertThat(failed.getException()).isInstanceOf(LineServerException.class);
+        assertThat(results.get(1).getUserIds()).hasSize(10).contains("U100");
+    }
+
+    @Test
+    public void startOffsetPastEndOfInput() throws Exception {
+        final MulticastFanout fanout = MulticastFanout.builder(client).build();
+
+        // Do
+        final MulticastFanoutResult result = fanout.execute(userIds(10), MESSAGES, 100);
+
+        // Verify
+        assertThat(result.getInputCount()).isZero();
+        assertThat(result.getBatchCount()).isZero();
+    }
+
+    private static Stream<String> userIds(final long count) {
+        return LongStream.range(0, count).mapToObj(i -> "U" + i);
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import com.linecorp.bot.client.RefreshingChannelTokenSupplier.IssuedToken;
+import com.linecorp.bot.model.oauth.ChannelAccessTokenException;
+import com.linecorp.bot.model.oauth.IssueChannelAccessTokenRequest;
+import com.linecorp.bot.model.oauth.IssueChannelAccessTokenResponse;
+
+import okhttp3.mockwebserver.MockWebServer;
+
+public class RefreshingChannelTokenSupplierTest {
+    private static final IssueChannelAccessTokenRequest REQUEST =
+            IssueChannelAccessTokenRequest.builder().clientId("CHANNEL_ID").clientSecret("SECRET").build();
+
+    @Rule
+    public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    @Mock
+    private LineOAuthClient oAuthClient;
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private RefreshingChannelTokenSupplier target;
+
+    @After
+    public void tearDown() {
+        target.close();
+    }
+
+    @Test
+    public void shareIssueRequestInFlight() {
+        final CompletableFuture<IssueChannelAccessTokenResponse> response = new CompletableFuture<>();
+        when(oAuthClient.issueChannelToken(REQUEST)).thenReturn(response);
+        target = newSupplier(TimeUnit.MINUTES.toNanos(1), nanoTime::get);
+
+        // Do
+        final CompletableFuture<IssuedToken> first = target.refresh(false);
+        final CompletableFuture<IssuedToken> second = target.refresh(false);
+        response.complete(token("TOKEN", 3600));
+
+        // Verify
+        assertThat(second).isSameAs(first);
+        assertThat(target.get()).isEqualTo("TOKEN");
+        verify(oAuthClient, times(1)).issueChannelToken(REQUEST);
+    }
+
+    @Test
+    public void issueAgainAfterExpiry() {
+        when(oAuthClient.issueChannelToken(REQUEST))
+                .thenReturn(CompletableFuture.completedFuture(token("TOKEN_1", 3600)))
+                .thenReturn(CompletableFuture.completedFuture(token("TOKEN_2", 3600)));
+        target = newSupplier(TimeUnit.MINUTES.toNanos(1), nanoTime::get);
+        assertThat(target.get()).isEqualTo("TOKEN_1");
+
+        // Do
+        nanoTime.addAndGet(TimeUnit.MINUTES.toNanos(59));
+        final String beforeExpiry = target.get();
+        nanoTime.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        final String afterExpiry = target.get();
+
+        // Verify
+        assertThat(beforeExpiry).isEqualTo("TOKEN_1");
+        assertThat(afterExpiry).isEqualTo("TOKEN_2");
+        assertThat(target.getIssuedCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void throwFailureToIssue() {
+        final CompletableFuture<IssueChannelAccessTokenResponse> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new ChannelAccessTokenException("invalid_client", "invalid secret"));
+        when(oAuthClient.issueChannelToken(REQUEST)).thenReturn(failed);
+        target = newSupplier(TimeUnit.MINUTES.toNanos(1), nanoTime::get);
+
+        // Do & Verify
+        assertThatThrownBy(() -> target.get())
+                .isInstanceOf(ChannelAccessTokenException.class)
+                .hasMessage("invalid_client");
+        assertThat(target.getFailedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void replacePendingRetryWithIssueOnDemand() throws Exception {
+        final CompletableFuture<IssueChannelAccessTokenResponse> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new ChannelAccessTokenException("server_error", "unavailable"));
+        when(oAuthClient.issueChannelToken(REQUEST))
+                .thenReturn(failed)
+                .thenReturn(CompletableFuture.completedFuture(token("TOKEN", 3600)));
+        target = newSupplier(TimeUnit.MILLISECONDS.toNanos(200), nanoTime::get);
+        assertThat(target.refresh(true)).isCompletedExceptionally();
+
+        // Do
+        final String issued = target.get();
+        Thread.sleep(500);
+
+        // Verify
+        assertThat(issued).isEqualTo("TOKEN");
+        verify(oAuthClient, times(2)).issueChannelToken(REQUEST);
+        assertThat(target.getIssuedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void renewBeforeExpiryInBackground() throws Exception {
+        when(oAuthClient.issueChannelToken(any()))
+                .thenReturn(CompletableFuture.completedFuture(token("TOKEN_1", 2)))
+                .thenReturn(CompletableFuture.completedFuture(token("TOKEN_2", 3600)));
+        target = RefreshingChannelTokenSupplier.builder(oAuthClient, "CHANNEL_ID", "SECRET")
+                                               .refreshMargin(Duration.ofSeconds(1))
+                                               .retryInterval(Duration.ofMillis(10))
+                                               .build();
+        assertThat(target.get()).isEqualTo("TOKEN_1");
+
+        // Do
+        while (target.getIssuedCount() < 2) {
+            Thread.sleep(10);
+        }
+
+        // Verify
+        assertThat(target.get()).isEqualTo("TOKEN_2");
+    }
+
+    @Test
+    public void renewJwtIssuedTokensUnderLoad() throws Exception {
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        final KeyPair keyPair = generator.generateKeyPair();
+        final MockOAuthEndpoint endpoint =
+                new MockOAuthEndpoint("CHANNEL_ID", "KEY_ID", keyPair.getPublic(), 2);
+        final MockWebServer mockWebServer = new MockWebServer();
+        mockWebServer.setDispatcher(endpoint);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final LineOAuthClient lineOAuthClient =
+                    LineOAuthClient.builder()
+                                   .apiEndPoint(URI.create(mockWebServer.url("/").toString()))
+                                   .build();
+            final JwtAssertionSigner signer =
+                    JwtAssertionSigner.builder("CHANNEL_ID", "KEY_ID", keyPair.getPrivate()).build();
+            target = RefreshingChannelTokenSupplier.builder(lineOAuthClient, signer)
+                                                   .refreshMargin(Duration.ofSeconds(1))
+                                                   .retryInterval(Duration.ofMillis(100))
+                                                   .build();
+
+            // Do
+            final List<Future<Long>> callers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                callers.add(executor.submit(() -> {
+                    long calls = 0;
+                    while (target.getIssuedCount() < 3) {
+                        assertThat(endpoint.isIssued(target.get())).isTrue();
+                        calls++;
+                    }
+                    return calls;
+                }));
+            }
+            long calls = 0;
+            for (Future<Long> caller : callers) {
+                calls += caller.get();
+            }
+
+            // Verify
+            assertThat(calls).isGreaterThan(endpoint.getIssuedCount());
+            assertThat(endpoint.getIssuedCount()).isEqualTo((int) target.getIssuedCount());
+            assertThat(target.getFailedCount()).isZero();
+        } finally {
+            executor.shutdownNow();
+            mockWebServer.shutdown();
+        }
+    }
+
+    private RefreshingChannelTokenSupplier newSupplier(final long retryIntervalNanos,
+                                                       final LongSupplier nanoTime) {
+        return new RefreshingChannelTokenSupplier(() -> oAuthClient.issueChannelToken(REQUEST),
+                                                  TimeUnit.DAYS.toNanos(1),
+                                                  retryIntervalNanos, nanoTime);
+    }
+
+    private static IssueChannelAccessTokenResponse token(final String accessToken, final int expiresInSecs) {
+        return IssueChannelAccessTokenResponse.builder()
+                                              .accessToken(accessToken)
+                                              .expiresInSecs(expiresInSecs)
+                                              .build();
+    }
+}
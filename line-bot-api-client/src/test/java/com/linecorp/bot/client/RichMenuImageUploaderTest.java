@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import com.linecorp.bot.client.exception.GeneralLineMessagingException;
+import com.linecorp.bot.client.exception.LineServerException;
+import com.linecorp.bot.model.response.BotApiResponse;
+
+public class RichMenuImageUploaderTest {
+    private static final BotApiResponse RESPONSE = new BotApiResponse("REQUEST_ID", "", emptyList());
+
+    @Rule
+    public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    @Mock
+    private LineBlobClient client;
+
+    @Test
+    public void uploadAllAndCollectFailures() throws Exception {
+        final CompletableFuture<BotApiResponse> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new LineServerException("error", null));
+        when(client.setRichMenuImage(eq("RICH_MENU_1"), anyString(), any(Path.class)))
+                .thenReturn(CompletableFuture.completedFuture(RESPONSE));
+        when(client.setRichMenuImage(eq("RICH_MENU_2"), anyString(), any(Path.class)))
+                .thenReturn(failed);
+        final Map<String, Path> images = new LinkedHashMap<>();
+        images.put("RICH_MENU_1", Paths.get("menu1.png"));
+        images.put("RICH_MENU_2", Paths.get("menu2.jpg"));
+        images.put("RICH_MENU_3", Paths.get("menu3"));
+        final RichMenuImageUploader uploader = RichMenuImageUploader.builder(client)
+                                                                    .maxConcurrency(1)
+                                                                    .build();
+
+        // Do
+        final RichMenuImageUploadResult result = uploader.upload(images);
+
+        // Verify
+        verify(client).setRichMenuImage("RICH_MENU_1", "image/png", Paths.get("menu1.png"));
+        verify(client).setRichMenuImage("RICH_MENU_2", "image/jpeg", Paths.get("menu2.jpg"));
+        verify(client, never()).setRichMenuImage(eq("RICH_MENU_3"), anyString(), any(Path.class));
+        assertThat(result.getUploadedCount()).isEqualTo(1);
+        assertThat(result.getFailures()).containsOnlyKeys("RICH_MENU_2", "RICH_MENU_3");
+        assertThat(result.getFailures().get("RICH_MENU_2")).isInstanceOf(LineServerException.class);
+        assertThat(result.getFailures().get("RICH_MENU_3")).isInstanceOf(GeneralLineMessagingException.class);
+    }
+}
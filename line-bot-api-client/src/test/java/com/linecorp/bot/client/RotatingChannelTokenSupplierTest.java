@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class RotatingChannelTokenSupplierTest {
+    private final AtomicLong nanoTime = new AtomicLong();
+    private RotatingChannelTokenSupplier target;
+
+    @Before
+    public void setUp() {
+        target = new RotatingChannelTokenSupplier(asList("TOKEN_0", "TOKEN_1", "TOKEN_2"),
+                                                  TimeUnit.MINUTES.toNanos(10), TimeUnit.MINUTES.toNanos(1),
+                                                  nanoTime::get);
+    }
+
+    @Test
+    public void rotateTokens() {
+        // Do & Verify
+        assertThat(asList(target.get(), target.get(), target.get(), target.get()))
+                .containsExactly("TOKEN_0", "TOKEN_1", "TOKEN_2", "TOKEN_0");
+        assertThat(target.getUsages()).extracting(ChannelTokenUsage::getUsageCount)
+                                      .containsExactly(2L, 1L, 1L);
+    }
+
+    @Test
+    public void suspendUnauthorizedToken() {
+        target.onResponse("TOKEN_1", 401);
+
+        // Do & Verify
+        assertThat(asList(target.get(), target.get(), target.get()))
+                .containsExactly("TOKEN_0", "TOKEN_2", "TOKEN_2");
+        assertThat(target.getUsages().get(1).isSuspended()).isTrue();
+        assertThat(target.getUsages().get(1).getUnauthorizedCount()).isEqualTo(1);
+
+        nanoTime.addAndGet(TimeUnit.MINUTES.toNanos(11));
+        assertThat(asList(target.get(), target.get(), target.get()))
+                .containsExactly("TOKEN_0", "TOKEN_1", "TOKEN_2");
+    }
+
+    @Test
+    public void useEarliestResumedTokenIfAllSuspended() {
+        target.onResponse("TOKEN_0", 401);
+        target.onResponse("TOKEN_1", 429);
+        target.onResponse("TOKEN_2", 401);
+
+        // Do & Verify
+        assertThat(target.get()).isEqualTo("TOKEN_1");
+        assertThat(target.getUsages().get(1).getTooManyRequestsCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void ignoreOtherStatusAndUnknownToken() {
+        target.onResponse("TOKEN_0", 500);
+        target.onResponse("UNKNOWN", 401);
+
+        // Do & Verify
+        assertThat(target.getUsages()).noneMatch(ChannelTokenUsage::isSuspended);
+    }
+
+    @Test
+    public void rejectEmptyPool() {
+        assertThatThrownBy(() -> RotatingChannelTokenSupplier.builder(Collections.emptyList()).build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
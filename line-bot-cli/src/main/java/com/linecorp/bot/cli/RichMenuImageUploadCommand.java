@@ -22,7 +22,6 @@ import static com.google.common.util.concurrent.Futures.getUnchecked;
 import java.io.IOException;
 import java.net.FileNameMap;
 import java.net.URLConnection;
-import java.nio.file.Files;
 import java.nio.file.Paths;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -56,9 +55,8 @@ public class RichMenuImageUploadCommand implements CliCommand {
                                                 "Can't assume Content-Type");
         log.info("Content-Type: {}", contentType);
 
-        byte[] bytes = Files.readAllBytes(Paths.get(image));
         final BotApiResponse botApiResponse =
-                getUnchecked(lineBlobClient.setRichMenuImage(richMenuId, contentType, bytes));
+                getUnchecked(lineBlobClient.setRichMenuImage(richMenuId, contentType, Paths.get(image)));
 
         log.info("Request Successfully finished. {}", botApiResponse);
     }
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures signature validations per second on a single thread, comparing a {@link Mac} created
+ * per request with the one reused by {@link LineSignatureValidator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+@Fork(1)
+public class LineSignatureValidatorBenchmark {
+    private static final byte[] CHANNEL_SECRET = "SECRET".getBytes(StandardCharsets.UTF_8);
+
+    @Param({ "256", "4096" })
+    private int payloadSize;
+
+    private final LineSignatureValidator validator = new LineSignatureValidator(CHANNEL_SECRET);
+    private byte[] payload;
+    private ByteBuffer buffer;
+    private String signature;
+
+    @Setup
+    public void setUp() {
+        payload = new byte[payloadSize];
+        Arrays.fill(payload, (byte) 'a');
+        buffer = ByteBuffer.allocateDirect(payloadSize);
+        buffer.put(payload).flip();
+        signature = Base64.getEncoder().encodeToString(validator.generateSignature(payload));
+    }
+
+    @Benchmark
+    public boolean newMacPerRequest() throws Exception {
+        final Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(CHANNEL_SECRET, "HmacSHA256"));
+        return MessageDigest.isEqual(Base64.getDecoder().decode(signature), mac.doFinal(payload));
+    }
+
+    @Benchmark
+    public boolean pooledMac() {
+        return validator.validateSignature(payload, signature);
+    }
+
+    @Benchmark
+    public boolean pooledMacByteBuffer() {
+        return validator.validateSignature(buffer, signature);
+    }
+}
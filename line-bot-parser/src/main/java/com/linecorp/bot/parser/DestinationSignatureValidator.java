@@ -0,0 +1,35 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.linecorp.bot.parser;
+
+/**
+ * {@link SignatureValidator} which validates webhook with the secret of the channel the webhook is sent
+ * to, chosen by its {@code destination}.
+ *
+ * <p>{@link WebhookParser#handle(String, java.io.InputStream)} reads the request body only once with this
+ * validator: tokens are kept until {@code destination} is read, and the rest of the body is signed as it's
+ * parsed.
+ */
+public interface DestinationSignatureValidator extends SignatureValidator {
+    /**
+     * Returns the validator of webhook sent to the destination.
+     *
+     * @param destination {@code destination} of webhook. {@code null} if absent or malformed.
+     */
+    LineSignatureValidator forDestination(String destination);
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.parser;
+
+import java.time.Instant;
+
+import com.linecorp.bot.model.event.Event;
+import com.linecorp.bot.model.event.message.MessageContent;
+import com.linecorp.bot.model.event.source.Source;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Summary of an event which is read without binding the whole event.
+ *
+ * @see LazyEventList
+ */
+@Value
+@Builder
+public class EventEnvelope {
+    /**
+     * Value of the {@code type} property. {@code null} if absent.
+     */
+    String type;
+
+    /**
+     * Concrete type the event is bound to.
+     */
+    Class<? extends Event> eventType;
+
+    /**
+     * Concrete type the message content is bound to. {@code null} if the event has no {@code message}.
+     */
+    Class<? extends MessageContent> contentType;
+
+    /**
+     * Reply token. {@code null} if the event can't be replied.
+     */
+    String replyToken;
+
+    /**
+     * Value of the {@code type} property of the source.
+     */
+    String sourceType;
+
+    /**
+     * User ID of the source.
+     */
+    String userId;
+
+    /**
+     * ID of the chat the event comes from.
+     *
+     * @see Source#getSenderId()
+     */
+    String senderId;
+
+    /**
+     * Time of the event.
+     */
+    Instant timestamp;
+
+    /**
+     * Message ID. {@code null} if the event has no {@code message}.
+     */
+    String messageId;
+}
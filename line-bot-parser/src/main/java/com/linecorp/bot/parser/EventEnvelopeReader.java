@@ -0,0 +1,302 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.parser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.introspect.AnnotatedClassResolver;
+import com.fasterxml.jackson.databind.jsontype.NamedType;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import com.linecorp.bot.model.event.CallbackRequest;
+import com.linecorp.bot.model.event.Event;
+import com.linecorp.bot.model.event.MessageEvent;
+import com.linecorp.bot.model.event.message.MessageContent;
+
+/**
+ * Reads {@link CallbackRequest} with {@link EventTypeFilter} and lazy binding of events.
+ *
+ * <p>Each event is read in one pass: its tokens are copied into a {@link TokenBuffer} while the fields of
+ * {@link EventEnvelope} are picked up.
+ *
+ * @see LazyEventList
+ */
+class EventEnvelopeReader {
+    private final ObjectMapper objectMapper;
+    private final boolean lazy;
+    private final EventTypeFilter eventTypeFilter;
+    private final TypeIdTable<Event> eventTypes;
+    private final TypeIdTable<MessageContent> contentTypes;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param lazy if {@code true}, events are returned as {@link LazyEventList}. Otherwise, events are
+     *         bound before returned.
+     * @param eventTypeFilter filter of events. {@code null} to read all events.
+     */
+    EventEnvelopeReader(final ObjectMapper objectMapper, final boolean lazy,
+                        final EventTypeFilter eventTypeFilter) {
+        this.objectMapper = objectMapper;
+        this.lazy = lazy;
+        this.eventTypeFilter = eventTypeFilter;
+        eventTypes = new TypeIdTable<>(objectMapper, Event.class);
+        contentTypes = new TypeIdTable<>(objectMapper, MessageContent.class);
+    }
+
+    /**
+     * Reads a callback request. Returns {@code null} if the content is JSON {@code null}.
+     */
+    CallbackRequest readCallbackRequest(final JsonParser parser) throws IOException {
+        final JsonToken token = parser.nextToken();
+        if (token == null) {
+            throw MismatchedInputException.from(parser, CallbackRequest.class,
+                                                "No content to map due to end-of-input");
+        }
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw MismatchedInputException.from(parser, CallbackRequest.class,
+                                                "Unexpected token " + token + ", expected START_OBJECT");
+        }
+
+        final CallbackRequest.CallbackRequestBuilder builder = CallbackRequest.builder();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName();
+            final JsonToken value = parser.nextToken();
+            if ("destination".equals(name)) {
+                builder.destination(parser.getValueAsString());
+            } else if ("events".equals(name) && value == JsonToken.START_ARRAY) {
+                builder.events(readEvents(parser));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return builder.build();
+    }
+
+    private List<Event> readEvents(final JsonParser parser) throws IOException {
+        final List<EventEnvelope> envelopes = new ArrayList<>();
+        final List<TokenBuffer> tokens = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            final TokenBuffer buffer = new TokenBuffer(parser);
+            final EventEnvelope envelope = readEvent(parser, buffer);
+            if (envelope != null) {
+                envelopes.add(envelope);
+                tokens.add(buffer);
+            }
+        }
+        final LazyEventList events = new LazyEventList(objectMapper, envelopes, tokens);
+        if (lazy) {
+            return events;
+        }
+        try {
+            return new ArrayList<>(events);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Copies the event at the current token into the buffer and returns its envelope.
+     * Returns {@code null} if the event is rejected by {@link EventTypeFilter}.
+     */
+    private EventEnvelope readEvent(final JsonParser parser, final TokenBuffer buffer) throws IOException {
+        final EventEnvelope.EventEnvelopeBuilder builder = EventEnvelope.builder();
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            buffer.copyCurrentStructure(parser);
+            return accept(builder.eventType(eventTypes.resolve(null)).build());
+        }
+
+        String type = null;
+        Class<? extends Event> eventType = null;
+        buffer.writeStartObject();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName();
+            buffer.writeFieldName(name);
+            parser.nextToken();
+            switch (name) {
+                case "type":
+                    type = parser.getValueAsString();
+                    eventType = eventTypes.resolve(type);
+                    if (isRejected(eventType)) {
+                        skipRemainingFields(parser);
+                        return null;
+                    }
+                    buffer.copyCurrentEvent(parser);
+                    break;
+                case "replyToken":
+                    builder.replyToken(parser.getValueAsString());
+                    buffer.copyCurrentEvent(parser);
+                    break;
+                case "timestamp":
+                    if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                        builder.timestamp(Instant.ofEpochMilli(parser.getLongValue()));
+                    }
+                    buffer.copyCurrentStructure(parser);
+                    break;
+                case "source":
+                    readSource(copyValue(parser, buffer), builder);
+                    break;
+                case "message":
+                    readMessage(copyValue(parser, buffer), builder);
+                    break;
+                default:
+                    buffer.copyCurrentStructure(parser);
+            }
+        }
+        buffer.writeEndObject();
+
+        return accept(builder.type(type)
+                             .eventType(eventType != null ? eventType : eventTypes.resolve(null))
+                             .build());
+    }
+
+    /**
+     * Returns whether the event type alone is enough to reject the event.
+     * Message events can't be rejected until their content type is known.
+     */
+    private boolean isRejected(final Class<? extends Event> eventType) {
+        return eventTypeFilter != null
+               && !MessageEvent.class.isAssignableFrom(eventType)
+               && !eventTypeFilter.accept(eventType, null);
+    }
+
+    private EventEnvelope accept(final EventEnvelope envelope) {
+        if (eventTypeFilter == null
+            || eventTypeFilter.accept(envelope.getEventType(), envelope.getContentType())) {
+            return envelope;
+        }
+        return null;
+    }
+
+    private static void skipRemainingFields(final JsonParser parser) throws IOException {
+        parser.skipChildren();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            parser.nextToken();
+            parser.skipChildren();
+        }
+    }
+
+    /**
+     * Copies the value at the current token and returns a parser to read the copied value.
+     */
+    private static JsonParser copyValue(final JsonParser parser, final TokenBuffer buffer) throws IOException {
+        final TokenBuffer value = new TokenBuffer(parser);
+        value.copyCurrentStructure(parser);
+        buffer.append(value);
+
+        final JsonParser valueParser = value.asParser();
+        valueParser.nextToken();
+        return valueParser;
+    }
+
+    private static void readSource(final JsonParser parser, final EventEnvelope.EventEnvelopeBuilder builder)
+            throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return;
+        }
+        String userId = null;
+        String groupId = null;
+        String roomId = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName();
+            parser.nextToken();
+            switch (name) {
+                case "type":
+                    builder.sourceType(parser.getValueAsString());
+                    break;
+                case "userId":
+                    userId = parser.getValueAsString();
+                    break;
+                case "groupId":
+                    groupId = parser.getValueAsString();
+                    break;
+                case "roomId":
+                    roomId = parser.getValueAsString();
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        builder.userId(userId)
+               .senderId(groupId != null ? groupId : roomId != null ? roomId : userId);
+    }
+
+    private void readMessage(final JsonParser parser, final EventEnvelope.EventEnvelopeBuilder builder)
+            throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return;
+        }
+        String type = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName();
+            parser.nextToken();
+            if ("type".equals(name)) {
+                type = parser.getValueAsString();
+            } else if ("id".equals(name)) {
+                builder.messageId(parser.getValueAsString());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        builder.contentType(contentTypes.resolve(type));
+    }
+
+    /**
+     * Mapping from type ID to the subtype, as resolved by Jackson.
+     */
+    private static class TypeIdTable<T> {
+        private final Map<String, Class<? extends T>> types;
+        private final Class<? extends T> defaultType;
+
+        @SuppressWarnings("unchecked")
+        TypeIdTable(final ObjectMapper objectMapper, final Class<T> baseType) {
+            final DeserializationConfig config = objectMapper.getDeserializationConfig();
+            final Map<String, Class<? extends T>> types = new HashMap<>();
+            for (NamedType namedType : objectMapper.getSubtypeResolver().collectAndResolveSubtypesByTypeId(
+                    config, AnnotatedClassResolver.resolveWithoutSuperTypes(config, baseType))) {
+                if (namedType.hasName() && baseType.isAssignableFrom(namedType.getType())) {
+                    types.put(namedType.getName(), (Class<? extends T>) namedType.getType());
+                }
+            }
+            this.types = Collections.unmodifiableMap(types);
+
+            final JsonTypeInfo typeInfo = baseType.getAnnotation(JsonTypeInfo.class);
+            defaultType = (Class<? extends T>) typeInfo.defaultImpl();
+        }
+
+        Class<? extends T> resolve(final String typeId) {
+            final Class<? extends T> type = typeId != null ? types.get(typeId) : null;
+            return type != null ? type : defaultType;
+        }
+    }
+}
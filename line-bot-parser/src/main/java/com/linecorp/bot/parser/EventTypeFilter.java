@@ -0,0 +1,38 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.parser;
+
+import com.linecorp.bot.model.event.Event;
+import com.linecorp.bot.model.event.message.MessageContent;
+
+/**
+ * Selects webhook events to be bound by their types.
+ *
+ * <p>Events which are not accepted are skipped while parsing, and never bound to {@link Event}.
+ *
+ * @see WebhookParser#WebhookParser(SignatureValidator, boolean, EventTypeFilter)
+ */
+@FunctionalInterface
+public interface EventTypeFilter {
+    /**
+     * Returns whether events of the specified types should be bound.
+     *
+     * @param eventType concrete type of the event.
+     * @param contentType concrete type of the message content. {@code null} for non message events.
+     */
+    boolean accept(Class<? extends Event> eventType, Class<? extends MessageContent> contentType);
+}
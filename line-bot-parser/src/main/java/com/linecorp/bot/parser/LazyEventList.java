@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.parser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import com.linecorp.bot.model.event.Event;
+
+/**
+ * List of events which binds each event when it's accessed for the first time.
+ *
+ * <p>Only the {@link EventEnvelope} of each event is read when the webhook is parsed. The tokens of the
+ * event are kept and bound to the {@link Event} subtype on {@link #get(int)}. Use
+ * {@link #getEnvelope(int)} to decide whether an event is needed without binding it.
+ *
+ * <p>If an event can't be bound, {@link #get(int)} throws {@link UncheckedIOException}.
+ */
+public final class LazyEventList extends AbstractList<Event> implements RandomAccess {
+    private final ObjectMapper objectMapper;
+    private final List<EventEnvelope> envelopes;
+    private final TokenBuffer[] tokens;
+    private final Event[] events;
+
+    LazyEventList(final ObjectMapper objectMapper, final List<EventEnvelope> envelopes,
+                  final List<TokenBuffer> tokens) {
+        this.objectMapper = objectMapper;
+        this.envelopes = envelopes;
+        this.tokens = tokens.toArray(new TokenBuffer[0]);
+        events = new Event[this.tokens.length];
+    }
+
+    /**
+     * Returns the envelope of the event at the specified position without binding the event.
+     */
+    public EventEnvelope getEnvelope(final int index) {
+        return envelopes.get(index);
+    }
+
+    /**
+     * Returns whether the event at the specified position has already been bound.
+     */
+    public synchronized boolean isBound(final int index) {
+        return tokens[index] == null;
+    }
+
+    @Override
+    public synchronized Event get(final int index) {
+        if (tokens[index] != null) {
+            try (JsonParser parser = tokens[index].asParser(objectMapper)) {
+                events[index] = objectMapper.readValue(parser, Event.class);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to bind event: " + envelopes.get(index), e);
+            }
+            // Release tokens once bound.
+            tokens[index] = null;
+        }
+        return events[index];
+    }
+
+    @Override
+    public int size() {
+        return events.length;
+    }
+}
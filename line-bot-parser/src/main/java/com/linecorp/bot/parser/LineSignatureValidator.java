@@ -16,6 +16,7 @@
 
 package com.linecorp.bot.parser;
 
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -28,10 +29,14 @@ import lombok.NonNull;
 
 /**
  * This class validates value of the `X-LINE-Signature` header.
+ *
+ * <p>An initialized {@link Mac} is kept per thread and reused, so the provider lookup and key setup
+ * don't happen on every request.
  */
 public class LineSignatureValidator implements SignatureValidator {
     private static final String HASH_ALGORITHM = "HmacSHA256";
     private final SecretKeySpec secretKeySpec;
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::createMac);
 
     /**
      * Create new instance with channel secret.
@@ -49,9 +54,46 @@ public class LineSignatureValidator implements SignatureValidator {
      */
     @Override
     public boolean validateSignature(@NonNull byte[] content, @NonNull String headerSignature) {
-        final byte[] signature = generateSignature(content);
+        return validateSignature(content, 0, content.length, headerSignature);
+    }
+
+    /**
+     * Validate signature of a part of the byte array.
+     *
+     * @param content Buffer which contains body of the http request.
+     * @param offset Offset of the body in the buffer.
+     * @param length Length of the body.
+     * @param headerSignature Signature value from `X-LINE-Signature` HTTP header
+     * @return True if headerSignature matches signature of the content. False otherwise.
+     */
+    public boolean validateSignature(@NonNull byte[] content, int offset, int length,
+                                     @NonNull String headerSignature) {
+        final Mac mac = mac();
+        mac.update(content, offset, length);
+        return validateSignature(mac, headerSignature);
+    }
+
+    /**
+     * Validate signature of the remaining bytes of the buffer.
+     *
+     * <p>The position of the buffer is not changed.
+     *
+     * @param content Body of the http request.
+     * @param headerSignature Signature value from `X-LINE-Signature` HTTP header
+     * @return True if headerSignature matches signature of the content. False otherwise.
+     */
+    public boolean validateSignature(@NonNull ByteBuffer content, @NonNull String headerSignature) {
+        final Mac mac = mac();
+        mac.update(content.duplicate());
+        return validateSignature(mac, headerSignature);
+    }
+
+    /**
+     * Validate signature of the content which has been fed into the {@link Mac} returned by {@link #mac()}.
+     */
+    boolean validateSignature(@NonNull Mac mac, @NonNull String headerSignature) {
         final byte[] decodeHeaderSignature = Base64.getDecoder().decode(headerSignature);
-        return MessageDigest.isEqual(decodeHeaderSignature, signature);
+        return MessageDigest.isEqual(decodeHeaderSignature, mac.doFinal());
     }
 
     /**
@@ -61,10 +103,27 @@ public class LineSignatureValidator implements SignatureValidator {
      * @return generated signature value.
      */
     public byte[] generateSignature(@NonNull byte[] content) {
+        return mac().doFinal(content);
+    }
+
+    /**
+     * Returns the {@link Mac} of the current thread, initialized with channel secret.
+     *
+     * <p>The instance is shared by all calls on the current thread. Don't keep it after computing
+     * a signature.
+     */
+    Mac mac() {
+        final Mac mac = macs.get();
+        // Discard the state left by an aborted computation.
+        mac.reset();
+        return mac;
+    }
+
+    private Mac createMac() {
         try {
             final Mac mac = Mac.getInstance(HASH_ALGORITHM);
             mac.init(secretKeySpec);
-            return mac.doFinal(content);
+            return mac;
         } catch (NoSuchAlgorithmException | InvalidKeyException e) {
             // "HmacSHA256" is always supported in Java 8 platform.
             //   (see https://docs.oracle.com/javase/8/docs/api/javax/crypto/Mac.html)
@@ -73,6 +132,4 @@ public class LineSignatureValidator implements SignatureValidator {
             throw new IllegalStateException(e);
         }
     }
-
-
 }
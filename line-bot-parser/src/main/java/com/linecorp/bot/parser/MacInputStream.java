@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.parser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.crypto.Mac;
+
+/**
+ * {@link InputStream} which feeds every byte read through it into a {@link Mac}.
+ *
+ * <p>If the {@link Mac} is not known when the stream is created, bytes are kept until it's given by
+ * {@link #setMac(Mac)}.
+ *
+ * <p>Closing this stream doesn't close the underlying stream, which is owned by the caller.
+ */
+class MacInputStream extends FilterInputStream {
+    private Mac mac;
+    private ByteArrayOutputStream pending;
+
+    MacInputStream(final InputStream in, final Mac mac) {
+        super(in);
+        this.mac = mac;
+    }
+
+    /**
+     * Creates a stream which keeps bytes read through it until {@link #setMac(Mac)} is called.
+     */
+    MacInputStream(final InputStream in) {
+        super(in);
+        pending = new ByteArrayOutputStream();
+    }
+
+    /**
+     * Feeds the bytes read so far into the {@link Mac}, and the rest as they're read.
+     */
+    void setMac(final Mac mac) {
+        this.mac = mac;
+        if (pending != null) {
+            mac.update(pending.toByteArray());
+            pending = null;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int b = in.read();
+        if (b != -1) {
+            if (mac != null) {
+                mac.update((byte) b);
+            } else {
+                pending.write(b);
+            }
+        }
+        return b;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        final int n = in.read(b, off, len);
+        if (n > 0) {
+            if (mac != null) {
+                mac.update(b, off, n);
+            } else {
+                pending.write(b, off, n);
+            }
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        // Skipped bytes must be signed as well.
+        final byte[] buffer = new byte[(int) Math.min(n, 4096)];
+        long skipped = 0;
+        while (skipped < n) {
+            final int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (read < 0) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    /**
+     * Reads the rest of the stream so that the whole content is fed into the {@link Mac}.
+     */
+    void drain() throws IOException {
+        final byte[] buffer = new byte[4096];
+        while (read(buffer, 0, buffer.length) >= 0) {
+            // Discard.
+        }
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(final int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -16,10 +16,19 @@
 
 package com.linecorp.bot.parser;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 
+import javax.crypto.Mac;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserSequence;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 
 import com.linecorp.bot.model.event.CallbackRequest;
 import com.linecorp.bot.model.objectmapper.ModelObjectMapper;
@@ -33,6 +42,7 @@ public class WebhookParser {
 
     private final ObjectMapper objectMapper = ModelObjectMapper.createNewObjectMapper();
     private final SignatureValidator signatureValidator;
+    private final EventEnvelopeReader eventEnvelopeReader;
 
     /**
      * Creates a new instance.
@@ -40,7 +50,35 @@ public class WebhookParser {
      * @param signatureValidator LINE messaging API's signature validator
      */
     public WebhookParser(@NonNull SignatureValidator signatureValidator) {
+        this(signatureValidator, false);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param signatureValidator LINE messaging API's signature validator
+     * @param lazyEventParsing If {@code true}, {@link CallbackRequest#getEvents()} returns
+     *         {@link LazyEventList} which binds each event when it's accessed.
+     */
+    public WebhookParser(@NonNull SignatureValidator signatureValidator, boolean lazyEventParsing) {
+        this(signatureValidator, lazyEventParsing, null);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param signatureValidator LINE messaging API's signature validator
+     * @param lazyEventParsing If {@code true}, {@link CallbackRequest#getEvents()} returns
+     *         {@link LazyEventList} which binds each event when it's accessed.
+     * @param eventTypeFilter Events not accepted by this filter are skipped while parsing, and don't
+     *         appear in {@link CallbackRequest#getEvents()}. {@code null} to keep all events.
+     */
+    public WebhookParser(@NonNull SignatureValidator signatureValidator, boolean lazyEventParsing,
+                         EventTypeFilter eventTypeFilter) {
         this.signatureValidator = signatureValidator;
+        eventEnvelopeReader = lazyEventParsing || eventTypeFilter != null
+                              ? new EventEnvelopeReader(objectMapper, lazyEventParsing, eventTypeFilter)
+                              : null;
     }
 
     /**
@@ -53,9 +91,7 @@ public class WebhookParser {
      */
     public CallbackRequest handle(String signature, byte[] payload) throws IOException, WebhookParseException {
         // validate signature
-        if (signature == null || signature.isEmpty()) {
-            throw new WebhookParseException("Missing 'X-Line-Signature' header");
-        }
+        checkSignatureHeader(signature);
 
         if (log.isDebugEnabled()) {
             log.debug("got: {}", new String(payload, StandardCharsets.UTF_8));
@@ -65,10 +101,144 @@ public class WebhookParser {
             throw new WebhookParseException("Invalid API signature");
         }
 
-        final CallbackRequest callbackRequest = objectMapper.readValue(payload, CallbackRequest.class);
+        final JsonParser parser = objectMapper.getFactory().createParser(payload);
+        return checkContent(readCallbackRequest(parser));
+    }
+
+    /**
+     * Parses a request from a stream.
+     *
+     * <p>The signature is computed while the payload is parsed, so the request body is read only once and
+     * is not copied into a byte array. The parsed result is returned only after the whole stream is read
+     * and the signature is verified. The stream is not closed by this method.
+     *
+     * <p>If the signature validator is a {@link DestinationSignatureValidator}, tokens are kept until the
+     * top level {@code destination} is read, and the bytes read so far are signed with the validator of
+     * the destination before parsing goes on.
+     *
+     * <p>If the signature validator is neither of them, the payload is read into memory and validated by
+     * {@link SignatureValidator#validateSignature(byte[], String)}.
+     *
+     * @param signature X-Line-Signature header.
+     * @param payload Request body.
+     * @return Parsed result.
+     * @throws WebhookParseException There's an error around signature or content.
+     */
+    public CallbackRequest handle(String signature, @NonNull InputStream payload)
+            throws IOException, WebhookParseException {
+        checkSignatureHeader(signature);
+
+        final DestinationSignatureValidator router;
+        LineSignatureValidator lineSignatureValidator;
+        if (signatureValidator instanceof LineSignatureValidator) {
+            router = null;
+            lineSignatureValidator = (LineSignatureValidator) signatureValidator;
+        } else if (signatureValidator instanceof DestinationSignatureValidator) {
+            router = (DestinationSignatureValidator) signatureValidator;
+            lineSignatureValidator = null;
+        } else {
+            return handle(signature, toByteArray(payload));
+        }
+
+        Mac mac = lineSignatureValidator != null ? lineSignatureValidator.mac() : null;
+        final MacInputStream in = mac != null ? new MacInputStream(payload, mac) : new MacInputStream(payload);
+
+        CallbackRequest callbackRequest = null;
+        JsonProcessingException parseError = null;
+        try {
+            JsonParser parser = objectMapper.getFactory().createParser(in);
+            if (lineSignatureValidator == null) {
+                final TokenBuffer tokens = new TokenBuffer(parser);
+                try {
+                    lineSignatureValidator = router.forDestination(readDestination(parser, tokens));
+                } catch (IOException e) {
+                    parser.close();
+                    throw e;
+                }
+                mac = lineSignatureValidator.mac();
+                in.setMac(mac);
+                parser = JsonParserSequence.createFlattened(false, tokens.asParser(), parser);
+            }
+            callbackRequest = readCallbackRequest(parser);
+        } catch (JsonProcessingException e) {
+            // Report the signature error rather than the parse error if the signature doesn't match.
+            parseError = e;
+        }
+        if (lineSignatureValidator == null) {
+            // Malformed content before the destination is validated with the secret for no destination.
+            lineSignatureValidator = router.forDestination(null);
+            mac = lineSignatureValidator.mac();
+            in.setMac(mac);
+        }
+        in.drain();
+
+        if (!lineSignatureValidator.validateSignature(mac, signature)) {
+            throw new WebhookParseException("Invalid API signature");
+        }
+        if (parseError != null) {
+            throw parseError;
+        }
+
+        return checkContent(callbackRequest);
+    }
+
+    /**
+     * Copies tokens into the buffer up to the value of top level {@code destination}, and returns the value.
+     * Returns {@code null} if there's no destination, in which case the whole content is copied.
+     */
+    private static String readDestination(JsonParser parser, TokenBuffer tokens) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            if (parser.currentToken() != null) {
+                tokens.copyCurrentStructure(parser);
+            }
+            return null;
+        }
+        tokens.copyCurrentEvent(parser);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName();
+            tokens.copyCurrentEvent(parser);
+            parser.nextToken();
+            if ("destination".equals(name)) {
+                tokens.copyCurrentEvent(parser);
+                return parser.getValueAsString();
+            }
+            tokens.copyCurrentStructure(parser);
+        }
+        tokens.copyCurrentEvent(parser);
+        return null;
+    }
+
+    private CallbackRequest readCallbackRequest(JsonParser parser) throws IOException {
+        try {
+            if (eventEnvelopeReader != null) {
+                return eventEnvelopeReader.readCallbackRequest(parser);
+            }
+            return objectMapper.readValue(parser, CallbackRequest.class);
+        } finally {
+            parser.close();
+        }
+    }
+
+    private static void checkSignatureHeader(String signature) throws WebhookParseException {
+        if (signature == null || signature.isEmpty()) {
+            throw new WebhookParseException("Missing 'X-Line-Signature' header");
+        }
+    }
+
+    private static CallbackRequest checkContent(CallbackRequest callbackRequest) throws WebhookParseException {
         if (callbackRequest == null || callbackRequest.getEvents() == null) {
             throw new WebhookParseException("Invalid content");
         }
         return callbackRequest;
     }
+
+    private static byte[] toByteArray(InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
 }
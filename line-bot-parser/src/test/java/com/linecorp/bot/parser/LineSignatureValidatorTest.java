@@ -18,6 +18,7 @@ package com.linecorp.bot.parser;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 
 import org.junit.Test;
@@ -55,4 +56,43 @@ public class LineSignatureValidatorTest {
                 .isEqualTo("3q8QXTAGaey18yL8FWTqdVlbMr6hcuNvM4tefa0o9nA=");
     }
 
+    @Test
+    public void validateSignatureOfSlice() throws Exception {
+        LineSignatureValidator lineSignatureValidator = new LineSignatureValidator(
+                channelSecret.getBytes(StandardCharsets.UTF_8));
+
+        byte[] buffer = "xx{}yyy".getBytes(StandardCharsets.UTF_8);
+        assertThat(lineSignatureValidator
+                           .validateSignature(buffer, 2, 2, "3q8QXTAGaey18yL8FWTqdVlbMr6hcuNvM4tefa0o9nA="))
+                .isTrue();
+        assertThat(lineSignatureValidator
+                           .validateSignature(buffer, 0, 4, "3q8QXTAGaey18yL8FWTqdVlbMr6hcuNvM4tefa0o9nA="))
+                .isFalse();
+    }
+
+    @Test
+    public void validateSignatureOfByteBuffer() throws Exception {
+        LineSignatureValidator lineSignatureValidator = new LineSignatureValidator(
+                channelSecret.getBytes(StandardCharsets.UTF_8));
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+        buffer.put("{}".getBytes(StandardCharsets.UTF_8)).flip();
+        assertThat(lineSignatureValidator
+                           .validateSignature(buffer, "3q8QXTAGaey18yL8FWTqdVlbMr6hcuNvM4tefa0o9nA="))
+                .isTrue();
+        assertThat(buffer.remaining()).isEqualTo(2);
+    }
+
+    @Test
+    public void macIsResetAfterAbortedComputation() throws Exception {
+        LineSignatureValidator lineSignatureValidator = new LineSignatureValidator(
+                channelSecret.getBytes(StandardCharsets.UTF_8));
+
+        lineSignatureValidator.mac().update("garbage".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(lineSignatureValidator
+                           .validateSignature("{}".getBytes(StandardCharsets.UTF_8),
+                                              "3q8QXTAGaey18yL8FWTqdVlbMr6hcuNvM4tefa0o9nA="))
+                .isTrue();
+    }
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.io.ByteStreams;
+
+import com.linecorp.bot.model.event.BeaconEvent;
+import com.linecorp.bot.model.event.CallbackRequest;
+import com.linecorp.bot.model.event.Event;
+import com.linecorp.bot.model.event.FollowEvent;
+import com.linecorp.bot.model.event.MessageEvent;
+import com.linecorp.bot.model.event.UnknownEvent;
+import com.linecorp.bot.model.event.message.TextMessageContent;
+import com.linecorp.bot.model.event.message.UnknownMessageContent;
+
+public class WebhookParserLazyTest {
+    private final WebhookParser parser = new WebhookParser((content, signature) -> true, true);
+
+    @Test
+    public void testEnvelope() throws Exception {
+        final CallbackRequest callbackRequest = parser.handle("SSSSIGNATURE", readResource());
+
+        assertThat(callbackRequest.getDestination()).isEqualTo("U00000000000000000000000000000000");
+        assertThat(callbackRequest.getEvents()).isInstanceOf(LazyEventList.class);
+
+        final LazyEventList events = (LazyEventList) callbackRequest.getEvents();
+        assertThat(events).hasSize(2);
+
+        final EventEnvelope message = events.getEnvelope(0);
+        assertThat(message.getType()).isEqualTo("message");
+        assertThat(message.getEventType()).isEqualTo(MessageEvent.class);
+        assertThat(message.getContentType()).isEqualTo(TextMessageContent.class);
+        assertThat(message.getReplyToken()).isEqualTo("nHuyWiB7yP5Zw52FIkcQobQuGDXCTA");
+        assertThat(message.getSourceType()).isEqualTo("user");
+        assertThat(message.getUserId()).isEqualTo("u206d25c2ea6bd87c17655609a1c37cb8");
+        assertThat(message.getSenderId()).isEqualTo("u206d25c2ea6bd87c17655609a1c37cb8");
+        assertThat(message.getTimestamp()).isEqualTo(Instant.parse("2016-05-07T13:57:59.859Z"));
+        assertThat(message.getMessageId()).isEqualTo("325708");
+
+        final EventEnvelope follow = events.getEnvelope(1);
+        assertThat(follow.getEventType()).isEqualTo(FollowEvent.class);
+        assertThat(follow.getContentType()).isNull();
+
+        assertThat(events.isBound(0)).isFalse();
+        assertThat(events.isBound(1)).isFalse();
+    }
+
+    @Test
+    public void testBindOnAccess() throws Exception {
+        final byte[] payload = readResource();
+        final LazyEventList events = (LazyEventList) parser.handle("SSSSIGNATURE", payload).getEvents();
+
+        final MessageEvent<?> event = (MessageEvent<?>) events.get(0);
+
+        assertThat(events.isBound(0)).isTrue();
+        assertThat(events.isBound(1)).isFalse();
+        assertThat(events.get(0)).isSameAs(event);
+        assertThat(events).isEqualTo(new WebhookParser((content, signature) -> true)
+                                             .handle("SSSSIGNATURE", payload).getEvents());
+    }
+
+    @Test
+    public void testGroupSourceAndUnknownTypes() throws Exception {
+        final String content = "{\"events\":["
+                               + "{\"type\":\"beacon\",\"timestamp\":1,"
+                               + "\"source\":{\"type\":\"group\",\"groupId\":\"G\",\"userId\":\"U\"},"
+                               + "\"beacon\":{\"hwid\":\"d41d8cd98f\",\"type\":\"enter\"}},"
+                               + "{\"type\":\"message\",\"message\":{\"id\":\"1\",\"type\":\"new\"}},"
+                               + "{\"type\":\"new\",\"extra\":{\"nested\":[1,2,{}]}}"
+                               + "]}";
+        final LazyEventList events = (LazyEventList) parser
+                .handle("SSSSIGNATURE", content.getBytes(StandardCharsets.UTF_8)).getEvents();
+
+        assertThat(events.getEnvelope(0).getEventType()).isEqualTo(BeaconEvent.class);
+        assertThat(events.getEnvelope(0).getSenderId()).isEqualTo("G");
+        assertThat(events.getEnvelope(0).getUserId()).isEqualTo("U");
+        assertThat(events.getEnvelope(1).getContentType()).isEqualTo(UnknownMessageContent.class);
+        assertThat(events.getEnvelope(2).getEventType()).isEqualTo(UnknownEvent.class);
+        assertThat(events.get(2)).isInstanceOf(UnknownEvent.class);
+    }
+
+    @Test
+    public void testBindFailure() throws Exception {
+        final String content = "{\"events\":[{\"type\":\"follow\",\"timestamp\":\"not a timestamp\"}]}";
+        final LazyEventList events = (LazyEventList) parser
+                .handle("SSSSIGNATURE", content.getBytes(StandardCharsets.UTF_8)).getEvents();
+
+        assertThat(events.getEnvelope(0).getTimestamp()).isNull();
+        assertThatThrownBy(() -> events.get(0)).isInstanceOf(UncheckedIOException.class);
+    }
+
+    @Test
+    public void testEventTypeFilter() throws Exception {
+        final List<Class<?>> checkedTypes = new ArrayList<>();
+        final WebhookParser parser = new WebhookParser((content, signature) -> true, true,
+                                                       (eventType, contentType) -> {
+                                                           checkedTypes.add(eventType);
+                                                           return contentType == TextMessageContent.class;
+                                                       });
+        final String content = "{\"events\":["
+                               + "{\"type\":\"beacon\",\"beacon\":{\"hwid\":\"d41d8cd98f\"}},"
+                               + "{\"beacon\":{\"hwid\":\"d41d8cd98f\"},\"type\":\"beacon\"},"
+                               + "{\"type\":\"message\",\"message\":{\"id\":\"1\",\"type\":\"image\"}},"
+                               + "{\"type\":\"message\",\"message\":{\"id\":\"2\",\"type\":\"text\"}}"
+                               + "]}";
+
+        final LazyEventList events = (LazyEventList) parser
+                .handle("SSSSIGNATURE", content.getBytes(StandardCharsets.UTF_8)).getEvents();
+
+        assertThat(events).hasSize(1);
+        assertThat(events.getEnvelope(0).getMessageId()).isEqualTo("2");
+        // Message events are checked once with their content type.
+        assertThat(checkedTypes).containsExactly(BeaconEvent.class, BeaconEvent.class,
+                                                 MessageEvent.class, MessageEvent.class);
+    }
+
+    @Test
+    public void testEventTypeFilterWithoutLazyParsing() throws Exception {
+        final EventTypeFilter followOnly = (eventType, contentType) -> eventType == FollowEvent.class;
+        final WebhookParser parser = new WebhookParser((content, signature) -> true, false, followOnly);
+
+        final List<Event> events = parser.handle("SSSSIGNATURE", readResource()).getEvents();
+
+        assertThat(events).isNotInstanceOf(LazyEventList.class);
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0)).isInstanceOf(FollowEvent.class);
+    }
+
+    @Test
+    public void testNullRequest() {
+        assertThatThrownBy(() -> parser.handle("SSSSIGNATURE", "null".getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOf(WebhookParseException.class)
+                .hasMessage("Invalid content");
+    }
+
+    private byte[] readResource() throws Exception {
+        try (InputStream resource = getClass().getClassLoader().getResourceAsStream(
+                "callback-request.json")) {
+            return ByteStreams.toByteArray(resource);
+        }
+    }
+}
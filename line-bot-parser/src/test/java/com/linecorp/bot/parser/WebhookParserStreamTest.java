@@ -0,0 +1,148 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.io.ByteStreams;
+
+import com.linecorp.bot.model.event.CallbackRequest;
+import com.linecorp.bot.model.event.MessageEvent;
+import com.linecorp.bot.model.event.message.TextMessageContent;
+
+public class WebhookParserStreamTest {
+    private final LineSignatureValidator signatureValidator =
+            new LineSignatureValidator("SECRET".getBytes(StandardCharsets.UTF_8));
+    private final WebhookParser parser = new WebhookParser(signatureValidator);
+
+    @Test
+    public void testCallRequest() throws Exception {
+        final byte[] payload;
+        try (InputStream resource = getClass().getClassLoader().getResourceAsStream(
+                "callback-request.json")) {
+            payload = ByteStreams.toByteArray(resource);
+        }
+
+        final CallbackRequest callbackRequest = parser.handle(sign(payload), new ByteArrayInputStream(payload));
+
+        final MessageEvent<?> messageEvent = (MessageEvent<?>) callbackRequest.getEvents().get(0);
+        assertThat(((TextMessageContent) messageEvent.getMessage()).getText()).isEqualTo("Hello, world");
+    }
+
+    @Test
+    public void testTrailingContentIsSigned() {
+        final byte[] signed = "{\"events\":[]}".getBytes(StandardCharsets.UTF_8);
+        final byte[] payload = "{\"events\":[]}   {}".getBytes(StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> parser.handle(sign(signed), new ByteArrayInputStream(payload)))
+                .isInstanceOf(WebhookParseException.class)
+                .hasMessage("Invalid API signature");
+    }
+
+    @Test
+    public void testInvalidSignature() {
+        assertThatThrownBy(() -> parser.handle("SSSSIGNATURE", stream("{\"events\":[]}")))
+                .isInstanceOf(WebhookParseException.class)
+                .hasMessage("Invalid API signature");
+    }
+
+    @Test
+    public void testInvalidSignatureWithMalformedContent() {
+        assertThatThrownBy(() -> parser.handle("SSSSIGNATURE", stream("{\"events\":[")))
+                .isInstanceOf(WebhookParseException.class)
+                .hasMessage("Invalid API signature");
+    }
+
+    @Test
+    public void testMalformedContent() {
+        final String content = "{\"events\":[";
+
+        assertThatThrownBy(() -> parser.handle(sign(content.getBytes(StandardCharsets.UTF_8)), stream(content)))
+                .isInstanceOf(JsonProcessingException.class);
+    }
+
+    @Test
+    public void testNullRequest() {
+        assertThatThrownBy(() -> parser.handle(sign("null".getBytes(StandardCharsets.UTF_8)), stream("null")))
+                .isInstanceOf(WebhookParseException.class)
+                .hasMessage("Invalid content");
+    }
+
+    @Test
+    public void testCustomSignatureValidator() throws Exception {
+        final WebhookParser parser =
+                new WebhookParser((content, signature) -> "SSSSIGNATURE".equals(signature));
+
+        assertThat(parser.handle("SSSSIGNATURE", stream("{\"events\":[]}")).getEvents()).isEmpty();
+    }
+
+    @Test
+    public void testDestinationSignatureValidator() throws Exception {
+        final LineSignatureValidator subValidator =
+                new LineSignatureValidator("SUB_SECRET".getBytes(StandardCharsets.UTF_8));
+        final WebhookParser parser = new WebhookParser(new DestinationSignatureValidator() {
+            @Override
+            public LineSignatureValidator forDestination(final String destination) {
+                return "Usub".equals(destination) ? subValidator : signatureValidator;
+            }
+
+            @Override
+            public boolean validateSignature(final byte[] content, final String headerSignature) {
+                throw new AssertionError("Payload shouldn't be read into memory");
+            }
+        });
+        final byte[] sub = "{\"events\":[],\"destination\":\"Usub\"}".getBytes(StandardCharsets.UTF_8);
+        final byte[] other = "{\"destination\":\"Uother\",\"events\":[]}".getBytes(StandardCharsets.UTF_8);
+
+        // Do
+        final CallbackRequest callbackRequest = parser.handle(sign(subValidator, sub),
+                                                              new ByteArrayInputStream(sub));
+
+        // Verify
+        assertThat(callbackRequest.getDestination()).isEqualTo("Usub");
+        assertThat(callbackRequest.getEvents()).isEmpty();
+        assertThat(parser.handle(sign(other), new ByteArrayInputStream(other)).getDestination())
+                .isEqualTo("Uother");
+        assertThatThrownBy(() -> parser.handle(sign(sub), new ByteArrayInputStream(sub)))
+                .isInstanceOf(WebhookParseException.class)
+                .hasMessage("Invalid API signature");
+        assertThatThrownBy(() -> parser.handle(sign(subValidator, other), new ByteArrayInputStream(other)))
+                .isInstanceOf(WebhookParseException.class)
+                .hasMessage("Invalid API signature");
+    }
+
+    private String sign(final byte[] content) {
+        return sign(signatureValidator, content);
+    }
+
+    private static String sign(final LineSignatureValidator validator, final byte[] content) {
+        return Base64.getEncoder().encodeToString(validator.generateSignature(content));
+    }
+
+    private static InputStream stream(final String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
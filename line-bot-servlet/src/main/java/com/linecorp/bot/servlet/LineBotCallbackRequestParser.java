@@ -21,8 +21,6 @@ import java.nio.charset.StandardCharsets;
 
 import javax.servlet.http.HttpServletRequest;
 
-import com.google.common.io.ByteStreams;
-
 import com.linecorp.bot.model.event.CallbackRequest;
 import com.linecorp.bot.parser.LineSignatureValidator;
 import com.linecorp.bot.parser.WebhookParseException;
@@ -61,9 +59,8 @@ public class LineBotCallbackRequestParser {
     public CallbackRequest handle(HttpServletRequest req) throws LineBotCallbackException, IOException {
         // validate signature
         final String signature = req.getHeader(WebhookParser.SIGNATURE_HEADER_NAME);
-        final byte[] json = ByteStreams.toByteArray(req.getInputStream());
         try {
-            return parser.handle(signature, json);
+            return parser.handle(signature, req.getInputStream());
         } catch (WebhookParseException e) {
             throw new LineBotCallbackException(e.getMessage(), e);
         }
@@ -23,6 +23,7 @@ import static org.mockito.Mockito.doReturn;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Base64;
 import java.util.List;
 
 import org.junit.Before;
@@ -98,11 +99,9 @@ public class LineBotCallbackRequestParserTest {
         final byte[] requestBody = "null".getBytes(StandardCharsets.UTF_8);
 
         final MockHttpServletRequest request = new MockHttpServletRequest();
-        request.addHeader("X-Line-Signature", "SSSSIGNATURE");
+        request.addHeader("X-Line-Signature", sign(requestBody));
         request.setContent(requestBody);
 
-        doReturn(true).when(lineSignatureValidator).validateSignature(requestBody, "SSSSIGNATURE");
-
         assertThatThrownBy(() -> lineBotCallbackRequestParser.handle(request))
                 .isInstanceOf(LineBotCallbackException.class)
                 .hasMessage("Invalid content");
@@ -127,11 +126,9 @@ public class LineBotCallbackRequestParserTest {
         final byte[] requestBody = ByteStreams.toByteArray(resource);
 
         MockHttpServletRequest request = new MockHttpServletRequest();
-        request.addHeader("X-Line-Signature", "SSSSIGNATURE");
+        request.addHeader("X-Line-Signature", sign(requestBody));
         request.setContent(requestBody);
 
-        doReturn(true).when(lineSignatureValidator).validateSignature(requestBody, "SSSSIGNATURE");
-
         final CallbackRequest callbackRequest = lineBotCallbackRequestParser.handle(request);
 
         assertThat(callbackRequest).isNotNull();
@@ -173,4 +170,8 @@ public class LineBotCallbackRequestParserTest {
         assertThat(followedUserId).isEqualTo("u206d25c2ea6bd87c17655609a1c37cb8");
         assertThat(messageEvent.getTimestamp()).isEqualTo(Instant.parse("2016-05-07T13:57:59.859Z"));
     }
+
+    private String sign(final byte[] content) {
+        return Base64.getEncoder().encodeToString(lineSignatureValidator.generateSignature(content));
+    }
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.spring.boot.support;
+
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.linecorp.bot.model.event.Event;
+import com.linecorp.bot.model.event.MessageEvent;
+import com.linecorp.bot.model.event.message.TextMessageContent;
+import com.linecorp.bot.model.event.source.UserSource;
+import com.linecorp.bot.spring.boot.annotation.EventMapping;
+import com.linecorp.bot.spring.boot.support.LineMessageHandlerSupport.HandlerMethod;
+
+/**
+ * Compares reflective {@link Method#invoke(Object, Object...)} with the bound
+ * {@link java.lang.invoke.MethodHandle} used by {@link HandlerMethod#invoke(Event)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandlerMethodInvocationBenchmark {
+    private final Handler handler = new Handler();
+    private Event event;
+    private Method method;
+    private HandlerMethod handlerMethod;
+
+    @Setup
+    public void setUp() throws Exception {
+        event = MessageEvent.<TextMessageContent>builder()
+                .replyToken("replyToken")
+                .source(UserSource.builder().userId("userId").build())
+                .message(TextMessageContent.builder().id("id").text("text").build())
+                .timestamp(Instant.now())
+                .build();
+        method = Handler.class.getMethod("handleTextMessage", MessageEvent.class);
+        handlerMethod = LineMessageHandlerSupport.getMethodHandlerMethodFunction(handler, method);
+    }
+
+    @Benchmark
+    public Object reflection() throws Exception {
+        return method.invoke(handler, event);
+    }
+
+    @Benchmark
+    public Object methodHandle() throws Exception {
+        return handlerMethod.invoke(event);
+    }
+
+    public static class Handler {
+        @EventMapping
+        public String handleTextMessage(MessageEvent<TextMessageContent> event) {
+            return event.getMessage().getText();
+        }
+    }
+}
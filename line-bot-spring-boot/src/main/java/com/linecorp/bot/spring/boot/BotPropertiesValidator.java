@@ -70,6 +70,38 @@ public class BotPropertiesValidator implements ConstraintValidator<ValidBotPrope
                            .addConstraintViolation();
                     return false;
                 }
+            case OAUTH:
+                if (value.getChannelToken() != null) {
+                    context.buildConstraintViolationWithTemplate(
+                            "channelToken should be null if channelTokenSupplyMode = OAUTH")
+                           .addPropertyNode("channelToken")
+                           .addConstraintViolation();
+                    return false;
+                } else if (value.getChannelId() == null) {
+                    context.buildConstraintViolationWithTemplate(
+                            "channelId is null though channelTokenSupplyMode = OAUTH")
+                           .addPropertyNode("channelId")
+                           .addConstraintViolation();
+                    return false;
+                } else {
+                    return true;
+                }
+            case ROTATION:
+                if (value.getChannelToken() != null) {
+                    context.buildConstraintViolationWithTemplate(
+                            "channelToken should be null if channelTokenSupplyMode = ROTATION")
+                           .addPropertyNode("channelToken")
+                           .addConstraintViolation();
+                    return false;
+                } else if (value.getChannelTokens().isEmpty()) {
+                    context.buildConstraintViolationWithTemplate(
+                            "channelTokens is empty though channelTokenSupplyMode = ROTATION")
+                           .addPropertyNode("channelTokens")
+                           .addConstraintViolation();
+                    return false;
+                } else {
+                    return true;
+                }
         }
         throw new IllegalStateException("Not implemented channelTokenSupplyMode.");
     }
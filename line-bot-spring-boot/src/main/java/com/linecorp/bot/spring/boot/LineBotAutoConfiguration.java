@@ -16,59 +16,166 @@
 
 package com.linecorp.bot.spring.boot;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import com.linecorp.bot.client.ChannelManagementSyncClient;
 import com.linecorp.bot.client.ChannelTokenSupplier;
+import com.linecorp.bot.client.CoalescingLineMessagingClient;
 import com.linecorp.bot.client.FixedChannelTokenSupplier;
 import com.linecorp.bot.client.LineBlobClient;
+import com.linecorp.bot.client.LineBulkhead;
+import com.linecorp.bot.client.LineBulkheadBuilder;
+import com.linecorp.bot.client.LineConcurrencyLimiter;
+import com.linecorp.bot.client.LineHttpTransport;
 import com.linecorp.bot.client.LineMessagingClient;
+import com.linecorp.bot.client.LineOAuthClient;
+import com.linecorp.bot.client.LineProfileCache;
+import com.linecorp.bot.client.LineRateLimiter;
+import com.linecorp.bot.client.LineRateLimiterBuilder;
+import com.linecorp.bot.client.LineRetryPolicy;
+import com.linecorp.bot.client.LineRetryPolicyBuilder;
 import com.linecorp.bot.client.ManageAudienceClient;
+import com.linecorp.bot.client.RefreshingChannelTokenSupplier;
+import com.linecorp.bot.client.RotatingChannelTokenSupplier;
+import com.linecorp.bot.parser.LineSignatureValidator;
+import com.linecorp.bot.spring.boot.LineBotProperties.Async;
+import com.linecorp.bot.spring.boot.LineBotProperties.Bulkhead;
+import com.linecorp.bot.spring.boot.LineBotProperties.Channel;
+import com.linecorp.bot.spring.boot.LineBotProperties.ChannelTokenSupplyMode;
+import com.linecorp.bot.spring.boot.LineBotProperties.ConcurrencyLimit;
+import com.linecorp.bot.spring.boot.LineBotProperties.Dedup;
+import com.linecorp.bot.spring.boot.LineBotProperties.ProfileCache;
+import com.linecorp.bot.spring.boot.LineBotProperties.RateLimit;
+import com.linecorp.bot.spring.boot.LineBotProperties.Retry;
+import com.linecorp.bot.spring.boot.support.AsyncEventDispatcher;
+import com.linecorp.bot.spring.boot.support.DuplicateEventFilter;
+import com.linecorp.bot.spring.boot.support.LineChannel;
+import com.linecorp.bot.spring.boot.support.LineChannelRegistry;
 import com.linecorp.bot.spring.boot.support.LineMessageHandlerSupport;
 
 /**
- * Also refers {@link LineBotWebMvcBeans} for web only beans definition.
+ * Also refers {@link LineBotWebMvcBeans} and {@link LineBotWebFluxConfigurer} for web only beans definition.
  */
 @Configuration
-@AutoConfigureAfter(LineBotWebMvcConfigurer.class)
+@AutoConfigureAfter({ LineBotWebMvcConfigurer.class, LineBotWebFluxConfigurer.class })
 @EnableConfigurationProperties(LineBotProperties.class)
 @Import(LineMessageHandlerSupport.class)
 public class LineBotAutoConfiguration {
     @Autowired
     private LineBotProperties lineBotProperties;
 
+    private ExecutorService callbackExecutor;
+
+    private final List<LineRateLimiter> channelRateLimiters = new ArrayList<>();
+
+    private final List<CoalescingLineMessagingClient> channelCoalescingClients = new ArrayList<>();
+
     /**
      * Expose {@link FixedChannelTokenSupplier} as {@link Bean}
-     * in case of no other definition for {@link ChannelTokenSupplier} type.
+     * in case of no other definition for {@link ChannelTokenSupplier} type,
+     * or {@link RefreshingChannelTokenSupplier} in case of {@code line.bot.channelTokenSupplyMode=OAUTH},
+     * or {@link RotatingChannelTokenSupplier} in case of {@code line.bot.channelTokenSupplyMode=ROTATION}.
      */
     @Bean
     @ConditionalOnMissingBean(ChannelTokenSupplier.class)
-    public ChannelTokenSupplier channelTokenSupplier() {
+    public ChannelTokenSupplier channelTokenSupplier(final LineHttpTransport lineHttpTransport) {
+        if (lineBotProperties.getChannelTokenSupplyMode() == ChannelTokenSupplyMode.OAUTH) {
+            final LineOAuthClient lineOAuthClient =
+                    LineOAuthClient.builder()
+                                   .apiEndPoint(lineBotProperties.getApiEndPoint())
+                                   .connectTimeout(lineBotProperties.getConnectTimeout())
+                                   .readTimeout(lineBotProperties.getReadTimeout())
+                                   .writeTimeout(lineBotProperties.getWriteTimeout())
+                                   .transport(lineHttpTransport)
+                                   .build();
+            // Closed by the container as the inferred destroy method.
+            return RefreshingChannelTokenSupplier
+                    .builder(lineOAuthClient, lineBotProperties.getChannelId(),
+                             lineBotProperties.getChannelSecret())
+                    .refreshMargin(lineBotProperties.getChannelTokenRefreshMargin())
+                    .build();
+        }
+        if (lineBotProperties.getChannelTokenSupplyMode() == ChannelTokenSupplyMode.ROTATION) {
+            return RotatingChannelTokenSupplier.builder(lineBotProperties.getChannelTokens()).build();
+        }
         final String channelToken = lineBotProperties.getChannelToken();
         return FixedChannelTokenSupplier.of(channelToken);
     }
 
+    /**
+     * Expose {@link LineHttpTransport} shared by all API clients as {@link Bean}.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public LineHttpTransport lineHttpTransport() {
+        return LineHttpTransport.builder()
+                                .maxRequests(lineBotProperties.getMaxRequests())
+                                .maxRequestsPerHost(lineBotProperties.getMaxRequestsPerHost())
+                                .maxIdleConnections(lineBotProperties.getMaxIdleConnections())
+                                .keepAliveDuration(lineBotProperties.getKeepAliveDuration())
+                                .build();
+    }
+
     /**
      * Expose {@link LineMessagingClient} as {@link Bean}.
+     *
+     * <p>Wrapped by {@link CoalescingLineMessagingClient} in case of {@code line.bot.pushCoalescingWindow}.
      */
     @Bean
     @ConditionalOnMissingBean
     public LineMessagingClient lineMessagingClient(
-            final ChannelTokenSupplier channelTokenSupplier) {
-        return LineMessagingClient
+            final ChannelTokenSupplier channelTokenSupplier,
+            final LineHttpTransport lineHttpTransport,
+            final ObjectProvider<LineRateLimiter> lineRateLimiter,
+            final ObjectProvider<LineBulkhead> lineBulkhead,
+            final ObjectProvider<LineConcurrencyLimiter> lineConcurrencyLimiter,
+            final ObjectProvider<LineRetryPolicy> lineRetryPolicy) {
+        final LineMessagingClient lineMessagingClient = LineMessagingClient
                 .builder(channelTokenSupplier)
                 .apiEndPoint(lineBotProperties.getApiEndPoint())
                 .blobEndPoint(lineBotProperties.getBlobEndPoint())
                 .connectTimeout(lineBotProperties.getConnectTimeout())
                 .readTimeout(lineBotProperties.getReadTimeout())
                 .writeTimeout(lineBotProperties.getWriteTimeout())
+                .transport(lineHttpTransport)
+                .rateLimiter(lineRateLimiter.getIfAvailable())
+                .bulkhead(lineBulkhead.getIfAvailable())
+                .concurrencyLimiter(lineConcurrencyLimiter.getIfAvailable())
+                .retryPolicy(lineRetryPolicy.getIfAvailable())
+                .callbackExecutor(callbackExecutor())
                 .build();
+        if (lineBotProperties.getPushCoalescingWindow() == null) {
+            return lineMessagingClient;
+        }
+        // Closed by the container as the inferred destroy method.
+        return createCoalescingClient(lineMessagingClient);
+    }
+
+    private CoalescingLineMessagingClient createCoalescingClient(
+            final LineMessagingClient lineMessagingClient) {
+        return CoalescingLineMessagingClient.builder(lineMessagingClient)
+                                            .window(lineBotProperties.getPushCoalescingWindow())
+                                            .build();
     }
 
     /**
@@ -77,24 +184,153 @@ public class LineBotAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean
     public LineBlobClient lineBlobClient(
-            final ChannelTokenSupplier channelTokenSupplier) {
+            final ChannelTokenSupplier channelTokenSupplier,
+            final LineHttpTransport lineHttpTransport,
+            final ObjectProvider<LineRateLimiter> lineRateLimiter,
+            final ObjectProvider<LineBulkhead> lineBulkhead) {
         return LineBlobClient
                 .builder(channelTokenSupplier)
                 .apiEndPoint(lineBotProperties.getBlobEndPoint())
                 .connectTimeout(lineBotProperties.getConnectTimeout())
                 .readTimeout(lineBotProperties.getReadTimeout())
                 .writeTimeout(lineBotProperties.getWriteTimeout())
+                .transport(lineHttpTransport)
+                .rateLimiter(lineRateLimiter.getIfAvailable())
+                .bulkhead(lineBulkhead.getIfAvailable())
+                .callbackExecutor(callbackExecutor())
                 .build();
     }
 
+    /**
+     * Expose {@link LineRateLimiter} of the default channel as {@link Bean}
+     * in case of {@code line.bot.rate-limit.enabled=true}.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "line.bot.rate-limit.enabled", havingValue = "true")
+    public LineRateLimiter lineRateLimiter() {
+        return createRateLimiter();
+    }
+
+    /**
+     * Expose {@link LineProfileCache} of the default channel as {@link Bean}.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public LineProfileCache lineProfileCache(final LineMessagingClient lineMessagingClient) {
+        final ProfileCache profileCache = lineBotProperties.getProfileCache();
+        return LineProfileCache.builder(lineMessagingClient)
+                               .ttl(profileCache.getTtl())
+                               .notFoundTtl(profileCache.getNotFoundTtl())
+                               .maximumSize(profileCache.getMaximumSize())
+                               .build();
+    }
+
+    /**
+     * Expose {@link LineRetryPolicy} shared by all channels as {@link Bean}
+     * in case of {@code line.bot.retry.enabled=true}.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "line.bot.retry.enabled", havingValue = "true")
+    public LineRetryPolicy lineRetryPolicy() {
+        final Retry retry = lineBotProperties.getRetry();
+        final LineRetryPolicyBuilder builder = LineRetryPolicy.builder()
+                                                              .initialBackoff(retry.getInitialBackoff())
+                                                              .maxBackoff(retry.getMaxBackoff());
+        retry.getMaxAttempts().forEach(builder::maxAttempts);
+        return builder.build();
+    }
+
+    /**
+     * Expose {@link LineBulkhead} shared by all channels as {@link Bean}
+     * in case of {@code line.bot.bulkhead.enabled=true}.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "line.bot.bulkhead.enabled", havingValue = "true")
+    public LineBulkhead lineBulkhead() {
+        final Bulkhead bulkhead = lineBotProperties.getBulkhead();
+        final LineBulkheadBuilder builder = LineBulkhead.builder();
+        bulkhead.getLimits().forEach((compartment, limit) -> {
+            // Values not configured keep the defaults of the compartment.
+            if (limit.getMaxConcurrent() != null) {
+                builder.maxConcurrent(compartment, limit.getMaxConcurrent());
+            }
+            if (limit.getMaxQueued() != null) {
+                builder.maxQueued(compartment, limit.getMaxQueued());
+            }
+        });
+        return builder.build();
+    }
+
+    /**
+     * Expose {@link LineConcurrencyLimiter} of the default channel as {@link Bean}
+     * in case of {@code line.bot.concurrency-limit.enabled=true}.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "line.bot.concurrency-limit.enabled", havingValue = "true")
+    public LineConcurrencyLimiter lineConcurrencyLimiter() {
+        return createConcurrencyLimiter();
+    }
+
+    private LineConcurrencyLimiter createConcurrencyLimiter() {
+        final ConcurrencyLimit concurrencyLimit = lineBotProperties.getConcurrencyLimit();
+        return LineConcurrencyLimiter.builder()
+                                     .initialLimit(concurrencyLimit.getInitialLimit())
+                                     .minLimit(concurrencyLimit.getMinLimit())
+                                     .maxLimit(concurrencyLimit.getMaxLimit())
+                                     .maxQueued(concurrencyLimit.getMaxQueued())
+                                     .build();
+    }
+
+    private LineRateLimiter createRateLimiter() {
+        final RateLimit rateLimit = lineBotProperties.getRateLimit();
+        final LineRateLimiterBuilder builder = LineRateLimiter.builder().maxDelay(rateLimit.getMaxDelay());
+        rateLimit.getLimits().forEach(
+                (endpointClass, limit) -> builder.limit(endpointClass, limit.getPermits(), limit.getPeriod()));
+        return builder.build();
+    }
+
+    /**
+     * Executor shared by API clients to complete their futures,
+     * in case of {@code line.bot.callbackThreads > 0}.
+     * It isn't exposed as a bean not to be taken as the application's task executor.
+     */
+    private synchronized Executor callbackExecutor() {
+        final int threads = lineBotProperties.getCallbackThreads();
+        if (threads == 0) {
+            return null;
+        }
+        if (callbackExecutor == null) {
+            callbackExecutor = Executors.newFixedThreadPool(
+                    threads, new ThreadFactoryBuilder().setNameFormat("line-bot-callback-%d")
+                                                       .setDaemon(true)
+                                                       .build());
+        }
+        return callbackExecutor;
+    }
+
+    @PreDestroy
+    synchronized void shutdown() {
+        if (callbackExecutor != null) {
+            callbackExecutor.shutdown();
+        }
+        channelRateLimiters.forEach(LineRateLimiter::close);
+        channelCoalescingClients.forEach(CoalescingLineMessagingClient::close);
+    }
+
     /**
      * Expose {@link ChannelManagementSyncClient} as {@link Bean}.
      */
     @Bean
     @ConditionalOnMissingBean
     public ChannelManagementSyncClient channelManagementClient(
-            final ChannelTokenSupplier channelTokenSupplier) {
+            final ChannelTokenSupplier channelTokenSupplier,
+            final LineHttpTransport lineHttpTransport) {
         return ChannelManagementSyncClient.builder(channelTokenSupplier)
+                                          .transport(lineHttpTransport)
                                           .build();
     }
 
@@ -104,10 +340,138 @@ public class LineBotAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean
     public ManageAudienceClient manageAudienceClient(
-            final ChannelTokenSupplier channelTokenSupplier) {
+            final ChannelTokenSupplier channelTokenSupplier,
+            final LineHttpTransport lineHttpTransport) {
         return ManageAudienceClient
                 .builder()
                 .channelTokenSupplier(channelTokenSupplier)
+                .transport(lineHttpTransport)
+                .build();
+    }
+
+    /**
+     * Expose {@link LineChannelRegistry} as {@link Bean}.
+     *
+     * <p>Clients of the channels in {@code line.bot.channels} share {@link LineHttpTransport} with
+     * the default channel.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public LineChannelRegistry lineChannelRegistry(
+            final LineMessagingClient lineMessagingClient,
+            final LineBlobClient lineBlobClient,
+            final LineHttpTransport lineHttpTransport,
+            final ObjectProvider<LineBulkhead> lineBulkhead,
+            final ObjectProvider<LineRetryPolicy> lineRetryPolicy) {
+        final LineChannel defaultChannel =
+                LineChannel.builder()
+                           .name("default")
+                           .signatureValidator(createSignatureValidator(lineBotProperties.getChannelSecret()))
+                           .lineMessagingClient(lineMessagingClient)
+                           .lineBlobClient(lineBlobClient)
+                           .build();
+
+        final List<LineChannel> channels =
+                lineBotProperties.getChannels().entrySet().stream()
+                                 .map(entry -> createChannel(entry.getKey(), entry.getValue(),
+                                                             lineHttpTransport,
+                                                             lineBulkhead.getIfAvailable(),
+                                                             lineRetryPolicy.getIfAvailable()))
+                                 .collect(Collectors.toList());
+        return new LineChannelRegistry(defaultChannel, channels);
+    }
+
+    private LineChannel createChannel(final String name, final Channel channel,
+                                      final LineHttpTransport lineHttpTransport,
+                                      final LineBulkhead bulkhead,
+                                      final LineRetryPolicy retryPolicy) {
+        final LineRateLimiter rateLimiter = channelRateLimiter();
+        return LineChannel
+                .builder()
+                .name(name)
+                .destination(channel.getDestination())
+                .signatureValidator(createSignatureValidator(channel.getChannelSecret()))
+                .lineMessagingClient(
+                        channelCoalescingClient(LineMessagingClient
+                                .builder(channel.getChannelToken())
+                                .apiEndPoint(lineBotProperties.getApiEndPoint())
+                                .blobEndPoint(lineBotProperties.getBlobEndPoint())
+                                .connectTimeout(lineBotProperties.getConnectTimeout())
+                                .readTimeout(lineBotProperties.getReadTimeout())
+                                .writeTimeout(lineBotProperties.getWriteTimeout())
+                                .transport(lineHttpTransport)
+                                .rateLimiter(rateLimiter)
+                                .bulkhead(bulkhead)
+                                .concurrencyLimiter(channelConcurrencyLimiter())
+                                .retryPolicy(retryPolicy)
+                                .callbackExecutor(callbackExecutor())
+                                .build()))
+                .lineBlobClient(
+                        LineBlobClient
+                                .builder(channel.getChannelToken())
+                                .apiEndPoint(lineBotProperties.getBlobEndPoint())
+                                .connectTimeout(lineBotProperties.getConnectTimeout())
+                                .readTimeout(lineBotProperties.getReadTimeout())
+                                .writeTimeout(lineBotProperties.getWriteTimeout())
+                                .transport(lineHttpTransport)
+                                .rateLimiter(rateLimiter)
+                                .bulkhead(bulkhead)
+                                .callbackExecutor(callbackExecutor())
+                                .build())
                 .build();
     }
+
+    private synchronized LineRateLimiter channelRateLimiter() {
+        if (!lineBotProperties.getRateLimit().isEnabled()) {
+            return null;
+        }
+        final LineRateLimiter rateLimiter = createRateLimiter();
+        channelRateLimiters.add(rateLimiter);
+        return rateLimiter;
+    }
+
+    private LineConcurrencyLimiter channelConcurrencyLimiter() {
+        if (!lineBotProperties.getConcurrencyLimit().isEnabled()) {
+            return null;
+        }
+        return createConcurrencyLimiter();
+    }
+
+    private synchronized LineMessagingClient channelCoalescingClient(
+            final LineMessagingClient lineMessagingClient) {
+        if (lineBotProperties.getPushCoalescingWindow() == null) {
+            return lineMessagingClient;
+        }
+        final CoalescingLineMessagingClient coalescingClient = createCoalescingClient(lineMessagingClient);
+        channelCoalescingClients.add(coalescingClient);
+        return coalescingClient;
+    }
+
+    private static LineSignatureValidator createSignatureValidator(final String channelSecret) {
+        return new LineSignatureValidator(channelSecret.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Expose {@link AsyncEventDispatcher} as {@link Bean}
+     * in case of {@code line.bot.handler.async.enabled=true}.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "line.bot.handler.async.enabled", havingValue = "true")
+    public AsyncEventDispatcher asyncEventDispatcher() {
+        final Async async = lineBotProperties.getHandler().getAsync();
+        return new AsyncEventDispatcher(async.getThreads(), async.getStripes(), async.getQueueCapacity());
+    }
+
+    /**
+     * Expose {@link DuplicateEventFilter} as {@link Bean}
+     * in case of {@code line.bot.handler.dedup.enabled=true}.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "line.bot.handler.dedup.enabled", havingValue = "true")
+    public DuplicateEventFilter duplicateEventFilter() {
+        final Dedup dedup = lineBotProperties.getHandler().getDedup();
+        return new DuplicateEventFilter(dedup.getCapacity(), dedup.getTtl());
+    }
 }
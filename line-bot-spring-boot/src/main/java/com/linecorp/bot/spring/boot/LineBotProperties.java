@@ -17,14 +17,31 @@
 package com.linecorp.bot.spring.boot;
 
 import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
+import com.linecorp.bot.client.ApiEndpointClass;
+import com.linecorp.bot.client.BulkheadCompartment;
+import com.linecorp.bot.client.CoalescingLineMessagingClient;
+import com.linecorp.bot.client.LineBulkhead;
 import com.linecorp.bot.client.LineClientConstants;
+import com.linecorp.bot.client.LineConcurrencyLimiter;
+import com.linecorp.bot.client.LineProfileCache;
+import com.linecorp.bot.client.LineRateLimiter;
+import com.linecorp.bot.client.LineRetryPolicy;
+import com.linecorp.bot.client.RefreshingChannelTokenSupplier;
+import com.linecorp.bot.client.RotatingChannelTokenSupplier;
 import com.linecorp.bot.spring.boot.BotPropertiesValidator.ValidBotProperties;
 import com.linecorp.bot.spring.boot.annotation.EventMapping;
 import com.linecorp.bot.spring.boot.annotation.LineMessageHandler;
@@ -48,11 +65,30 @@ public class LineBotProperties {
      */
     private @Valid String channelToken;
 
+    /**
+     * Channel access tokens used in turn if channelTokenSupplyMode = ROTATION.
+     *
+     * @see RotatingChannelTokenSupplier
+     */
+    private @NotNull List<String> channelTokens = new ArrayList<>();
+
     /**
      * Channel secret.
      */
     private @Valid @NotNull String channelSecret;
 
+    /**
+     * Channel ID, which is used to issue channel access tokens if channelTokenSupplyMode = OAUTH.
+     */
+    private String channelId;
+
+    /**
+     * How long before expiry a new channel access token is issued if channelTokenSupplyMode = OAUTH.
+     *
+     * @see RefreshingChannelTokenSupplier
+     */
+    private @NotNull Duration channelTokenRefreshMargin = Duration.ofDays(1);
+
     /** apiEndPoint. default = https://api.line.me */
     private @Valid @NotNull URI apiEndPoint = LineClientConstants.DEFAULT_API_END_POINT;
 
@@ -74,6 +110,75 @@ public class LineBotProperties {
      */
     private @Valid @NotNull long writeTimeout = LineClientConstants.DEFAULT_WRITE_TIMEOUT_MILLIS;
 
+    /**
+     * Max number of API requests executed concurrently.
+     */
+    private @Positive int maxRequests = LineClientConstants.DEFAULT_MAX_REQUESTS;
+
+    /**
+     * Max number of API requests executed concurrently for each host.
+     */
+    private @Positive int maxRequestsPerHost = LineClientConstants.DEFAULT_MAX_REQUESTS_PER_HOST;
+
+    /**
+     * Max number of idle connections to keep in the pool shared by API clients.
+     */
+    private @PositiveOrZero int maxIdleConnections = LineClientConstants.DEFAULT_MAX_IDLE_CONNECTIONS;
+
+    /**
+     * How long an idle connection is kept in the pool.
+     */
+    private @NotNull Duration keepAliveDuration = LineClientConstants.DEFAULT_KEEP_ALIVE_DURATION;
+
+    /**
+     * Number of threads which complete {@link java.util.concurrent.CompletableFuture CompletableFuture}s
+     * returned by API clients. If 0, they are completed on the threads executing requests.
+     */
+    private @PositiveOrZero int callbackThreads;
+
+    /**
+     * How long a push is held to be coalesced with pushes of the same messages into a multicast.
+     * If {@code null}, pushes are sent immediately.
+     *
+     * @see CoalescingLineMessagingClient
+     */
+    private Duration pushCoalescingWindow;
+
+    /**
+     * Additional channels served by this application. Key is the name of the channel.
+     *
+     * <p>Webhook whose {@code destination} matches {@link Channel#getDestination()} is validated with
+     * the secret of the channel, and replied with the token of the channel. Other webhook is handled by
+     * the channel configured by {@code line.bot.channelToken} and {@code line.bot.channelSecret}.
+     */
+    private @Valid @NotNull Map<String, Channel> channels = new LinkedHashMap<>();
+
+    /**
+     * Configuration for client side rate limiting of API clients. Each channel has its own limiter.
+     */
+    private @Valid @NotNull RateLimit rateLimit = new RateLimit();
+
+    /**
+     * Configuration for {@link LineProfileCache} of the default channel.
+     */
+    private @Valid @NotNull ProfileCache profileCache = new ProfileCache();
+
+    /**
+     * Configuration for retries of message sending requests. All channels share the policy.
+     */
+    private @Valid @NotNull Retry retry = new Retry();
+
+    /**
+     * Configuration for bulkheads isolating reply requests from others. All channels share the bulkhead.
+     */
+    private @Valid @NotNull Bulkhead bulkhead = new Bulkhead();
+
+    /**
+     * Configuration for adaptive concurrency limiting of messaging API clients. Each channel has its own
+     * limiter.
+     */
+    private @Valid @NotNull ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+
     /**
      * Configuration for {@link LineMessageHandler} and {@link EventMapping}.
      */
@@ -93,6 +198,277 @@ public class LineBotProperties {
          */
         @NotNull
         URI path = URI.create("/callback");
+
+        /**
+         * Flag to bind each webhook event only when it's used.
+         *
+         * <p>Events which no {@link EventMapping} method accepts are skipped without being bound.
+         *
+         * <p>Default: {@code false}
+         */
+        boolean lazyEventParsing;
+
+        /**
+         * Flag to skip events which no {@link EventMapping} method accepts while parsing webhook.
+         *
+         * <p>Skipped events are neither bound nor passed to the dispatcher, so they are not logged as
+         * unsupported. They are not visible to other {@code @LineBotMessages} endpoints either.
+         *
+         * <p>Default: {@code false}
+         */
+        boolean skipUnhandledEvents;
+
+        /**
+         * Configuration for asynchronous event dispatching.
+         */
+        @Valid
+        @NotNull
+        Async async = new Async();
+
+        /**
+         * Configuration for duplicate event suppression.
+         */
+        @Valid
+        @NotNull
+        Dedup dedup = new Dedup();
+    }
+
+    @Data
+    public static class Channel {
+        /**
+         * User ID of the bot, which is sent as {@code destination} of webhook.
+         */
+        @NotNull
+        String destination;
+
+        /**
+         * Channel access token.
+         */
+        @NotNull
+        String channelToken;
+
+        /**
+         * Channel secret.
+         */
+        @NotNull
+        String channelSecret;
+    }
+
+    @Data
+    public static class RateLimit {
+        /**
+         * Flag to delay requests exceeding the rate limits, and to slow down after 429 Too Many Requests.
+         *
+         * <p>Default: {@code false}
+         *
+         * @see LineRateLimiter
+         */
+        boolean enabled;
+
+        /**
+         * Max time a request waits for the rate limit. Requests which would wait longer fail.
+         */
+        @NotNull
+        Duration maxDelay = Duration.ofMinutes(1);
+
+        /**
+         * Rate limits overriding the defaults, e.g. {@code line.bot.rate-limit.limits.push.permits=100}.
+         */
+        @Valid
+        @NotNull
+        Map<ApiEndpointClass, Limit> limits = new LinkedHashMap<>();
+    }
+
+    @Data
+    public static class Limit {
+        /**
+         * Number of requests allowed in the period.
+         */
+        @Positive
+        int permits;
+
+        /**
+         * Period of the rate limit.
+         */
+        @NotNull
+        Duration period = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class ProfileCache {
+        /**
+         * How long a profile is cached.
+         */
+        @NotNull
+        Duration ttl = Duration.ofMinutes(10);
+
+        /**
+         * How long 404 Not Found is cached.
+         */
+        @NotNull
+        Duration notFoundTtl = Duration.ofMinutes(1);
+
+        /**
+         * Max number of cached profiles.
+         */
+        @Positive
+        int maximumSize = 10_000;
+    }
+
+    @Data
+    public static class Retry {
+        /**
+         * Flag to retry push, multicast, narrowcast and broadcast requests failed by network errors or
+         * 5xx responses, with a retry key preventing duplicated messages.
+         *
+         * <p>Default: {@code false}
+         *
+         * @see LineRetryPolicy
+         */
+        boolean enabled;
+
+        /**
+         * Upper bound of the backoff before the second attempt. The bound doubles on each attempt.
+         */
+        @NotNull
+        Duration initialBackoff = Duration.ofSeconds(1);
+
+        /**
+         * Max upper bound of the backoff between attempts.
+         */
+        @NotNull
+        Duration maxBackoff = Duration.ofSeconds(30);
+
+        /**
+         * Max number of attempts overriding the default 3, e.g. {@code line.bot.retry.max-attempts.push=5}.
+         */
+        @NotNull
+        Map<ApiEndpointClass, Integer> maxAttempts = new LinkedHashMap<>();
+    }
+
+    @Data
+    public static class Bulkhead {
+        /**
+         * Flag to execute reply, send, read and blob requests with separate concurrency limits and queues,
+         * keeping capacity reserved for replies.
+         *
+         * <p>Default: {@code false}
+         *
+         * @see LineBulkhead
+         */
+        boolean enabled;
+
+        /**
+         * Limits overriding the defaults, e.g. {@code line.bot.bulkhead.limits.send.max-concurrent=4}.
+         */
+        @Valid
+        @NotNull
+        Map<BulkheadCompartment, BulkheadLimit> limits = new LinkedHashMap<>();
+    }
+
+    @Data
+    public static class BulkheadLimit {
+        /**
+         * Number of requests executed at once, or {@code null} to keep the default of the compartment.
+         */
+        @Positive
+        Integer maxConcurrent;
+
+        /**
+         * Number of requests waiting for running ones, or {@code null} to keep the default of the
+         * compartment. Requests exceeding this fail.
+         */
+        @PositiveOrZero
+        Integer maxQueued;
+    }
+
+    @Data
+    public static class ConcurrencyLimit {
+        /**
+         * Flag to adapt the number of in-flight requests to the latency and errors of the API.
+         *
+         * <p>Default: {@code false}
+         *
+         * @see LineConcurrencyLimiter
+         */
+        boolean enabled;
+
+        /**
+         * Limit of in-flight requests at start.
+         */
+        @Positive
+        int initialLimit = LineClientConstants.DEFAULT_MAX_REQUESTS_PER_HOST;
+
+        /**
+         * Lower bound of the limit.
+         */
+        @Positive
+        int minLimit = 1;
+
+        /**
+         * Upper bound of the limit. Raise {@code line.bot.maxRequestsPerHost} together.
+         */
+        @Positive
+        int maxLimit = 20;
+
+        /**
+         * Max number of requests waiting for the limit. Requests exceeding this fail.
+         */
+        @PositiveOrZero
+        int maxQueued = 10_000;
+    }
+
+    @Data
+    public static class Async {
+        /**
+         * Flag to run event handlers on a thread pool instead of the thread which received the webhook.
+         *
+         * <p>Webhook request is acknowledged before handlers run.
+         * Events from the same user, group or room are still handled in arrival order.
+         *
+         * <p>Default: {@code false}
+         */
+        boolean enabled;
+
+        /**
+         * Number of threads which run event handlers.
+         */
+        @Positive
+        int threads = Runtime.getRuntime().availableProcessors() * 2;
+
+        /**
+         * Number of stripes. Chats which hash to the same stripe are handled in order with each other.
+         */
+        @Positive
+        int stripes = 256;
+
+        /**
+         * Max number of events waiting to be handled. Events exceeding this are dropped.
+         */
+        @Positive
+        int queueCapacity = 10_000;
+    }
+
+    @Data
+    public static class Dedup {
+        /**
+         * Flag to drop events which have already been received, e.g. redelivered webhooks.
+         *
+         * <p>Default: {@code false}
+         */
+        boolean enabled;
+
+        /**
+         * Max number of event fingerprints to remember.
+         */
+        @Positive
+        int capacity = 100_000;
+
+        /**
+         * How long an event fingerprint is remembered.
+         */
+        @NotNull
+        Duration ttl = Duration.ofMinutes(10);
     }
 
     public enum ChannelTokenSupplyMode {
@@ -108,5 +484,20 @@ public class LineBotProperties {
          *         >//developers.line.me/en/reference/messaging-api/#issue-channel-access-token</a>
          */
         SUPPLIER,
+
+        /**
+         * Issue short-lived channel access tokens with {@code channelId} and {@code channelSecret}, and
+         * renew them before they expire.
+         *
+         * @see RefreshingChannelTokenSupplier
+         */
+        OAUTH,
+
+        /**
+         * Spread requests over {@code channelTokens}, suspending a token answered with 401 or 429.
+         *
+         * @see RotatingChannelTokenSupplier
+         */
+        ROTATION,
     }
 }
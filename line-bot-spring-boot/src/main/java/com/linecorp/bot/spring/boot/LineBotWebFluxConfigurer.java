@@ -0,0 +1,45 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.spring.boot;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
+
+import com.linecorp.bot.spring.boot.support.LineBotServerReactiveArgumentProcessor;
+
+/**
+ * Receives webhook on WebFlux. Counterpart of {@link LineBotWebMvcConfigurer} for reactive web applications.
+ *
+ * <p>The request body is read without blocking, and handler methods are invoked on the event loop.
+ */
+@Configuration
+@Import({ LineBotWebhookBeans.class, LineBotServerReactiveArgumentProcessor.class })
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class LineBotWebFluxConfigurer implements WebFluxConfigurer {
+    @Autowired
+    private LineBotServerReactiveArgumentProcessor lineBotServerReactiveArgumentProcessor;
+
+    @Override
+    public void configureArgumentResolvers(ArgumentResolverConfigurer configurer) {
+        configurer.addCustomResolver(lineBotServerReactiveArgumentProcessor);
+    }
+}
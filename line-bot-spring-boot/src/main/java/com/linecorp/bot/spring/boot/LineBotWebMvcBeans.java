@@ -16,41 +16,15 @@
 
 package com.linecorp.bot.spring.boot;
 
-import java.nio.charset.StandardCharsets;
-
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
-import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.stereotype.Component;
 
-import com.linecorp.bot.parser.LineSignatureValidator;
-import com.linecorp.bot.parser.WebhookParser;
 import com.linecorp.bot.spring.boot.interceptor.LineBotServerInterceptor;
 import com.linecorp.bot.spring.boot.support.LineBotServerArgumentProcessor;
 
 @Component
 @ConditionalOnWebApplication
-@Import({ LineBotServerInterceptor.class, LineBotServerArgumentProcessor.class })
+@Import({ LineBotWebhookBeans.class, LineBotServerInterceptor.class, LineBotServerArgumentProcessor.class })
 public class LineBotWebMvcBeans {
-    @Autowired
-    private LineBotProperties lineBotProperties;
-
-    /**
-     * Expose {@link LineSignatureValidator} as {@link Bean}.
-     */
-    @Bean
-    public LineSignatureValidator lineSignatureValidator() {
-        return new LineSignatureValidator(
-                lineBotProperties.getChannelSecret().getBytes(StandardCharsets.US_ASCII));
-    }
-
-    /**
-     * Expose {@link WebhookParser} as {@link Bean}.
-     */
-    @Bean
-    public WebhookParser lineBotCallbackRequestParser(
-            LineSignatureValidator lineSignatureValidator) {
-        return new WebhookParser(lineSignatureValidator);
-    }
 }
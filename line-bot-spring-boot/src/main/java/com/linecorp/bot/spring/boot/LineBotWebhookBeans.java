@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.spring.boot;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.stereotype.Component;
+
+import com.linecorp.bot.parser.EventTypeFilter;
+import com.linecorp.bot.parser.LineSignatureValidator;
+import com.linecorp.bot.parser.SignatureValidator;
+import com.linecorp.bot.parser.WebhookParser;
+import com.linecorp.bot.spring.boot.support.LineChannelRegistry;
+
+/**
+ * Beans to receive webhook, shared by {@link LineBotWebMvcBeans} and {@link LineBotWebFluxConfigurer}.
+ */
+@Component
+@ConditionalOnWebApplication
+public class LineBotWebhookBeans {
+    @Autowired
+    private LineBotProperties lineBotProperties;
+
+    /**
+     * Expose {@link LineSignatureValidator} as {@link Bean}.
+     */
+    @Bean
+    public LineSignatureValidator lineSignatureValidator() {
+        return new LineSignatureValidator(
+                lineBotProperties.getChannelSecret().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Expose {@link WebhookParser} as {@link Bean}.
+     */
+    @Bean
+    public WebhookParser lineBotCallbackRequestParser(
+            LineSignatureValidator lineSignatureValidator,
+            ObjectProvider<LineChannelRegistry> lineChannelRegistry,
+            ObjectProvider<EventTypeFilter> eventTypeFilter) {
+        final LineBotProperties.Handler handler = lineBotProperties.getHandler();
+        final LineChannelRegistry registry = lineChannelRegistry.getIfAvailable();
+        final SignatureValidator signatureValidator = registry != null ? registry.getSignatureValidator()
+                                                                       : lineSignatureValidator;
+        return new WebhookParser(signatureValidator,
+                                 handler.isLazyEventParsing(),
+                                 handler.isSkipUnhandledEvents() ? eventTypeFilter.getIfUnique() : null);
+    }
+}
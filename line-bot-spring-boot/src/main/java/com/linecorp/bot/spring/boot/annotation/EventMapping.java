@@ -26,6 +26,10 @@ import java.lang.annotation.Target;
  *
  * <p>Note: Only {@link EventMapping @EventMapping} annotated method
  * in the class annotated by {@link LineMessageHandler @LineMessageHandler} is enabled.
+ *
+ * <p>The annotated method takes the event as the first parameter, and optionally
+ * {@link com.linecorp.bot.spring.boot.support.LineChannel LineChannel} which received the event
+ * as the second parameter.
  */
 @Target({ ElementType.METHOD, ElementType.ANNOTATION_TYPE })
 @Retention(RetentionPolicy.RUNTIME)
@@ -25,7 +25,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.MethodParameter;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StreamUtils;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.ModelAndView;
@@ -61,8 +60,8 @@ public class LineBotServerInterceptor implements HandlerInterceptor {
             }
             try {
                 final String signatureHeader = request.getHeader(WebhookParser.SIGNATURE_HEADER_NAME);
-                final byte[] payload = StreamUtils.copyToByteArray(request.getInputStream());
-                final CallbackRequest callbackRequest = webhookParser.handle(signatureHeader, payload);
+                final CallbackRequest callbackRequest =
+                        webhookParser.handle(signatureHeader, request.getInputStream());
                 LineBotServerArgumentProcessor.setValue(request, callbackRequest);
                 return true;
             } catch (WebhookParseException e) {
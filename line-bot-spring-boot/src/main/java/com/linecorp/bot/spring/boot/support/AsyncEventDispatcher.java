@@ -0,0 +1,268 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.spring.boot.support;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import com.google.common.base.Preconditions;
+
+import com.linecorp.bot.model.event.Event;
+import com.linecorp.bot.model.event.source.Source;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs event handlers on an {@link ExecutorService} instead of the thread which received the webhook.
+ *
+ * <p>Events are striped by {@link Source#getSenderId()}. Events from the same user, group or room are
+ * handled one by one in arrival order, while events from different chats are handled in parallel.
+ *
+ * <p>The number of events waiting to be handled is bounded by {@code queueCapacity}. Events which
+ * don't fit, and events dispatched after {@link #close()}, are dropped and counted by
+ * {@link #getRejectedEventCount()}.
+ */
+@Slf4j
+public class AsyncEventDispatcher implements AutoCloseable {
+    /** Max number of events handled by one stripe before yielding the thread to other stripes. */
+    private static final int MAX_BATCH_SIZE = 64;
+
+    private final ExecutorService executorService;
+    private final Stripe[] stripes;
+    private final int queueCapacity;
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final LongAdder dispatchedEventCount = new LongAdder();
+    private final LongAdder rejectedEventCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * Creates a new instance with an internal thread pool.
+     *
+     * @param threads number of threads which run event handlers.
+     * @param stripes number of stripes. Chats which hash to the same stripe share the ordering.
+     * @param queueCapacity max number of events waiting to be handled.
+     */
+    public AsyncEventDispatcher(final int threads, final int stripes, final int queueCapacity) {
+        this(Executors.newFixedThreadPool(threads, new DispatcherThreadFactory()), stripes, queueCapacity);
+    }
+
+    /**
+     * Creates a new instance which runs event handlers on the specified {@link ExecutorService}.
+     *
+     * <p>The executor service is shut down by {@link #close()}.
+     *
+     * @param executorService executor which runs event handlers.
+     * @param stripes number of stripes. Chats which hash to the same stripe share the ordering.
+     * @param queueCapacity max number of events waiting to be handled.
+     */
+    public AsyncEventDispatcher(final ExecutorService executorService, final int stripes,
+                                final int queueCapacity) {
+        Preconditions.checkArgument(stripes > 0, "stripes should be positive. But %s", stripes);
+        Preconditions.checkArgument(queueCapacity > 0, "queueCapacity should be positive. But %s",
+                                    queueCapacity);
+
+        this.executorService = executorService;
+        this.queueCapacity = queueCapacity;
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Enqueues the event to be handled by the handler.
+     *
+     * @return {@code false} if the event is dropped because the queue is full or the dispatcher is closed.
+     */
+    public boolean dispatch(final Event event, final Consumer<Event> handler) {
+        if (executorService.isShutdown()) {
+            rejectedEventCount.increment();
+            log.error("Event dispatcher is closed. Dropped event: {}", event);
+            return false;
+        }
+        if (queueDepth.incrementAndGet() > queueCapacity) {
+            queueDepth.decrementAndGet();
+            rejectedEventCount.increment();
+            log.error("Event queue is full. Dropped event: {}", event);
+            return false;
+        }
+
+        final Stripe stripe = stripes[stripeIndex(event)];
+        stripe.queue.add(new Task(event, handler, System.nanoTime()));
+        return stripe.schedule();
+    }
+
+    private int stripeIndex(final Event event) {
+        final Source source = event.getSource();
+        final String senderId = source != null ? source.getSenderId() : null;
+        if (senderId == null) {
+            return 0;
+        }
+        // Spread the hash bits as HashMap does, then take the non-negative modulo.
+        final int hash = senderId.hashCode();
+        return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % stripes.length;
+    }
+
+    /**
+     * Number of events waiting to be handled.
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * Number of events passed to handlers so far.
+     */
+    public long getDispatchedEventCount() {
+        return dispatchedEventCount.sum();
+    }
+
+    /**
+     * Number of events dropped because the queue was full or the executor rejected them.
+     */
+    public long getRejectedEventCount() {
+        return rejectedEventCount.sum();
+    }
+
+    /**
+     * Average time an event waited in the queue before its handler started.
+     */
+    public Duration getAverageWaitTime() {
+        final long count = dispatchedEventCount.sum();
+        return count == 0 ? Duration.ZERO : Duration.ofNanos(totalWaitNanos.sum() / count);
+    }
+
+    /**
+     * Longest time an event waited in the queue before its handler started.
+     */
+    public Duration getMaxWaitTime() {
+        return Duration.ofNanos(maxWaitNanos.get());
+    }
+
+    /**
+     * Stops accepting new tasks and waits a while for queued events to be handled.
+     */
+    @Override
+    public void close() {
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Event handlers didn't finish in time. {} events are discarded.", getQueueDepth());
+                executorService.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run(final Task task) {
+        queueDepth.decrementAndGet();
+
+        final long waitNanos = System.nanoTime() - task.getEnqueuedAtNanos();
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        dispatchedEventCount.increment();
+
+        try {
+            task.getHandler().accept(task.getEvent());
+        } catch (RuntimeException | Error e) {
+            log.error("Event handler threw an exception.", e);
+        }
+    }
+
+    /**
+     * Queue of events which are handled serially.
+     */
+    private class Stripe implements Runnable {
+        private final Queue<Task> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        /**
+         * Schedules handling of the queued events. Returns {@code false} if the executor rejected it, in which
+         * case the queued events are dropped.
+         */
+        boolean schedule() {
+            if (!scheduled.compareAndSet(false, true)) {
+                return true;
+            }
+            try {
+                executorService.execute(this);
+                return true;
+            } catch (RejectedExecutionException e) {
+                int dropped = 0;
+                while (queue.poll() != null) {
+                    dropped++;
+                }
+                queueDepth.addAndGet(-dropped);
+                rejectedEventCount.add(dropped);
+                scheduled.set(false);
+                log.error("Executor rejected event handling. Dropped {} events.", dropped, e);
+                return false;
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Task task;
+                for (int i = 0; i < MAX_BATCH_SIZE && (task = queue.poll()) != null; i++) {
+                    AsyncEventDispatcher.this.run(task);
+                }
+            } finally {
+                scheduled.set(false);
+                // Events enqueued while this stripe was running are picked up by another run.
+                if (!queue.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+    }
+
+    @Value
+    private static class Task {
+        Event event;
+        Consumer<Event> handler;
+        long enqueuedAtNanos;
+    }
+
+    private static class DispatcherThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable,
+                                             "line-bot-event-dispatcher-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
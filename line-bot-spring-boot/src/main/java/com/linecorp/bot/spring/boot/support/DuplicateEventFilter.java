@@ -0,0 +1,218 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.spring.boot.support;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import com.linecorp.bot.model.event.Event;
+import com.linecorp.bot.model.event.MessageEvent;
+import com.linecorp.bot.model.event.ReplyEvent;
+import com.linecorp.bot.model.event.message.MessageContent;
+import com.linecorp.bot.model.event.source.Source;
+import com.linecorp.bot.parser.EventEnvelope;
+
+/**
+ * Detects webhook events which have already been received, e.g. redelivered by LINE or retried by
+ * a load balancer.
+ *
+ * <p>An event is identified by a 64-bit fingerprint of its destination, type, reply token, message ID,
+ * source and timestamp. The destination keeps events of different channels, e.g. unfollow events of the
+ * same user at the same time, from being taken as duplicates of each other. Fingerprints are kept in striped LRU tables for {@code ttl}. The number of kept fingerprints
+ * is bounded by {@code capacity}, so memory usage doesn't grow with traffic. An event whose fingerprint
+ * has been evicted is not detected as a duplicate.
+ */
+public class DuplicateEventFilter {
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+    private static final int DEFAULT_STRIPES = 64;
+
+    private final Stripe[] stripes;
+    private final long ttlNanos;
+    private final Ticker ticker;
+
+    private final LongAdder checkedEventCount = new LongAdder();
+    private final LongAdder duplicateEventCount = new LongAdder();
+
+    /**
+     * Creates a new instance.
+     *
+     * @param capacity max number of fingerprints to keep.
+     * @param ttl how long a fingerprint is kept.
+     */
+    public DuplicateEventFilter(final int capacity, final Duration ttl) {
+        this(capacity, ttl, DEFAULT_STRIPES, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    DuplicateEventFilter(final int capacity, final Duration ttl, final int stripes, final Ticker ticker) {
+        Preconditions.checkArgument(capacity > 0, "capacity should be positive. But %s", capacity);
+        Preconditions.checkArgument(!ttl.isNegative() && !ttl.isZero(), "ttl should be positive. But %s", ttl);
+
+        final int stripeCount = Math.min(stripes, capacity);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            // Distribute the capacity so that the total never exceeds it.
+            this.stripes[i] = new Stripe(capacity / stripeCount + (i < capacity % stripeCount ? 1 : 0));
+        }
+        ttlNanos = ttl.toNanos();
+        this.ticker = ticker;
+    }
+
+    /**
+     * Returns {@code true} if the same event has been checked within TTL.
+     * Otherwise, remembers the event and returns {@code false}.
+     */
+    public boolean isDuplicate(final Event event) {
+        return isDuplicate(null, event);
+    }
+
+    /**
+     * Same as {@link #isDuplicate(Event)}, but distinguishes events sent to different destinations.
+     *
+     * @param destination user ID of the bot which received the event, or {@code null} if unknown.
+     */
+    public boolean isDuplicate(final String destination, final Event event) {
+        final Source source = event.getSource();
+        final MessageContent message = event instanceof MessageEvent
+                                       ? ((MessageEvent<?>) event).getMessage()
+                                       : null;
+        return isDuplicate(fingerprint(destination, event.getClass(),
+                                       event instanceof ReplyEvent ? ((ReplyEvent) event).getReplyToken()
+                                                                   : null,
+                                       message != null ? message.getId() : null,
+                                       source != null ? source.getSenderId() : null,
+                                       source != null ? source.getUserId() : null,
+                                       event.getTimestamp()));
+    }
+
+    /**
+     * Same as {@link #isDuplicate(Event)}, but doesn't require binding a lazily parsed event.
+     */
+    public boolean isDuplicate(final EventEnvelope envelope) {
+        return isDuplicate(null, envelope);
+    }
+
+    /**
+     * Same as {@link #isDuplicate(String, Event)}, but doesn't require binding a lazily parsed event.
+     */
+    public boolean isDuplicate(final String destination, final EventEnvelope envelope) {
+        final Class<? extends Event> eventType = envelope.getEventType();
+        return isDuplicate(fingerprint(destination, eventType,
+                                       ReplyEvent.class.isAssignableFrom(eventType)
+                                       ? envelope.getReplyToken() : null,
+                                       MessageEvent.class.isAssignableFrom(eventType)
+                                       ? envelope.getMessageId() : null,
+                                       envelope.getSenderId(),
+                                       envelope.getUserId(),
+                                       envelope.getTimestamp()));
+    }
+
+    private boolean isDuplicate(final long fingerprint) {
+        checkedEventCount.increment();
+
+        final Stripe stripe = stripes[(int) ((fingerprint & Long.MAX_VALUE) % stripes.length)];
+        final boolean duplicate = stripe.checkAndPut(fingerprint, ticker.read());
+        if (duplicate) {
+            duplicateEventCount.increment();
+        }
+        return duplicate;
+    }
+
+    /**
+     * Number of events checked so far.
+     */
+    public long getCheckedEventCount() {
+        return checkedEventCount.sum();
+    }
+
+    /**
+     * Number of events detected as duplicates so far.
+     */
+    public long getDuplicateEventCount() {
+        return duplicateEventCount.sum();
+    }
+
+    private static long fingerprint(final String destination, final Class<?> eventType,
+                                    final String replyToken, final String messageId,
+                                    final String senderId, final String userId, final Instant timestamp) {
+        final Hasher hasher = HASH_FUNCTION.newHasher();
+        putNullable(hasher, destination);
+        hasher.putString(eventType.getName(), StandardCharsets.UTF_8);
+        putNullable(hasher, replyToken);
+        putNullable(hasher, messageId);
+        putNullable(hasher, senderId);
+        putNullable(hasher, userId);
+        hasher.putLong(timestamp != null ? timestamp.toEpochMilli() : Long.MIN_VALUE);
+        return hasher.hash().asLong();
+    }
+
+    private static void putNullable(final Hasher hasher, final String value) {
+        if (value == null) {
+            hasher.putByte((byte) 0);
+        } else {
+            // Prefix length to keep fields from being confused with each other.
+            hasher.putByte((byte) 1)
+                  .putInt(value.length())
+                  .putString(value, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * LRU table from a fingerprint to the time it was last seen.
+     */
+    private class Stripe {
+        private final Map<Long, Long> seenAtNanos;
+
+        Stripe(final int capacity) {
+            seenAtNanos = new LinkedHashMap<Long, Long>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<Long, Long> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        synchronized boolean checkAndPut(final long fingerprint, final long nowNanos) {
+            expire(nowNanos);
+            return seenAtNanos.put(fingerprint, nowNanos) != null;
+        }
+
+        /**
+         * Removes expired entries. Entries are in access order, so expired ones are at the head.
+         */
+        private void expire(final long nowNanos) {
+            final Iterator<Long> it = seenAtNanos.values().iterator();
+            while (it.hasNext() && nowNanos - it.next() >= ttlNanos) {
+                it.remove();
+            }
+        }
+    }
+}
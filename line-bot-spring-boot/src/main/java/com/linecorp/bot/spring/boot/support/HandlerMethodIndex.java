@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.spring.boot.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+import com.linecorp.bot.model.event.Event;
+import com.linecorp.bot.model.event.MessageEvent;
+import com.linecorp.bot.model.event.message.MessageContent;
+import com.linecorp.bot.spring.boot.support.LineMessageHandlerSupport.HandlerMethod;
+
+import lombok.Value;
+
+/**
+ * Lookup table from a concrete event type (and message content type for {@link MessageEvent})
+ * to the {@link HandlerMethod} which should handle it.
+ *
+ * <p>Event and message content types declared in {@link JsonSubTypes} are resolved when the index is
+ * created. Other types (e.g. custom subclasses) are resolved on first use and memoized.
+ */
+final class HandlerMethodIndex {
+    private final List<HandlerMethod> handlerMethods;
+    private final ConcurrentMap<Key, Optional<HandlerMethod>> table = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new index.
+     *
+     * @param handlerMethods handler methods sorted by priority, highest first.
+     */
+    HandlerMethodIndex(final List<HandlerMethod> handlerMethods) {
+        this.handlerMethods = handlerMethods;
+
+        for (Class<?> eventType : knownSubTypes(Event.class)) {
+            if (MessageEvent.class.isAssignableFrom(eventType)) {
+                for (Class<?> contentType : knownSubTypes(MessageContent.class)) {
+                    lookup(eventType, contentType);
+                }
+            } else {
+                lookup(eventType, null);
+            }
+        }
+    }
+
+    /**
+     * Finds the handler method with the highest priority which accepts the event.
+     */
+    Optional<HandlerMethod> lookup(final Event event) {
+        final Class<?> contentType = event instanceof MessageEvent
+                                     ? contentTypeOf((MessageEvent<?>) event)
+                                     : null;
+        return lookup(event.getClass(), contentType);
+    }
+
+    /**
+     * Finds the handler method with the highest priority which accepts the event type.
+     *
+     * @param eventType concrete type of the event.
+     * @param contentType concrete type of the message content. {@code null} for non message events.
+     */
+    Optional<HandlerMethod> lookup(final Class<?> eventType, final Class<?> contentType) {
+        final Key key = new Key(eventType, contentType);
+        final Optional<HandlerMethod> found = table.get(key);
+        if (found != null) {
+            return found;
+        }
+        return table.computeIfAbsent(key, this::resolve);
+    }
+
+    private Optional<HandlerMethod> resolve(final Key key) {
+        return handlerMethods.stream()
+                             .filter(method -> method.getSupportType()
+                                                     .test(key.getEventType(), key.getContentType()))
+                             .findFirst();
+    }
+
+    private static Class<?> contentTypeOf(final MessageEvent<?> event) {
+        final MessageContent content = event.getMessage();
+        return content != null ? content.getClass() : null;
+    }
+
+    private static List<Class<?>> knownSubTypes(final Class<?> baseType) {
+        final List<Class<?>> result = new ArrayList<>();
+
+        final JsonSubTypes subTypes = baseType.getAnnotation(JsonSubTypes.class);
+        if (subTypes != null) {
+            for (JsonSubTypes.Type type : subTypes.value()) {
+                result.add(type.value());
+            }
+        }
+
+        final JsonTypeInfo typeInfo = baseType.getAnnotation(JsonTypeInfo.class);
+        if (typeInfo != null && typeInfo.defaultImpl() != JsonTypeInfo.class) {
+            result.add(typeInfo.defaultImpl());
+        }
+        return result;
+    }
+
+    @Value
+    private static class Key {
+        Class<?> eventType;
+        Class<?> contentType;
+    }
+}
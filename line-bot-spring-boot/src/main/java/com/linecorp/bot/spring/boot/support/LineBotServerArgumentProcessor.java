@@ -27,25 +27,32 @@ import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.method.support.ModelAndViewContainer;
 
 import com.linecorp.bot.model.event.CallbackRequest;
+import com.linecorp.bot.spring.boot.annotation.LineBotDestination;
 import com.linecorp.bot.spring.boot.annotation.LineBotMessages;
 
 @Component
 public class LineBotServerArgumentProcessor implements HandlerMethodArgumentResolver {
     private static final String PROPERTY_NAME = "com.linecorp.bot.spring.callbackRequest";
+    private static final String DESTINATION_PROPERTY_NAME = "com.linecorp.bot.spring.destination";
 
     @Override
     public boolean supportsParameter(MethodParameter parameter) {
-        return parameter.hasParameterAnnotation(LineBotMessages.class);
+        return parameter.hasParameterAnnotation(LineBotMessages.class)
+               || parameter.hasParameterAnnotation(LineBotDestination.class);
     }
 
     @Override
     public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
                                   NativeWebRequest webRequest, WebDataBinderFactory binderFactory)
             throws Exception {
+        if (parameter.hasParameterAnnotation(LineBotDestination.class)) {
+            return webRequest.getAttribute(DESTINATION_PROPERTY_NAME, RequestAttributes.SCOPE_REQUEST);
+        }
         return webRequest.getAttribute(PROPERTY_NAME, RequestAttributes.SCOPE_REQUEST);
     }
 
     public static void setValue(HttpServletRequest request, CallbackRequest callbackRequest) {
         request.setAttribute(PROPERTY_NAME, callbackRequest.getEvents());
+        request.setAttribute(DESTINATION_PROPERTY_NAME, callbackRequest.getDestination());
     }
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.spring.boot.support;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.BindingContext;
+import org.springframework.web.reactive.result.method.HandlerMethodArgumentResolver;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.linecorp.bot.model.event.CallbackRequest;
+import com.linecorp.bot.parser.WebhookParseException;
+import com.linecorp.bot.parser.WebhookParser;
+import com.linecorp.bot.spring.boot.annotation.LineBotDestination;
+import com.linecorp.bot.spring.boot.annotation.LineBotMessages;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Resolves {@link LineBotMessages} and {@link LineBotDestination} parameters on WebFlux.
+ *
+ * <p>The request body is collected without blocking, then its signature is validated and it is parsed
+ * by {@link WebhookParser} once per request.
+ */
+@Slf4j
+@Component
+public class LineBotServerReactiveArgumentProcessor implements HandlerMethodArgumentResolver {
+    private static final String ATTRIBUTE_NAME = "com.linecorp.bot.spring.callbackRequest";
+
+    /** Max size of webhook body. Same as the default in-memory limit of WebFlux codecs. */
+    static final int MAX_BODY_SIZE = 256 * 1024;
+
+    private final WebhookParser webhookParser;
+
+    @Autowired
+    public LineBotServerReactiveArgumentProcessor(final WebhookParser webhookParser) {
+        this.webhookParser = webhookParser;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(LineBotMessages.class)
+               || parameter.hasParameterAnnotation(LineBotDestination.class);
+    }
+
+    @Override
+    public Mono<Object> resolveArgument(MethodParameter parameter, BindingContext bindingContext,
+                                        ServerWebExchange exchange) {
+        final Mono<CallbackRequest> callbackRequest = cached(
+                exchange.getAttributes()
+                        .computeIfAbsent(ATTRIBUTE_NAME, key -> readCallbackRequest(exchange).cache()));
+
+        if (parameter.hasParameterAnnotation(LineBotDestination.class)) {
+            return callbackRequest.flatMap(request -> Mono.justOrEmpty(request.getDestination()));
+        }
+        return callbackRequest.map(CallbackRequest::getEvents);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Mono<CallbackRequest> cached(final Object value) {
+        return (Mono<CallbackRequest>) value;
+    }
+
+    private Mono<CallbackRequest> readCallbackRequest(final ServerWebExchange exchange) {
+        final String signature = exchange.getRequest().getHeaders()
+                                         .getFirst(WebhookParser.SIGNATURE_HEADER_NAME);
+        return DataBufferUtils
+                .join(exchange.getRequest().getBody(), MAX_BODY_SIZE)
+                .flatMap(body -> Mono.fromCallable(() -> parse(signature, body)))
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .switchIfEmpty(Mono.fromCallable(() -> webhookParser.handle(signature, new byte[0])))
+                .onErrorMap(WebhookParseException.class, e -> {
+                    log.info("LINE Bot callback exception: {}", e.getMessage());
+                    return new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+                })
+                .onErrorMap(DataBufferLimitException.class,
+                            e -> new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, e.getMessage(), e));
+    }
+
+    private CallbackRequest parse(final String signature, final DataBuffer body)
+            throws IOException, WebhookParseException {
+        // Closing the stream releases the buffer.
+        try (InputStream in = body.asInputStream(true)) {
+            return webhookParser.handle(signature, in);
+        }
+    }
+}
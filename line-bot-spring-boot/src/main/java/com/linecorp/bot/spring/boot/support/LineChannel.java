@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.spring.boot.support;
+
+import com.linecorp.bot.client.LineBlobClient;
+import com.linecorp.bot.client.LineMessagingClient;
+import com.linecorp.bot.parser.LineSignatureValidator;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.Value;
+
+/**
+ * A LINE channel served by this application, with its own secret and clients.
+ *
+ * <p>An {@link com.linecorp.bot.spring.boot.annotation.EventMapping @EventMapping} method can receive
+ * the channel which the event came from as the second parameter.
+ *
+ * @see LineChannelRegistry
+ */
+@Value
+@Builder
+@ToString(of = { "name", "destination" })
+public class LineChannel {
+    /**
+     * Name of the channel.
+     */
+    @NonNull
+    String name;
+
+    /**
+     * User ID of the bot, which is sent as {@code destination} of webhook.
+     * {@code null} for the default channel.
+     */
+    String destination;
+
+    @NonNull
+    LineSignatureValidator signatureValidator;
+
+    @NonNull
+    LineMessagingClient lineMessagingClient;
+
+    @NonNull
+    LineBlobClient lineBlobClient;
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.spring.boot.support;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+
+import com.linecorp.bot.parser.DestinationSignatureValidator;
+import com.linecorp.bot.parser.LineSignatureValidator;
+import com.linecorp.bot.parser.SignatureValidator;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * Channels served by this application.
+ *
+ * <p>Webhook is routed to a channel by its {@code destination}. Webhook whose destination doesn't match
+ * any channel is routed to the default channel.
+ */
+public class LineChannelRegistry {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final LineChannel defaultChannel;
+    private final List<LineChannel> channels;
+    private final Map<String, LineChannel> channelsByDestination;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param defaultChannel channel which receives webhook not matching any other channel.
+     * @param channels additional channels, which must have distinct destinations.
+     */
+    public LineChannelRegistry(final LineChannel defaultChannel, final Collection<LineChannel> channels) {
+        this.defaultChannel = defaultChannel;
+        this.channels = Collections.unmodifiableList(new ArrayList<>(channels));
+
+        final Map<String, LineChannel> byDestination = new HashMap<>();
+        for (LineChannel channel : channels) {
+            Preconditions.checkArgument(channel.getDestination() != null,
+                                        "destination of channel '%s' is null", channel.getName());
+            final LineChannel duplicate = byDestination.put(channel.getDestination(), channel);
+            Preconditions.checkArgument(duplicate == null, "Channels '%s' and '%s' have the same destination",
+                                        duplicate != null ? duplicate.getName() : null, channel.getName());
+        }
+        channelsByDestination = Collections.unmodifiableMap(byDestination);
+    }
+
+    public LineChannel getDefaultChannel() {
+        return defaultChannel;
+    }
+
+    /**
+     * Channels other than the default channel.
+     */
+    public List<LineChannel> getChannels() {
+        return channels;
+    }
+
+    /**
+     * Returns the channel which receives webhook for the destination.
+     */
+    public LineChannel resolve(final String destination) {
+        if (destination == null) {
+            return defaultChannel;
+        }
+        return channelsByDestination.getOrDefault(destination, defaultChannel);
+    }
+
+    /**
+     * Returns a {@link SignatureValidator} which validates webhook with the secret of the channel
+     * the webhook is routed to.
+     *
+     * <p>With additional channels, the validator is a {@link DestinationSignatureValidator}, so that
+     * a streamed request body is still read only once.
+     */
+    public SignatureValidator getSignatureValidator() {
+        if (channels.isEmpty()) {
+            return defaultChannel.getSignatureValidator();
+        }
+        return new RoutingSignatureValidator(this);
+    }
+
+    /**
+     * Reads top level {@code destination} property. Returns {@code null} if absent or malformed.
+     */
+    @VisibleForTesting
+    static String readDestination(final byte[] content) {
+        try (JsonParser parser = JSON_FACTORY.createParser(content)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String name = parser.getCurrentName();
+                parser.nextToken();
+                if ("destination".equals(name)) {
+                    return parser.getValueAsString();
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            // Malformed content is validated by the default channel, and rejected on parse.
+        }
+        return null;
+    }
+
+    @AllArgsConstructor
+    private static class RoutingSignatureValidator implements DestinationSignatureValidator {
+        private final LineChannelRegistry registry;
+
+        @Override
+        public LineSignatureValidator forDestination(final String destination) {
+            return registry.resolve(destination).getSignatureValidator();
+        }
+
+        @Override
+        public boolean validateSignature(final byte[] content, final String headerSignature) {
+            return forDestination(readDestination(content)).validateSignature(content, headerSignature);
+        }
+    }
+}
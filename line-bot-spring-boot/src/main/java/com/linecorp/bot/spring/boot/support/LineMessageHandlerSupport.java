@@ -16,10 +16,14 @@
 
 package com.linecorp.bot.spring.boot.support;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
@@ -45,7 +49,11 @@ import com.linecorp.bot.model.event.Event;
 import com.linecorp.bot.model.event.MessageEvent;
 import com.linecorp.bot.model.event.ReplyEvent;
 import com.linecorp.bot.model.event.message.MessageContent;
+import com.linecorp.bot.parser.EventEnvelope;
+import com.linecorp.bot.parser.EventTypeFilter;
+import com.linecorp.bot.parser.LazyEventList;
 import com.linecorp.bot.spring.boot.annotation.EventMapping;
+import com.linecorp.bot.spring.boot.annotation.LineBotDestination;
 import com.linecorp.bot.spring.boot.annotation.LineBotMessages;
 import com.linecorp.bot.spring.boot.annotation.LineMessageHandler;
 
@@ -67,18 +75,25 @@ import lombok.extern.slf4j.Slf4j;
  * <li>Class annotated with {@link LineMessageHandler}</li>
  * <li>Method annotated with {@link EventMapping}.</li>
  * </ul>
+ *
+ * <p>As an {@link EventTypeFilter}, this accepts event types which some handler method accepts.
  */
 @Slf4j
 @RestController
 @Import(ReplyByReturnValueConsumer.Factory.class)
 @ConditionalOnProperty(name = "line.bot.handler.enabled", havingValue = "true", matchIfMissing = true)
-public class LineMessageHandlerSupport {
+public class LineMessageHandlerSupport implements EventTypeFilter {
     private static final Comparator<HandlerMethod> HANDLER_METHOD_PRIORITY_COMPARATOR =
             Comparator.comparing(HandlerMethod::getPriority).reversed();
     private final ReplyByReturnValueConsumer.Factory returnValueConsumerFactory;
     private final ConfigurableApplicationContext applicationContext;
 
     volatile List<HandlerMethod> eventConsumerList;
+    volatile HandlerMethodIndex handlerMethodIndex;
+
+    private AsyncEventDispatcher asyncEventDispatcher;
+    private DuplicateEventFilter duplicateEventFilter;
+    private LineChannelRegistry lineChannelRegistry;
 
     @Autowired
     public LineMessageHandlerSupport(
@@ -94,6 +109,32 @@ public class LineMessageHandlerSupport {
         });
     }
 
+    /**
+     * Sets {@link AsyncEventDispatcher} to run event handlers asynchronously.
+     * Event handlers run on the thread which received the webhook if not set.
+     */
+    @Autowired(required = false)
+    public void setAsyncEventDispatcher(final AsyncEventDispatcher asyncEventDispatcher) {
+        this.asyncEventDispatcher = asyncEventDispatcher;
+    }
+
+    /**
+     * Sets {@link DuplicateEventFilter} to drop events which have already been received.
+     */
+    @Autowired(required = false)
+    public void setDuplicateEventFilter(final DuplicateEventFilter duplicateEventFilter) {
+        this.duplicateEventFilter = duplicateEventFilter;
+    }
+
+    /**
+     * Sets {@link LineChannelRegistry} to pass the {@link LineChannel} which received the event
+     * to handler methods.
+     */
+    @Autowired(required = false)
+    public void setLineChannelRegistry(final LineChannelRegistry lineChannelRegistry) {
+        this.lineChannelRegistry = lineChannelRegistry;
+    }
+
     @VisibleForTesting
     void refresh() {
         final Map<String, Object> handlerBeanMap =
@@ -117,26 +158,50 @@ public class LineMessageHandlerSupport {
                                          item.getSupportType(), item.getHandler().toGenericString()));
 
         eventConsumerList = collect;
+        handlerMethodIndex = new HandlerMethodIndex(collect);
     }
 
-    private HandlerMethod getMethodHandlerMethodFunction(Object consumer, Method method) {
+    @VisibleForTesting
+    static HandlerMethod getMethodHandlerMethodFunction(Object consumer, Method method) {
         final EventMapping mapping = AnnotatedElementUtils.getMergedAnnotation(method, EventMapping.class);
         if (mapping == null) {
             return null;
         }
 
-        Preconditions.checkState(method.getParameterCount() == 1,
-                                 "Number of parameter should be 1. But {}",
-                                 (Object[]) method.getParameterTypes());
-        // TODO: Support more than 1 argument. Like MVC's argument resolver?
+        final Class<?>[] parameterTypes = method.getParameterTypes();
+        Preconditions.checkState(parameterTypes.length == 1
+                                 || parameterTypes.length == 2 && parameterTypes[1] == LineChannel.class,
+                                 "Parameters should be (Event) or (Event, LineChannel). But %s",
+                                 Arrays.toString(parameterTypes));
 
         final Type type = method.getGenericParameterTypes()[0];
 
-        final Predicate<Event> predicate = new EventPredicate(type);
-        return new HandlerMethod(predicate, consumer, method, getPriority(mapping, type));
+        final EventPredicate predicate = new EventPredicate(type);
+        return new HandlerMethod(predicate, consumer, method, bindInvoker(consumer, method),
+                                 getPriority(mapping, type));
     }
 
-    private int getPriority(final EventMapping mapping, final Type type) {
+    /**
+     * Binds the handler method to its bean once, so that each dispatch doesn't pay
+     * for reflective access checks, argument boxing and {@code InvocationTargetException} wrapping.
+     * Methods without a {@link LineChannel} parameter ignore the second argument of the invoker.
+     */
+    private static MethodHandle bindInvoker(final Object consumer, final Method method) {
+        ReflectionUtils.makeAccessible(method);
+        try {
+            MethodHandle handle = MethodHandles.lookup()
+                                               .unreflect(method)
+                                               .bindTo(consumer);
+            if (method.getParameterCount() == 1) {
+                handle = MethodHandles.dropArguments(handle, 1, LineChannel.class);
+            }
+            return handle.asType(MethodType.methodType(Object.class, Event.class, LineChannel.class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Can't access handler method: " + method, e);
+        }
+    }
+
+    private static int getPriority(final EventMapping mapping, final Type type) {
         if (mapping.priority() != EventMapping.DEFAULT_PRIORITY_VALUE) {
             return mapping.priority();
         }
@@ -160,47 +225,122 @@ public class LineMessageHandlerSupport {
 
     @Value
     static class HandlerMethod {
-        Predicate<Event> supportType;
+        EventPredicate supportType;
         Object object;
         Method handler;
+        MethodHandle invoker;
         int priority;
+
+        /**
+         * Invokes the handler method. Exceptions thrown by the handler are propagated as is.
+         */
+        Object invoke(final Event event) throws Exception {
+            return invoke(event, null);
+        }
+
+        /**
+         * Invokes the handler method with the channel which received the event.
+         */
+        Object invoke(final Event event, final LineChannel channel) throws Exception {
+            try {
+                return (Object) invoker.invokeExact(event, channel);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new UndeclaredThrowableException(t);
+            }
+        }
+    }
+
+    /**
+     * Returns whether a handler method accepts the event type. Accepts all types until handler methods
+     * are collected.
+     */
+    @Override
+    public boolean accept(final Class<? extends Event> eventType,
+                          final Class<? extends MessageContent> contentType) {
+        final HandlerMethodIndex index = handlerMethodIndex;
+        return index == null || index.lookup(eventType, contentType).isPresent();
     }
 
     @PostMapping("${line.bot.handler.path:/callback}")
-    public void callback(@LineBotMessages List<Event> events) {
-        events.forEach(this::dispatch);
+    public void callback(@LineBotMessages List<Event> events, @LineBotDestination String destination) {
+        final LineChannel channel = lineChannelRegistry != null ? lineChannelRegistry.resolve(destination)
+                                                                : null;
+        final List<Event> selectedEvents = selectEvents(events, destination);
+        if (asyncEventDispatcher != null) {
+            selectedEvents.forEach(
+                    event -> asyncEventDispatcher.dispatch(event, e -> dispatch(e, channel)));
+        } else {
+            selectedEvents.forEach(event -> dispatch(event, channel));
+        }
+    }
+
+    /**
+     * Drops duplicate events. Also drops events which no handler method accepts from {@link LazyEventList}
+     * before they are bound.
+     */
+    private List<Event> selectEvents(final List<Event> events, final String destination) {
+        if (events instanceof LazyEventList) {
+            final LazyEventList lazyEvents = (LazyEventList) events;
+            final List<Event> result = new ArrayList<>(lazyEvents.size());
+            for (int i = 0; i < lazyEvents.size(); i++) {
+                final EventEnvelope envelope = lazyEvents.getEnvelope(i);
+                if (!accept(envelope.getEventType(), envelope.getContentType())) {
+                    log.debug("No handler method for event. Skipped: {}", envelope);
+                } else if (duplicateEventFilter != null && duplicateEventFilter.isDuplicate(destination, envelope)) {
+                    log.info("Dropped duplicate event: {}", envelope);
+                } else {
+                    result.add(lazyEvents.get(i));
+                }
+            }
+            return result;
+        }
+
+        if (duplicateEventFilter != null) {
+            final List<Event> result = new ArrayList<>(events.size());
+            for (Event event : events) {
+                if (duplicateEventFilter.isDuplicate(destination, event)) {
+                    log.info("Dropped duplicate event: {}", event);
+                } else {
+                    result.add(event);
+                }
+            }
+            return result;
+        }
+        return events;
     }
 
     @VisibleForTesting
     void dispatch(Event event) {
+        dispatch(event, null);
+    }
+
+    private void dispatch(final Event event, final LineChannel channel) {
         try {
-            dispatchInternal(event);
-        } catch (InvocationTargetException e) {
-            log.error("InvocationTargetException occurred.", e);
+            dispatchInternal(event, channel);
         } catch (Error | Exception e) {
             log.error(e.getMessage(), e);
         }
     }
 
-    private void dispatchInternal(final Event event) throws Exception {
-        final HandlerMethod handlerMethod = eventConsumerList
-                .stream()
-                .filter(consumer -> consumer.getSupportType().test(event))
-                .findFirst()
+    private void dispatchInternal(final Event event, final LineChannel channel) throws Exception {
+        final HandlerMethod handlerMethod = handlerMethodIndex
+                .lookup(event)
                 .orElseThrow(() -> new UnsupportedOperationException("Unsupported event type. " + event));
-        final Object returnValue = handlerMethod.getHandler().invoke(handlerMethod.getObject(), event);
+        final Object returnValue = handlerMethod.invoke(event, channel);
 
-        handleReturnValue(event, returnValue);
+        handleReturnValue(event, channel, returnValue);
     }
 
-    private void handleReturnValue(final Event event, final Object returnValue) {
+    private void handleReturnValue(final Event event, final LineChannel channel, final Object returnValue) {
         if (returnValue != null) {
-            returnValueConsumerFactory.createForEvent(event)
+            returnValueConsumerFactory.createForEvent(event, channel)
                                       .accept(returnValue);
         }
     }
 
-    private static class EventPredicate implements Predicate<Event> {
+    static class EventPredicate implements Predicate<Event> {
         private final Class<?> supportEvent;
         private final Class<? extends MessageContent> messageContentType;
 
@@ -232,6 +372,20 @@ public class LineMessageHandlerSupport {
                           && filterByType(messageContentType, ((MessageEvent<?>) event).getMessage()));
         }
 
+        /**
+         * Tests by types instead of an event instance.
+         *
+         * @param eventType concrete type of the event.
+         * @param contentType concrete type of the message content. {@code null} for non message events.
+         */
+        boolean test(final Class<?> eventType, final Class<?> contentType) {
+            return supportEvent.isAssignableFrom(eventType)
+                   && (messageContentType == null
+                       || MessageEvent.class.isAssignableFrom(eventType)
+                          && contentType != null
+                          && messageContentType.isAssignableFrom(contentType));
+        }
+
         private static boolean filterByType(final Class<?> clazz, final Object content) {
             return clazz.isAssignableFrom(content.getClass());
         }
@@ -23,7 +23,10 @@ import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ReactiveAdapter;
+import org.springframework.core.ReactiveAdapterRegistry;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
@@ -37,17 +40,26 @@ import com.linecorp.bot.model.response.BotApiResponse;
 
 import lombok.Builder;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Internal class to send message as reply.
  *
  * <p>Basically, message contents are from return value of handler method.
  *
- * @see LineMessageHandlerSupport#handleReturnValue(Event, Object)
+ * <p>Return values of type {@link CompletableFuture}, or reactive types such as {@code Mono} and
+ * {@code Flux}, are replied when they complete. Elements of a multi-value type are replied together.
+ *
+ * @see LineMessageHandlerSupport#handleReturnValue(Event, LineChannel, Object)
  */
 @Slf4j
 @Builder
 class ReplyByReturnValueConsumer implements Consumer<Object> {
+    private static final boolean REACTOR_PRESENT =
+            ClassUtils.isPresent("reactor.core.publisher.Mono",
+                                 ReplyByReturnValueConsumer.class.getClassLoader());
+
     private final LineMessagingClient lineMessagingClient;
     private final Event originalEvent;
 
@@ -60,9 +72,15 @@ class ReplyByReturnValueConsumer implements Consumer<Object> {
             this.lineMessagingClient = lineMessagingClient;
         }
 
-        ReplyByReturnValueConsumer createForEvent(final Event event) {
+        /**
+         * Creates a consumer which replies with the client of the channel.
+         *
+         * @param channel channel which the event came from. If {@code null}, replies with the default client.
+         */
+        ReplyByReturnValueConsumer createForEvent(final Event event, final LineChannel channel) {
             return builder()
-                    .lineMessagingClient(lineMessagingClient)
+                    .lineMessagingClient(channel != null ? channel.getLineMessagingClient()
+                                                         : lineMessagingClient)
                     .originalEvent(event)
                     .build();
         }
@@ -74,6 +92,10 @@ class ReplyByReturnValueConsumer implements Consumer<Object> {
             // accept when future complete.
             ((CompletableFuture<?>) returnValue)
                     .whenComplete(this::whenComplete);
+        } else if (REACTOR_PRESENT && ReactiveReturnValues.isReactive(returnValue)) {
+            // accept when publisher complete.
+            ReactiveReturnValues.toFuture(returnValue)
+                                .whenComplete(this::whenComplete);
         } else {
             // accept immediately.
             acceptResult(returnValue);
@@ -131,4 +153,22 @@ class ReplyByReturnValueConsumer implements Consumer<Object> {
 
         return (List<Message>) list;
     }
+
+    /**
+     * Adapts reactive return values. Separated so that Reactor classes are loaded only when present.
+     */
+    private static final class ReactiveReturnValues {
+        static boolean isReactive(final Object returnValue) {
+            return ReactiveAdapterRegistry.getSharedInstance().getAdapter(returnValue.getClass()) != null;
+        }
+
+        static CompletableFuture<?> toFuture(final Object returnValue) {
+            final ReactiveAdapter adapter =
+                    ReactiveAdapterRegistry.getSharedInstance().getAdapter(returnValue.getClass());
+            if (adapter.isMultiValue()) {
+                return Flux.from(adapter.toPublisher(returnValue)).collectList().toFuture();
+            }
+            return Mono.from(adapter.toPublisher(returnValue)).toFuture();
+        }
+    }
 }
@@ -16,10 +16,13 @@
 
 package com.linecorp.bot.spring.boot;
 
+import static com.linecorp.bot.spring.boot.LineBotProperties.ChannelTokenSupplyMode.OAUTH;
+import static com.linecorp.bot.spring.boot.LineBotProperties.ChannelTokenSupplyMode.ROTATION;
 import static com.linecorp.bot.spring.boot.LineBotProperties.ChannelTokenSupplyMode.SUPPLIER;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hibernate.validator.internal.engine.path.PathImpl.createPathFromString;
 
+import java.util.Arrays;
 import java.util.Set;
 
 import javax.validation.ConstraintViolation;
@@ -101,4 +104,70 @@ public class BotPropertiesValidatorTest {
                             .isEqualTo("channelToken should be null if channelTokenSupplyMode = SUPPLIER");
                 });
     }
+
+    @Test
+    public void okForOAuthTest() {
+        // Do
+        Set<ConstraintViolation<LineBotProperties>> constraintViolations =
+                VALIDATOR.validate(new LineBotProperties() {{
+                    setChannelTokenSupplyMode(OAUTH);
+                    setChannelId("CHANNEL_ID");
+                    setChannelSecret("SECRET");
+                }});
+
+        //Verify
+        assertThat(constraintViolations).isEmpty();
+    }
+
+    @Test
+    public void ngForOAuthTest() {
+        // Do
+        Set<ConstraintViolation<LineBotProperties>> constraintViolations =
+                VALIDATOR.validate(new LineBotProperties() {{
+                    setChannelTokenSupplyMode(OAUTH);
+                    setChannelSecret("SECRET");
+                }});
+
+        //Verify
+        assertThat(constraintViolations)
+                .isNotEmpty()
+                .filteredOn("propertyPath", createPathFromString("channelId"))
+                .hasOnlyOneElementSatisfying(violation -> {
+                    assertThat(violation.getMessage())
+                            .isEqualTo("channelId is null though channelTokenSupplyMode = OAUTH");
+                });
+    }
+
+    @Test
+    public void okForRotationTest() {
+        // Do
+        Set<ConstraintViolation<LineBotProperties>> constraintViolations =
+                VALIDATOR.validate(new LineBotProperties() {{
+                    setChannelTokenSupplyMode(ROTATION);
+                    setChannelTokens(Arrays.asList("TOKEN_1", "TOKEN_2"));
+                    setChannelSecret("SECRET");
+                }});
+
+        //Verify
+        assertThat(constraintViolations).isEmpty();
+    }
+
+    @Test
+    public void ngForRotationTest() {
+        // Do
+        Set<ConstraintViolation<LineBotProperties>> constraintViolations =
+                VALIDATOR.validate(new LineBotProperties() {{
+                    setChannelTokenSupplyMode(ROTATION);
+                    setChannelSecret("SECRET");
+                }});
+
+        //Verify
+        assertThat(constraintViolations)
+                .isNotEmpty()
+                .filteredOn("propertyPath", createPathFromString("channelTokens"))
+                .hasOnlyOneElementSatisfying(violation -> {
+                    assertThat(violation.getMessage())
+                            .isEqualTo("channelTokens is empty though channelTokenSupplyMode = ROTATION");
+                });
+    }
 }
@@ -22,6 +22,8 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.InputStream;
+
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -57,7 +59,7 @@ public class LineBotServerInterceptorTest {
 
     @Before
     public void setUp() throws Exception {
-        when(webhookParser.handle(anyString(), any()))
+        when(webhookParser.handle(anyString(), any(InputStream.class)))
                 .thenReturn(CallbackRequest.builder().build());
     }
 
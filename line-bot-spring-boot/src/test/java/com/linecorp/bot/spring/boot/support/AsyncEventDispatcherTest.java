@@ -0,0 +1,156 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.spring.boot.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.linecorp.bot.model.event.Event;
+import com.linecorp.bot.model.event.MessageEvent;
+import com.linecorp.bot.model.event.message.TextMessageContent;
+import com.linecorp.bot.model.event.source.GroupSource;
+
+public class AsyncEventDispatcherTest {
+    private AsyncEventDispatcher target;
+
+    @After
+    public void tearDown() throws Exception {
+        target.close();
+    }
+
+    @Test
+    public void eventsFromSameChatAreHandledInOrder() throws Exception {
+        target = new AsyncEventDispatcher(4, 16, 1000);
+
+        final Map<String, List<String>> received = new ConcurrentHashMap<>();
+        final CountDownLatch latch = new CountDownLatch(300);
+        final Consumer<Event> handler = event -> {
+            final MessageEvent<?> messageEvent = (MessageEvent<?>) event;
+            received.computeIfAbsent(event.getSource().getSenderId(), key -> new CopyOnWriteArrayList<>())
+                    .add(messageEvent.getMessage().getId());
+            latch.countDown();
+        };
+
+        // Do
+        for (int i = 0; i < 100; i++) {
+            for (String groupId : new String[] { "group1", "group2", "group3" }) {
+                assertThat(target.dispatch(createEvent(groupId, String.valueOf(i)), handler)).isTrue();
+            }
+        }
+
+        // Verify
+        assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(received).hasSize(3);
+        received.values().forEach(ids -> {
+            for (int i = 0; i < 100; i++) {
+                assertThat(ids.get(i)).isEqualTo(String.valueOf(i));
+            }
+        });
+        assertThat(target.getDispatchedEventCount()).isEqualTo(300);
+        assertThat(target.getRejectedEventCount()).isZero();
+    }
+
+    @Test
+    public void eventsExceedingQueueCapacityAreRejected() throws Exception {
+        target = new AsyncEventDispatcher(1, 1, 2);
+
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final Consumer<Event> handler = event -> {
+            started.countDown();
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        // Do
+        assertThat(target.dispatch(createEvent("group", "1"), handler)).isTrue();
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(target.dispatch(createEvent("group", "2"), handler)).isTrue();
+        assertThat(target.dispatch(createEvent("group", "3"), handler)).isTrue();
+        assertThat(target.dispatch(createEvent("group", "4"), handler)).isFalse();
+
+        // Verify
+        assertThat(target.getQueueDepth()).isEqualTo(2);
+        assertThat(target.getRejectedEventCount()).isEqualTo(1);
+
+        blocker.countDown();
+    }
+
+    @Test
+    public void eventsRejectedByExecutorAreDropped() throws Exception {
+        target = new AsyncEventDispatcher(
+                new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<>()), 16, 10);
+
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final Consumer<Event> handler = event -> {
+            started.countDown();
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        assertThat(target.dispatch(createEvent("group1", "1"), handler)).isTrue();
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // Do
+        final boolean accepted = target.dispatch(createEvent("group2", "2"), handler);
+
+        // Verify
+        assertThat(accepted).isFalse();
+        assertThat(target.getQueueDepth()).isZero();
+        assertThat(target.getRejectedEventCount()).isEqualTo(1);
+
+        blocker.countDown();
+    }
+
+    @Test
+    public void eventsDispatchedAfterCloseAreRejected() {
+        target = new AsyncEventDispatcher(1, 1, 10);
+        target.close();
+
+        // Do & Verify
+        assertThat(target.dispatch(createEvent("group", "1"), event -> {})).isFalse();
+        assertThat(target.getRejectedEventCount()).isEqualTo(1);
+    }
+
+    private static Event createEvent(final String groupId, final String messageId) {
+        return MessageEvent.<TextMessageContent>builder()
+                .replyToken("replyToken")
+                .source(GroupSource.builder().groupId(groupId).userId("userId").build())
+                .message(TextMessageContent.builder().id(messageId).text("text").build())
+                .timestamp(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.spring.boot.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+
+import com.linecorp.bot.model.event.Event;
+import com.linecorp.bot.model.event.MessageEvent;
+import com.linecorp.bot.model.event.UnfollowEvent;
+import com.linecorp.bot.model.event.message.TextMessageContent;
+import com.linecorp.bot.model.event.source.GroupSource;
+import com.linecorp.bot.model.event.source.UserSource;
+import com.linecorp.bot.parser.LazyEventList;
+import com.linecorp.bot.parser.WebhookParser;
+
+public class DuplicateEventFilterTest {
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+
+    @Test
+    public void detectDuplicate() {
+        final DuplicateEventFilter target = new DuplicateEventFilter(100, Duration.ofMinutes(1), 4, ticker);
+
+        assertThat(target.isDuplicate(createEvent("1"))).isFalse();
+        assertThat(target.isDuplicate(createEvent("2"))).isFalse();
+        assertThat(target.isDuplicate(createEvent("1"))).isTrue();
+
+        assertThat(target.getCheckedEventCount()).isEqualTo(3);
+        assertThat(target.getDuplicateEventCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void distinguishDestinations() {
+        final DuplicateEventFilter target = new DuplicateEventFilter(100, Duration.ofMinutes(1), 4, ticker);
+        final Event unfollow = UnfollowEvent.builder()
+                                            .source(UserSource.builder().userId("userId").build())
+                                            .timestamp(Instant.ofEpochMilli(1462629479859L))
+                                            .build();
+
+        assertThat(target.isDuplicate("Ubot1", unfollow)).isFalse();
+        assertThat(target.isDuplicate("Ubot2", unfollow)).isFalse();
+        assertThat(target.isDuplicate("Ubot1", unfollow)).isTrue();
+    }
+
+    @Test
+    public void forgetAfterTtl() {
+        final DuplicateEventFilter target = new DuplicateEventFilter(100, Duration.ofMinutes(1), 4, ticker);
+        assertThat(target.isDuplicate(createEvent("1"))).isFalse();
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(1));
+
+        assertThat(target.isDuplicate(createEvent("1"))).isFalse();
+    }
+
+    @Test
+    public void evictLeastRecentlySeen() {
+        final DuplicateEventFilter target = new DuplicateEventFilter(2, Duration.ofMinutes(1), 1, ticker);
+        assertThat(target.isDuplicate(createEvent("1"))).isFalse();
+        assertThat(target.isDuplicate(createEvent("2"))).isFalse();
+        assertThat(target.isDuplicate(createEvent("3"))).isFalse();
+
+        assertThat(target.isDuplicate(createEvent("1"))).isFalse();
+        assertThat(target.isDuplicate(createEvent("3"))).isTrue();
+    }
+
+    @Test
+    public void envelopeHasSameFingerprintAsEvent() throws Exception {
+        final DuplicateEventFilter target = new DuplicateEventFilter(100, Duration.ofMinutes(1), 4, ticker);
+        final String payload = "{\"events\":[{\"type\":\"message\",\"replyToken\":\"replyToken\","
+                               + "\"timestamp\":1462629479859,"
+                               + "\"source\":{\"type\":\"group\","
+                               + "\"groupId\":\"groupId\",\"userId\":\"userId\"},"
+                               + "\"message\":{\"id\":\"1\",\"type\":\"text\",\"text\":\"text\"}}]}";
+        final LazyEventList events = (LazyEventList) new WebhookParser((content, signature) -> true, true)
+                .handle("signature", payload.getBytes(StandardCharsets.UTF_8))
+                .getEvents();
+
+        assertThat(target.isDuplicate(events.getEnvelope(0))).isFalse();
+        assertThat(target.isDuplicate(createEvent("1"))).isTrue();
+    }
+
+    private static Event createEvent(final String messageId) {
+        return MessageEvent.<TextMessageContent>builder()
+                .replyToken("replyToken")
+                .source(GroupSource.builder().groupId("groupId").userId("userId").build())
+                .message(TextMessageContent.builder().id(messageId).text("text").build())
+                .timestamp(Instant.ofEpochMilli(1462629479859L))
+                .build();
+    }
+}
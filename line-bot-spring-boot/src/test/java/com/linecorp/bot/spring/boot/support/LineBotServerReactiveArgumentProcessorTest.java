@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.spring.boot.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.linecorp.bot.model.event.Event;
+import com.linecorp.bot.model.event.FollowEvent;
+import com.linecorp.bot.parser.LineSignatureValidator;
+import com.linecorp.bot.parser.WebhookParser;
+import com.linecorp.bot.spring.boot.annotation.LineBotDestination;
+import com.linecorp.bot.spring.boot.annotation.LineBotMessages;
+
+public class LineBotServerReactiveArgumentProcessorTest {
+    private final LineSignatureValidator lineSignatureValidator =
+            new LineSignatureValidator("SECRET".getBytes(StandardCharsets.US_ASCII));
+
+    private CallbackController controller;
+    private WebTestClient client;
+
+    @Before
+    public void setUp() {
+        controller = new CallbackController();
+        final LineBotServerReactiveArgumentProcessor target =
+                new LineBotServerReactiveArgumentProcessor(new WebhookParser(lineSignatureValidator));
+        client = WebTestClient.bindToController(controller)
+                              .argumentResolvers(configurer -> configurer.addCustomResolver(target))
+                              .build();
+    }
+
+    @Test
+    public void resolveEventsAndDestination() {
+        final byte[] payload = ("{\"destination\":\"Ubot\",\"events\":["
+                                + "{\"type\":\"follow\",\"replyToken\":\"token\",\"timestamp\":1,"
+                                + "\"source\":{\"type\":\"user\",\"userId\":\"U\"}}]}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        // Do
+        client.post().uri("/callback")
+              .header(WebhookParser.SIGNATURE_HEADER_NAME, sign(payload))
+              .bodyValue(payload)
+              .exchange()
+              .expectStatus().isOk();
+
+        // Verify
+        assertThat(controller.events).hasSize(1);
+        assertThat(controller.events.get(0)).isInstanceOf(FollowEvent.class);
+        assertThat(controller.destination).isEqualTo("Ubot");
+    }
+
+    @Test
+    public void invalidSignatureIsBadRequest() {
+        final byte[] payload = "{\"events\":[]}".getBytes(StandardCharsets.UTF_8);
+
+        // Do
+        client.post().uri("/callback")
+              .header(WebhookParser.SIGNATURE_HEADER_NAME, sign("{}".getBytes(StandardCharsets.UTF_8)))
+              .bodyValue(payload)
+              .exchange()
+              .expectStatus().isBadRequest();
+
+        // Verify
+        assertThat(controller.events).isNull();
+    }
+
+    @Test
+    public void missingSignatureIsBadRequest() {
+        client.post().uri("/callback")
+              .bodyValue("{\"events\":[]}")
+              .exchange()
+              .expectStatus().isBadRequest();
+
+        assertThat(controller.events).isNull();
+    }
+
+    @Test
+    public void tooLargeBodyIsRejected() {
+        final byte[] payload = new byte[LineBotServerReactiveArgumentProcessor.MAX_BODY_SIZE + 1];
+
+        client.post().uri("/callback")
+              .header(WebhookParser.SIGNATURE_HEADER_NAME, sign(payload))
+              .bodyValue(payload)
+              .exchange()
+              .expectStatus().isEqualTo(413);
+
+        assertThat(controller.events).isNull();
+    }
+
+    private String sign(final byte[] payload) {
+        return Base64.getEncoder().encodeToString(lineSignatureValidator.generateSignature(payload));
+    }
+
+    @RestController
+    public static class CallbackController {
+        List<Event> events;
+        String destination;
+
+        @PostMapping("/callback")
+        public void callback(@LineBotMessages List<Event> events, @LineBotDestination String destination) {
+            this.events = events;
+            this.destination = destination;
+        }
+    }
+}
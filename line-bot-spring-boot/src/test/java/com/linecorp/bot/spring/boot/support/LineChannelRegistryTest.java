@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.spring.boot.support;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.Test;
+
+import com.linecorp.bot.client.LineBlobClient;
+import com.linecorp.bot.client.LineMessagingClient;
+import com.linecorp.bot.parser.LineSignatureValidator;
+import com.linecorp.bot.parser.SignatureValidator;
+
+public class LineChannelRegistryTest {
+    private static final LineChannel DEFAULT_CHANNEL = createChannel("default", null, "defaultSecret");
+    private static final LineChannel SUB_CHANNEL = createChannel("sub", "Usub", "subSecret");
+
+    @Test
+    public void resolveFallsBackToDefaultChannel() {
+        final LineChannelRegistry target = new LineChannelRegistry(DEFAULT_CHANNEL, asList(SUB_CHANNEL));
+
+        assertThat(target.resolve("Usub")).isSameAs(SUB_CHANNEL);
+        assertThat(target.resolve("Uunknown")).isSameAs(DEFAULT_CHANNEL);
+        assertThat(target.resolve(null)).isSameAs(DEFAULT_CHANNEL);
+    }
+
+    @Test
+    public void signatureValidatorUsesSecretOfDestination() {
+        final SignatureValidator validator =
+                new LineChannelRegistry(DEFAULT_CHANNEL, asList(SUB_CHANNEL)).getSignatureValidator();
+
+        final byte[] sub = "{\"destination\":\"Usub\",\"events\":[]}".getBytes(StandardCharsets.UTF_8);
+        final byte[] other = "{\"events\":[],\"destination\":\"Uother\"}".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(validator.validateSignature(sub, sign(SUB_CHANNEL, sub))).isTrue();
+        assertThat(validator.validateSignature(sub, sign(DEFAULT_CHANNEL, sub))).isFalse();
+        assertThat(validator.validateSignature(other, sign(DEFAULT_CHANNEL, other))).isTrue();
+        assertThat(validator.validateSignature(other, sign(SUB_CHANNEL, other))).isFalse();
+    }
+
+    @Test
+    public void signatureValidatorOfSingleChannel() {
+        final LineChannelRegistry target = new LineChannelRegistry(DEFAULT_CHANNEL, emptyList());
+
+        assertThat(target.getSignatureValidator()).isSameAs(DEFAULT_CHANNEL.getSignatureValidator());
+    }
+
+    @Test
+    public void duplicateDestinationIsRejected() {
+        final LineChannel another = createChannel("another", "Usub", "anotherSecret");
+
+        assertThatThrownBy(() -> new LineChannelRegistry(DEFAULT_CHANNEL, asList(SUB_CHANNEL, another)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("same destination");
+    }
+
+    @Test
+    public void readDestination() {
+        assertThat(LineChannelRegistry.readDestination(
+                "{\"events\":[{\"destination\":\"nested\"}],\"destination\":\"U1\"}"
+                        .getBytes(StandardCharsets.UTF_8)))
+                .isEqualTo("U1");
+        assertThat(LineChannelRegistry.readDestination("{\"events\":[]}".getBytes(StandardCharsets.UTF_8)))
+                .isNull();
+        assertThat(LineChannelRegistry.readDestination("not json".getBytes(StandardCharsets.UTF_8)))
+                .isNull();
+    }
+
+    private static String sign(final LineChannel channel, final byte[] content) {
+        return Base64.getEncoder().encodeToString(channel.getSignatureValidator().generateSignature(content));
+    }
+
+    private static LineChannel createChannel(final String name, final String destination,
+                                             final String secret) {
+        return LineChannel.builder()
+                          .name(name)
+                          .destination(destination)
+                          .signatureValidator(
+                                  new LineSignatureValidator(secret.getBytes(StandardCharsets.US_ASCII)))
+                          .lineMessagingClient(mock(LineMessagingClient.class))
+                          .lineBlobClient(mock(LineBlobClient.class))
+                          .build();
+    }
+}
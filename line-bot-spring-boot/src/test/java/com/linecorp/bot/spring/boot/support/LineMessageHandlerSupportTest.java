@@ -16,14 +16,21 @@
 
 package com.linecorp.bot.spring.boot.support;
 
+import static java.util.Collections.singletonList;
 import static java.util.Collections.singletonMap;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.function.Predicate;
 
 import org.junit.Before;
@@ -37,11 +44,20 @@ import org.springframework.context.ConfigurableApplicationContext;
 
 import com.google.common.collect.ImmutableMap;
 
+import com.linecorp.bot.client.LineBlobClient;
+import com.linecorp.bot.client.LineMessagingClient;
 import com.linecorp.bot.model.event.Event;
+import com.linecorp.bot.model.event.EventMode;
+import com.linecorp.bot.model.event.FollowEvent;
 import com.linecorp.bot.model.event.MessageEvent;
 import com.linecorp.bot.model.event.ReplyEvent;
+import com.linecorp.bot.model.event.message.ImageMessageContent;
 import com.linecorp.bot.model.event.message.TextMessageContent;
+import com.linecorp.bot.model.event.source.Source;
 import com.linecorp.bot.model.message.TextMessage;
+import com.linecorp.bot.parser.LazyEventList;
+import com.linecorp.bot.parser.LineSignatureValidator;
+import com.linecorp.bot.parser.WebhookParser;
 import com.linecorp.bot.spring.boot.annotation.EventMapping;
 import com.linecorp.bot.spring.boot.annotation.LineMessageHandler;
 import com.linecorp.bot.spring.boot.support.LineMessageHandlerSupport.HandlerMethod;
@@ -67,7 +83,7 @@ public class LineMessageHandlerSupportTest {
 
     @Before
     public void setUp() {
-        when(replyByReturnValueConsumerFactory.createForEvent(any()))
+        when(replyByReturnValueConsumerFactory.createForEvent(any(), any()))
                 .thenReturn(replyByReturnValueConsumer);
     }
 
@@ -114,6 +130,54 @@ public class LineMessageHandlerSupportTest {
                 .isEqualTo("defaultEventHandler");
     }
 
+    @Test
+    public void testHandlerMethodIndex() throws Exception {
+        when(applicationContext.getBeansWithAnnotation(LineMessageHandler.class))
+                .thenReturn(ImmutableMap.of("bean", new MessageHandler(),
+                                            "anothrer", new AnotherMessageHandler()));
+
+        // Do
+        target.refresh();
+
+        // Verify
+        final HandlerMethodIndex index = target.handlerMethodIndex;
+        assertThat(index.lookup(EventTestUtil.createTextMessage("text")).get().getHandler().getName())
+                .isEqualTo("textMessageEventHandler");
+        assertThat(index.lookup(MessageEvent.class, ImageMessageContent.class).get().getHandler().getName())
+                .isEqualTo("generalMessageHandler");
+        assertThat(index.lookup(FollowEvent.class, null).get().getHandler().getName())
+                .isEqualTo("defaultEventHandler");
+        assertThat(index.lookup(CustomEvent.class, null).get().getHandler().getName())
+                .isEqualTo("defaultEventHandler");
+    }
+
+    @Test
+    public void testHandlerMethodIndexWithoutMatchingHandler() throws Exception {
+        when(applicationContext.getBeansWithAnnotation(LineMessageHandler.class))
+                .thenReturn(singletonMap("bean", new MessageHandler()));
+
+        // Do
+        target.refresh();
+
+        // Verify
+        assertThat(target.handlerMethodIndex.lookup(FollowEvent.class, null)).isEmpty();
+        assertThat(target.handlerMethodIndex.lookup(CustomEvent.class, null)).isEmpty();
+    }
+
+    @Test
+    public void testHandlerMethodInvokePropagatesException() throws Exception {
+        when(applicationContext.getBeansWithAnnotation(LineMessageHandler.class))
+                .thenReturn(singletonMap("bean", new ThrowingHandler()));
+
+        target.refresh();
+
+        // Do & Verify
+        final HandlerMethod handlerMethod = target.eventConsumerList.get(0);
+        assertThatThrownBy(() -> handlerMethod.invoke(EventTestUtil.createTextMessage("text")))
+                .isExactlyInstanceOf(IllegalStateException.class)
+                .hasMessage("text");
+    }
+
     @Test
     public void dispatchAndReplyMessageTest() {
         final MessageEvent event = EventTestUtil.createTextMessage("text");
@@ -127,10 +191,110 @@ public class LineMessageHandlerSupportTest {
         target.dispatch(event);
 
         // Verify
-        verify(replyByReturnValueConsumerFactory).createForEvent(event);
+        verify(replyByReturnValueConsumerFactory).createForEvent(event, null);
         verify(replyByReturnValueConsumer, times(1)).accept(new TextMessage("Message from Handler method"));
     }
 
+    @Test
+    public void callbackPassesChannelOfDestination() throws Exception {
+        final LineChannel channel = createChannel("sub", "Usub");
+        final LineChannel defaultChannel = createChannel("default", null);
+        target.setLineChannelRegistry(new LineChannelRegistry(defaultChannel, singletonList(channel)));
+
+        final ChannelHandler handler = new ChannelHandler();
+        when(applicationContext.getBeansWithAnnotation(LineMessageHandler.class))
+                .thenReturn(singletonMap("bean", handler));
+        target.refresh();
+
+        final MessageEvent event = EventTestUtil.createTextMessage("text");
+
+        // Do
+        target.callback(singletonList(event), "Usub");
+
+        // Verify
+        assertThat(handler.received).isSameAs(channel);
+        verify(replyByReturnValueConsumerFactory).createForEvent(event, channel);
+    }
+
+    @Test
+    public void callbackWithAsyncEventDispatcher() {
+        final AsyncEventDispatcher asyncEventDispatcher = mock(AsyncEventDispatcher.class);
+        final MessageEvent event = EventTestUtil.createTextMessage("text");
+        target.setAsyncEventDispatcher(asyncEventDispatcher);
+
+        // Do
+        target.callback(singletonList(event), null);
+
+        // Verify
+        verify(asyncEventDispatcher).dispatch(eq(event), any());
+    }
+
+    @Test
+    public void callbackSkipsUnhandledLazyEvents() throws Exception {
+        when(applicationContext.getBeansWithAnnotation(LineMessageHandler.class))
+                .thenReturn(singletonMap("bean", new MessageHandler()));
+        target.refresh();
+
+        final String payload = "{\"events\":["
+                               + "{\"type\":\"beacon\",\"replyToken\":\"token\",\"timestamp\":1,"
+                               + "\"source\":{\"type\":\"user\",\"userId\":\"U\"},"
+                               + "\"beacon\":{\"hwid\":\"hwid\",\"type\":\"enter\"}},"
+                               + "{\"type\":\"message\",\"replyToken\":\"token\",\"timestamp\":1,"
+                               + "\"source\":{\"type\":\"user\",\"userId\":\"U\"},"
+                               + "\"message\":{\"id\":\"1\",\"type\":\"text\",\"text\":\"text\"}}"
+                               + "]}";
+        final LazyEventList events = (LazyEventList) new WebhookParser((content, signature) -> true, true)
+                .handle("signature", payload.getBytes(StandardCharsets.UTF_8))
+                .getEvents();
+
+        // Do
+        target.callback(events, null);
+
+        // Verify
+        assertThat(events.isBound(0)).isFalse();
+        assertThat(events.isBound(1)).isTrue();
+    }
+
+    @Test
+    public void callbackDropsDuplicateEvents() {
+        final DuplicateEventFilter duplicateEventFilter = new DuplicateEventFilter(100, Duration.ofMinutes(1));
+        final AsyncEventDispatcher asyncEventDispatcher = mock(AsyncEventDispatcher.class);
+        final MessageEvent event = EventTestUtil.createTextMessage("text");
+        target.setDuplicateEventFilter(duplicateEventFilter);
+        target.setAsyncEventDispatcher(asyncEventDispatcher);
+
+        // Do
+        target.callback(singletonList(event), null);
+        target.callback(singletonList(EventTestUtil.createTextMessage("text")), null);
+
+        // Verify
+        verify(asyncEventDispatcher, times(1)).dispatch(any(), any());
+        assertThat(duplicateEventFilter.getDuplicateEventCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void acceptEventTypesWithHandler() throws Exception {
+        // Accept all until handler methods are collected.
+        assertThat(target.accept(FollowEvent.class, null)).isTrue();
+
+        when(applicationContext.getBeansWithAnnotation(LineMessageHandler.class))
+                .thenReturn(singletonMap("bean", new MessageHandler()));
+        target.refresh();
+
+        assertThat(target.accept(MessageEvent.class, TextMessageContent.class)).isTrue();
+        assertThat(target.accept(FollowEvent.class, null)).isFalse();
+    }
+
+    private static LineChannel createChannel(final String name, final String destination) {
+        return LineChannel.builder()
+                          .name(name)
+                          .destination(destination)
+                          .signatureValidator(mock(LineSignatureValidator.class))
+                          .lineMessagingClient(mock(LineMessagingClient.class))
+                          .lineBlobClient(mock(LineBlobClient.class))
+                          .build();
+    }
+
     @LineMessageHandler
     public static class MessageHandler {
         @EventMapping
@@ -149,6 +313,42 @@ public class LineMessageHandlerSupportTest {
         }
     }
 
+    public static class CustomEvent implements Event {
+        @Override
+        public Source getSource() {
+            return null;
+        }
+
+        @Override
+        public Instant getTimestamp() {
+            return null;
+        }
+
+        @Override
+        public EventMode getMode() {
+            return null;
+        }
+    }
+
+    @LineMessageHandler
+    public static class ThrowingHandler {
+        @EventMapping
+        public void handle(MessageEvent<TextMessageContent> event) {
+            throw new IllegalStateException(event.getMessage().getText());
+        }
+    }
+
+    @LineMessageHandler
+    public static class ChannelHandler {
+        LineChannel received;
+
+        @EventMapping
+        public TextMessage handle(final MessageEvent<TextMessageContent> event, final LineChannel channel) {
+            received = channel;
+            return new TextMessage(channel.getName());
+        }
+    }
+
     @LineMessageHandler
     @AllArgsConstructor
     public static class ReplyHandler {
@@ -20,11 +20,13 @@ import static java.util.Collections.singletonList;
 import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.only;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
@@ -46,6 +48,10 @@ import com.linecorp.bot.model.message.TextMessage;
 import com.linecorp.bot.model.response.BotApiResponse;
 import com.linecorp.bot.spring.boot.test.EventTestUtil;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
 public class ReplyByReturnValueConsumerTest {
     private static final MessageEvent EVENT = EventTestUtil.createTextMessage("text");
 
@@ -68,7 +74,7 @@ public class ReplyByReturnValueConsumerTest {
 
     @Before
     public void setUp() {
-        target = targetFactory.createForEvent(EVENT);
+        target = targetFactory.createForEvent(EVENT, null);
         when(lineMessagingClient.replyMessage(any()))
                 .thenReturn(completedFuture(new BotApiResponse("", " success", null)));
     }
@@ -123,6 +129,43 @@ public class ReplyByReturnValueConsumerTest {
                                                singletonList(new TextMessage("Reply Text"))));
     }
 
+    @Test
+    public void acceptMonoReplyTest() throws Exception {
+        // Do
+        final MonoProcessor<TextMessage> returnValue = MonoProcessor.create();
+        target.accept(returnValue);
+        verify(lineMessagingClient, never()).replyMessage(any());
+        returnValue.onNext(new TextMessage("Reply Text"));
+
+        // Verify
+        verify(lineMessagingClient, only())
+                .replyMessage(new ReplyMessage(EVENT.getReplyToken(),
+                                               singletonList(new TextMessage("Reply Text"))));
+    }
+
+    @Test
+    public void acceptFluxReplyTest() throws Exception {
+        // Do
+        target.accept(Flux.just(new TextMessage("Reply 1"), new TextMessage("Reply 2")));
+
+        // Verify
+        verify(lineMessagingClient, only())
+                .replyMessage(new ReplyMessage(EVENT.getReplyToken(),
+                                               Arrays.asList(new TextMessage("Reply 1"),
+                                                             new TextMessage("Reply 2"))));
+    }
+
+    @Test
+    public void errorInMonoLoggingTest() {
+        // Do
+        target.accept(Mono.error(new GeneralLineMessagingException("EXCEPTION HAPPEN!", null, null)));
+
+        // Verify
+        verify(lineMessagingClient, never()).replyMessage(any());
+        assertThat(systemOut.getLogWithNormalizedLineSeparator())
+                .contains("EXCEPTION HAPPEN!");
+    }
+
     @Test
     public void errorInCompletableLoggingTest() {
         // Do
@@ -16,10 +16,10 @@
 
 package mps.linebot.callback;
 
-import com.google.common.io.ByteStreams;
 import com.linecorp.bot.client.LineBlobClient;
 import com.linecorp.bot.client.LineMessagingClient;
-import com.linecorp.bot.client.MessageContentResponse;
+import com.linecorp.bot.client.LineProfileCache;
+import com.linecorp.bot.client.MessageContentTransferResult;
 import com.linecorp.bot.model.ReplyMessage;
 import com.linecorp.bot.model.action.*;
 import com.linecorp.bot.model.event.*;
@@ -45,10 +45,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.IOException;
-import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.net.URI;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -59,7 +57,6 @@ import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static java.util.Collections.singletonList;
@@ -83,6 +80,8 @@ public class CallbackController {
 
   @Autowired private LineBlobClient lineBlobClient;
 
+  @Autowired private LineProfileCache lineProfileCache;
+
   /**
    * 接收文字
    * @param event
@@ -128,23 +127,18 @@ public class CallbackController {
   @EventMapping
   public void handleImageMessageEvent(MessageEvent<ImageMessageContent> event) throws IOException {
     // You need to install ImageMagick
-    handleHeavyContent(
-        event.getReplyToken(),
-        event.getMessage().getId(),
-        responseBody -> {
-          final ContentProvider provider = event.getMessage().getContentProvider();
-          final DownloadedContent jpg;
-          final DownloadedContent previewImg;
-          if (provider.isExternal()) {
-            jpg = new DownloadedContent(null, provider.getOriginalContentUrl());
-            previewImg = new DownloadedContent(null, provider.getPreviewImageUrl());
-          } else {
-            jpg = saveContent("jpg", responseBody);
-            previewImg = createTempFile("jpg");
-            system("convert", "-resize", "240x", jpg.path.toString(), previewImg.path.toString());
-          }
-          reply(event.getReplyToken(), new ImageMessage(jpg.getUri(), previewImg.getUri()));
-        });
+    final ContentProvider provider = event.getMessage().getContentProvider();
+    final DownloadedContent jpg;
+    final DownloadedContent previewImg;
+    if (provider.isExternal()) {
+      jpg = new DownloadedContent(null, provider.getOriginalContentUrl());
+      previewImg = new DownloadedContent(null, provider.getPreviewImageUrl());
+    } else {
+      jpg = saveContent(event.getReplyToken(), event.getMessage().getId(), "jpg");
+      previewImg = createTempFile("jpg");
+      system("convert", "-resize", "240x", jpg.path.toString(), previewImg.path.toString());
+    }
+    reply(event.getReplyToken(), new ImageMessage(jpg.getUri(), previewImg.getUri()));
   }
 
   /**
@@ -154,19 +148,14 @@ public class CallbackController {
    */
   @EventMapping
   public void handleAudioMessageEvent(MessageEvent<AudioMessageContent> event) throws IOException {
-    handleHeavyContent(
-        event.getReplyToken(),
-        event.getMessage().getId(),
-        responseBody -> {
-          final ContentProvider provider = event.getMessage().getContentProvider();
-          final DownloadedContent mp4;
-          if (provider.isExternal()) {
-            mp4 = new DownloadedContent(null, provider.getOriginalContentUrl());
-          } else {
-            mp4 = saveContent("mp4", responseBody);
-          }
-          reply(event.getReplyToken(), new AudioMessage(mp4.getUri(), 100));
-        });
+    final ContentProvider provider = event.getMessage().getContentProvider();
+    final DownloadedContent mp4;
+    if (provider.isExternal()) {
+      mp4 = new DownloadedContent(null, provider.getOriginalContentUrl());
+    } else {
+      mp4 = saveContent(event.getReplyToken(), event.getMessage().getId(), "mp4");
+    }
+    reply(event.getReplyToken(), new AudioMessage(mp4.getUri(), 100));
   }
 
   /**
@@ -177,23 +166,18 @@ public class CallbackController {
   @EventMapping
   public void handleVideoMessageEvent(MessageEvent<VideoMessageContent> event) throws IOException {
     // You need to install ffmpeg and ImageMagick.
-    handleHeavyContent(
-        event.getReplyToken(),
-        event.getMessage().getId(),
-        responseBody -> {
-          final ContentProvider provider = event.getMessage().getContentProvider();
-          final DownloadedContent mp4;
-          final DownloadedContent previewImg;
-          if (provider.isExternal()) {
-            mp4 = new DownloadedContent(null, provider.getOriginalContentUrl());
-            previewImg = new DownloadedContent(null, provider.getPreviewImageUrl());
-          } else {
-            mp4 = saveContent("mp4", responseBody);
-            previewImg = createTempFile("jpg");
-            system("convert", mp4.path + "[0]", previewImg.path.toString());
-          }
-          reply(event.getReplyToken(), new VideoMessage(mp4.getUri(), previewImg.uri));
-        });
+    final ContentProvider provider = event.getMessage().getContentProvider();
+    final DownloadedContent mp4;
+    final DownloadedContent previewImg;
+    if (provider.isExternal()) {
+      mp4 = new DownloadedContent(null, provider.getOriginalContentUrl());
+      previewImg = new DownloadedContent(null, provider.getPreviewImageUrl());
+    } else {
+      mp4 = saveContent(event.getReplyToken(), event.getMessage().getId(), "mp4");
+      previewImg = createTempFile("jpg");
+      system("convert", mp4.path + "[0]", previewImg.path.toString());
+    }
+    reply(event.getReplyToken(), new VideoMessage(mp4.getUri(), previewImg.uri));
   }
 
   /**
@@ -214,10 +198,12 @@ public class CallbackController {
   @EventMapping
   public void handleUnfollowEvent(UnfollowEvent event) {
     log.info("unfollowed this bot: {}", event);
+    lineProfileCache.invalidate(event.getSource().getUserId());
   }
 
   @EventMapping
   public void handleFollowEvent(FollowEvent event) {
+    lineProfileCache.warmUp(event);
     String replyToken = event.getReplyToken();
     this.replyText(replyToken, "Got followed event");
   }
@@ -254,6 +240,7 @@ public class CallbackController {
 
   @EventMapping
   public void handleMemberJoined(MemberJoinedEvent event) {
+    lineProfileCache.warmUp(event);
     String replyToken = event.getReplyToken();
     this.replyText(
         replyToken,
@@ -308,18 +295,6 @@ public class CallbackController {
     this.reply(replyToken, new TextMessage(message));
   }
 
-  private void handleHeavyContent(
-      String replyToken, String messageId, Consumer<MessageContentResponse> messageConsumer) {
-    final MessageContentResponse response;
-    try {
-      response = lineBlobClient.getMessageContent(messageId).get();
-    } catch (InterruptedException | ExecutionException e) {
-      reply(replyToken, new TextMessage("Cannot get image: " + e.getMessage()));
-      throw new RuntimeException(e);
-    }
-    messageConsumer.accept(response);
-  }
-
   private void handleSticker(String replyToken, StickerMessageContent content) {
     reply(replyToken, new StickerMessage(content.getPackageId(), content.getStickerId()));
   }
@@ -361,11 +336,11 @@ public class CallbackController {
           if (userId != null) {
 
             CompletableFuture<UserProfileResponse> userProfileFuture =
-                lineMessagingClient.getProfile(event.getSource().getUserId());
+                lineProfileCache.getProfile(event.getSource().getUserId());
 
             try {
 
-              UserProfileSupplier userProfile = new UserProfileSupplier(lineMessagingClient, event);
+              UserProfileSupplier userProfile = new UserProfileSupplier(lineProfileCache, event);
               userProfile.showProfile();
               // TODO: Call MPS API betting here
               String current = "1234";
@@ -391,7 +366,7 @@ public class CallbackController {
         break;
       case "充值":
         {
-          UserProfileSupplier userProfile = new UserProfileSupplier(lineMessagingClient, event);
+          UserProfileSupplier userProfile = new UserProfileSupplier(lineProfileCache, event);
           userProfile.showProfile();
 
           ConfirmTemplate confirmTemplate =
@@ -403,7 +378,7 @@ public class CallbackController {
         }
       case "遊戲":
         {
-          UserProfileSupplier userProfile = new UserProfileSupplier(lineMessagingClient, event);
+          UserProfileSupplier userProfile = new UserProfileSupplier(lineProfileCache, event);
           userProfile.showProfile();
 
           URI imageUrl = createUri("/static/buttons/logo.png");
@@ -425,7 +400,7 @@ public class CallbackController {
         }
       case "快速查詢":
         {
-          UserProfileSupplier userProfile = new UserProfileSupplier(lineMessagingClient, event);
+          UserProfileSupplier userProfile = new UserProfileSupplier(lineProfileCache, event);
           userProfile.showProfile();
 
           this.reply(replyToken, new MessageWithQuickReplySupplier().get());
@@ -434,7 +409,7 @@ public class CallbackController {
       case "余额查询":
       case "余额":
         {
-          UserProfileSupplier userProfile = new UserProfileSupplier(lineMessagingClient, event);
+          UserProfileSupplier userProfile = new UserProfileSupplier(lineProfileCache, event);
           userProfile.showProfile();
 
           String senderId = event.getSource().getSenderId();
@@ -447,7 +422,7 @@ public class CallbackController {
           }
       case "quick_reply":
         {
-          UserProfileSupplier userProfile = new UserProfileSupplier(lineMessagingClient, event);
+          UserProfileSupplier userProfile = new UserProfileSupplier(lineProfileCache, event);
           userProfile.showProfile();
 
           final List<QuickReplyItem> items =
@@ -480,7 +455,7 @@ public class CallbackController {
         }
       case "carousel":
         {
-          UserProfileSupplier userProfile = new UserProfileSupplier(lineMessagingClient, event);
+          UserProfileSupplier userProfile = new UserProfileSupplier(lineProfileCache, event);
           userProfile.showProfile();
 
           URI imageUrl = createUri("/static/buttons/1040.jpg");
@@ -536,7 +511,7 @@ public class CallbackController {
         }
       case "image_carousel":
         {
-          UserProfileSupplier userProfile = new UserProfileSupplier(lineMessagingClient, event);
+          UserProfileSupplier userProfile = new UserProfileSupplier(lineProfileCache, event);
           userProfile.showProfile();
 
           URI imageUrl = createUri("/static/buttons/1040.jpg");
@@ -581,16 +556,16 @@ public class CallbackController {
     }
   }
 
-  private static DownloadedContent saveContent(String ext, MessageContentResponse responseBody) {
-    log.info("Got content-type: {}", responseBody);
-
+  private DownloadedContent saveContent(String replyToken, String messageId, String ext) {
     DownloadedContent tempFile = createTempFile(ext);
-    try (OutputStream outputStream = Files.newOutputStream(tempFile.path)) {
-      ByteStreams.copy(responseBody.getStream(), outputStream);
-      log.info("Saved {}: {}", ext, tempFile);
+    try {
+      MessageContentTransferResult result =
+          lineBlobClient.downloadMessageContent(messageId, tempFile.path).get();
+      log.info("Saved {} ({}, {} bytes): {}", ext, result.getMimeType(), result.getLength(), tempFile);
       return tempFile;
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
+    } catch (InterruptedException | ExecutionException e) {
+      reply(replyToken, new TextMessage("Cannot get image: " + e.getMessage()));
+      throw new RuntimeException(e);
     }
   }
 
@@ -1,6 +1,6 @@
 package mps.linebot.supplier;
 
-import com.linecorp.bot.client.LineMessagingClient;
+import com.linecorp.bot.client.LineProfileCache;
 import com.linecorp.bot.model.event.Event;
 import com.linecorp.bot.model.profile.UserProfileResponse;
 import lombok.extern.slf4j.Slf4j;
@@ -14,16 +14,19 @@ public class UserProfileSupplier {
   Event event;
 
   UserProfileResponse userProfile = null;
-  LineMessagingClient lineMessagingClient;
+  LineProfileCache lineProfileCache;
 
-  public UserProfileSupplier(LineMessagingClient lineMessagingClient, Event event) {
-    this.lineMessagingClient = lineMessagingClient;
+  public UserProfileSupplier(LineProfileCache lineProfileCache, Event event) {
+    this.lineProfileCache = lineProfileCache;
     this.event = event;
   }
 
   private void parse() throws ExecutionException, InterruptedException {
+    if (userProfile != null) {
+      return;
+    }
     CompletableFuture<UserProfileResponse> userProfileFuture =
-        lineMessagingClient.getProfile(event.getSource().getUserId());
+        lineProfileCache.getProfile(event.getSource().getUserId());
     userProfile = userProfileFuture.get();
   }
 